@@ -0,0 +1,98 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+
+/**
+ * 批量预取的ID生成器<br>
+ * 每个线程持有一个缓冲区，缓冲区用尽时通过{@link IdGenerator#nextIds(long[])}一次性向底层生成器预取一批ID，
+ * 之后的{@link #nextId()}只是一次数组读取，不再竞争底层生成器。
+ * <p>
+ * 注意：ID在预取时就已经确定，其中的时间戳是预取时的时间；同一线程内的ID严格递增，不同线程之间不保证有序。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class BatchingIdGenerator implements IdGenerator {
+
+    private final IdGenerator delegate;
+    private final int batchSize;
+    private final ThreadLocal<Buffer> buffers;
+
+    /**
+     * 构造
+     *
+     * @param delegate  底层生成器
+     * @param batchSize 每次预取的ID个数
+     */
+    public BatchingIdGenerator(IdGenerator delegate, int batchSize) {
+        if (null == delegate) {
+            throw new IllegalArgumentException("delegate can't be null");
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(
+                StringUtils.format("batch size can't be less than 1, but was %s", batchSize));
+        }
+        this.delegate = delegate;
+        this.batchSize = batchSize;
+        this.buffers = ThreadLocal.withInitial(() -> new Buffer(batchSize));
+    }
+
+    /**
+     * 获取底层生成器
+     *
+     * @return 底层生成器
+     */
+    public IdGenerator getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 每次预取的ID个数
+     *
+     * @return 个数
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    @Override
+    public long nextId() {
+        final Buffer buffer = buffers.get();
+        if (buffer.index == buffer.ids.length) {
+            delegate.nextIds(buffer.ids);
+            buffer.index = 0;
+        }
+        return buffer.ids[buffer.index++];
+    }
+
+    @Override
+    public void nextIds(long[] dest) {
+        // 先用完缓冲区中较早预取的ID，保证同一线程内递增，剩余部分直接交给底层生成器
+        final Buffer buffer = buffers.get();
+        final int buffered = Math.min(dest.length, buffer.ids.length - buffer.index);
+        System.arraycopy(buffer.ids, buffer.index, dest, 0, buffered);
+        buffer.index += buffered;
+        if (buffered == 0) {
+            delegate.nextIds(dest);
+        } else if (buffered < dest.length) {
+            final long[] rest = new long[dest.length - buffered];
+            delegate.nextIds(rest);
+            System.arraycopy(rest, 0, dest, buffered, rest.length);
+        }
+    }
+
+    /**
+     * 线程私有的缓冲区
+     */
+    private static final class Buffer {
+
+        private final long[] ids;
+        private int index;
+
+        private Buffer(int batchSize) {
+            this.ids = new long[batchSize];
+            this.index = batchSize;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 基于共享目录与文件锁的workerId分配器<br>
+ * 每个(dataCenterId, workerId)对应目录下的一个{@code node-<dataCenterId>-<workerId>.lease}文件，
+ * 申请租约时依次尝试对文件加排他锁，并在文件中记录到期时间与持有者标识，持有期间一直不释放文件锁。
+ * 适用于单台Linux主机上的多个进程，或者挂载了同一NFS目录的多台主机。
+ * <p>
+ * 除文件锁外，只有当文件中记录的到期时间已经过去{@value #GRACE_MILLIS}毫秒后才允许他人接管，
+ * 这样即使在文件锁不可靠的文件系统上，或者前一个持有者崩溃后，也不会与尚在容忍时钟回拨范围内的旧ID冲突。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class FileWorkerIdAllocator implements WorkerIdAllocator {
+
+    /**
+     * 租约到期后到允许他人接管之间的宽限期，与生成器容忍的时钟回拨一致
+     */
+    public static final long GRACE_MILLIS = 2000L;
+
+    /**
+     * 文件内容：到期时间(8字节) + 持有者标识(8字节)
+     */
+    private static final int RECORD_SIZE = 16;
+
+    /**
+     * 本JVM已加锁的租约文件。文件锁由JVM持有，关闭同一文件上的任意channel都会释放JVM在该文件上的全部锁，
+     * 因此不能对这些文件再打开、关闭新的channel，只能在打开之前跳过
+     */
+    private static final Set<Path> LOCAL_LEASES = ConcurrentHashMap.newKeySet();
+
+    private final Path directory;
+    private final long leaseMillis;
+    private final long maxWorkerId;
+    private final long minDataCenterId;
+    private final long maxDataCenterId;
+    private final TimeSource timeSource;
+    private final Map<WorkerIdLease, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * 构造，在默认布局的全部(dataCenterId, workerId)中分配
+     *
+     * @param directory   共享目录，不存在时自动创建
+     * @param leaseMillis 租约时长，毫秒
+     */
+    public FileWorkerIdAllocator(Path directory, long leaseMillis) {
+        this(directory, leaseMillis, SnowflakeLayout.DEFAULT, -1L);
+    }
+
+    /**
+     * 构造
+     *
+     * @param directory    共享目录，不存在时自动创建
+     * @param leaseMillis  租约时长，毫秒
+     * @param layout       位布局，决定可分配的workerId与dataCenterId范围
+     * @param dataCenterId 固定的数据中心id，只分配workerId；小于0表示同时分配dataCenterId
+     */
+    public FileWorkerIdAllocator(Path directory, long leaseMillis, SnowflakeLayout layout, long dataCenterId) {
+        if (leaseMillis <= 0) {
+            throw new IllegalArgumentException(
+                StringUtils.format("lease millis must be greater than 0, but was %s", leaseMillis));
+        }
+        if (dataCenterId > layout.getMaxDataCenterId()) {
+            throw new IllegalArgumentException(StringUtils
+                .format("datacenter Id can't be greater than %s", layout.getMaxDataCenterId()));
+        }
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.directory = directory;
+        this.leaseMillis = leaseMillis;
+        this.maxWorkerId = layout.getMaxWorkerId();
+        this.minDataCenterId = dataCenterId < 0 ? 0L : dataCenterId;
+        this.maxDataCenterId = dataCenterId < 0 ? layout.getMaxDataCenterId() : dataCenterId;
+        this.timeSource = TimeSource.system();
+    }
+
+    @Override
+    public WorkerIdLease lease() {
+        for (long dataCenterId = minDataCenterId; dataCenterId <= maxDataCenterId; dataCenterId++) {
+            for (long workerId = 0; workerId <= maxWorkerId; workerId++) {
+                final WorkerIdLease lease = tryLease(workerId, dataCenterId);
+                if (null != lease) {
+                    return lease;
+                }
+            }
+        }
+        throw new IllegalStateException(StringUtils.format("No free worker id left in %s", directory));
+    }
+
+    @Override
+    public void renew(WorkerIdLease lease) {
+        final Slot slot = slots.get(lease);
+        final long now = timeSource.currentTimeMillis();
+        if (null == slot || !lease.isValid(now)) {
+            throw new IllegalStateException(StringUtils.format("%s is no longer held", lease));
+        }
+        try {
+            synchronized (slot) {
+                final ByteBuffer record = slot.read();
+                if (record.getLong(8) != slot.owner) {
+                    throw new IllegalStateException(StringUtils.format("%s was taken over by another owner", lease));
+                }
+                final long expireAt = now + leaseMillis;
+                slot.write(expireAt);
+                lease.extendTo(expireAt);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void release(WorkerIdLease lease) {
+        final Slot slot = slots.remove(lease);
+        if (null == slot) {
+            return;
+        }
+        lease.extendTo(0L);
+        try {
+            synchronized (slot) {
+                if (slot.read().getLong(8) == slot.owner) {
+                    // 到期时间改为当前时间，他人仍需等待宽限期后才能接管，避免与刚生成的ID冲突
+                    slot.write(timeSource.currentTimeMillis());
+                }
+                slot.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 释放本分配器持有的全部租约
+     */
+    @Override
+    public void close() {
+        for (WorkerIdLease lease : slots.keySet()) {
+            release(lease);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private WorkerIdLease tryLease(long workerId, long dataCenterId) {
+        final Path file = directory.resolve(StringUtils.format("node-%s-%s.lease", dataCenterId, workerId))
+            .toAbsolutePath().normalize();
+        if (!LOCAL_LEASES.add(file)) {
+            // 同一个JVM内已经持有
+            return null;
+        }
+        FileChannel channel = null;
+        boolean leased = false;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            final FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException e) {
+                // 被本JVM内分配器以外的代码锁住
+                return null;
+            }
+            if (null == lock) {
+                return null;
+            }
+            final Slot slot = new Slot(file, channel, lock, ThreadLocalRandom.current().nextLong());
+            final ByteBuffer record = slot.read();
+            final long now = timeSource.currentTimeMillis();
+            if (record.remaining() == RECORD_SIZE && record.getLong(0) + GRACE_MILLIS > now) {
+                // 上一个持有者的租约尚未过期
+                return null;
+            }
+            final long expireAt = now + leaseMillis;
+            slot.write(expireAt);
+            final WorkerIdLease lease = new WorkerIdLease(workerId, dataCenterId, expireAt);
+            slots.put(lease, slot);
+            leased = true;
+            return lease;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (!leased) {
+                // 未持有时关闭channel会同时释放其上的锁
+                closeQuietly(channel);
+                LOCAL_LEASES.remove(file);
+            }
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (null != channel) {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * 已持有的租约文件
+     */
+    private static final class Slot {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final FileLock lock;
+        private final long owner;
+
+        private Slot(Path file, FileChannel channel, FileLock lock, long owner) {
+            this.file = file;
+            this.channel = channel;
+            this.lock = lock;
+            this.owner = owner;
+        }
+
+        private ByteBuffer read() throws IOException {
+            final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            while (record.hasRemaining() && channel.read(record, record.position()) > 0) {
+                // 读满或读到文件末尾
+            }
+            record.flip();
+            return record;
+        }
+
+        private void write(long expireAt) throws IOException {
+            final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+            record.putLong(expireAt).putLong(owner).flip();
+            while (record.hasRemaining()) {
+                channel.write(record, record.position());
+            }
+            channel.force(true);
+        }
+
+        private void close() throws IOException {
+            try {
+                lock.release();
+            } finally {
+                try {
+                    channel.close();
+                } finally {
+                    LOCAL_LEASES.remove(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,430 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * ID的文本编解码<br>
+ * 将非负的long型ID以十进制、base62或Crockford base32写入调用方提供的{@code char[]}、{@code byte[]}、
+ * {@link ByteBuffer}或{@link StringBuilder}，以及从中解析，过程中不创建任何中间对象。
+ *
+ * <pre>
+ * char[] buf = new char[IdCodec.DECIMAL.maxLength()];
+ * int len = IdCodec.DECIMAL.write(snowflake.nextId(), buf, 0);
+ * long id = IdCodec.DECIMAL.parse(buf, 0, len);
+ * </pre>
+ * <ul>
+ *     <li>{@link #DECIMAL}：与{@link Long#toString(long)}相同</li>
+ *     <li>{@link #BASE62}：0-9A-Za-z，最多11位，等长时字典序与数值顺序一致</li>
+ *     <li>{@link #CROCKFORD_BASE32}：0-9A-Z去掉I、L、O、U，最多13位，解析时忽略大小写并将I、L视为1，O视为0</li>
+ * </ul>
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public enum IdCodec {
+
+    /**
+     * 十进制
+     */
+    DECIMAL("0123456789"),
+    /**
+     * base62
+     */
+    BASE62("0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz"),
+    /**
+     * Crockford base32
+     */
+    CROCKFORD_BASE32("0123456789ABCDEFGHJKMNPQRSTVWXYZ") {
+        @Override
+        void aliases(byte[] values) {
+            for (char c = 'a'; c <= 'z'; c++) {
+                values[c] = values[Character.toUpperCase(c)];
+            }
+            values['I'] = values['i'] = 1;
+            values['L'] = values['l'] = 1;
+            values['O'] = values['o'] = 0;
+        }
+    };
+
+    /**
+     * 00~99的十位与个位，十进制每次处理两位
+     */
+    private static final char[] DIGIT_TENS = new char[100];
+    private static final char[] DIGIT_ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            DIGIT_TENS[i] = (char) ('0' + i / 10);
+            DIGIT_ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    private final char[] alphabet;
+    private final int radix;
+    /**
+     * 字符到数值的映射，-1表示非法字符
+     */
+    private final byte[] values = new byte[128];
+    /**
+     * radix的1次方到不溢出long的最高次方，用于计算编码长度时避免除法
+     */
+    private final long[] powers;
+    private final int maxLength;
+
+    IdCodec(String alphabet) {
+        this.alphabet = alphabet.toCharArray();
+        this.radix = alphabet.length();
+        Arrays.fill(values, (byte) -1);
+        for (int i = 0; i < radix; i++) {
+            values[this.alphabet[i]] = (byte) i;
+        }
+        aliases(values);
+        int count = 0;
+        final long[] powers = new long[64];
+        for (long power = radix; ; power *= radix) {
+            powers[count++] = power;
+            if (power > Long.MAX_VALUE / radix) {
+                break;
+            }
+        }
+        this.powers = Arrays.copyOf(powers, count);
+        this.maxLength = count + 1;
+    }
+
+    /**
+     * 额外的解析别名
+     *
+     * @param values 字符到数值的映射
+     */
+    void aliases(byte[] values) {
+    }
+
+    /**
+     * 进制
+     *
+     * @return 进制
+     */
+    public int radix() {
+        return radix;
+    }
+
+    /**
+     * 任意非负long编码后的最大长度，可用于预先分配缓冲区
+     *
+     * @return 最大长度
+     */
+    public int maxLength() {
+        return maxLength;
+    }
+
+    /**
+     * 编码后的长度
+     *
+     * @param id 非负ID
+     * @return 长度
+     */
+    public int length(long id) {
+        checkId(id);
+        int length = 1;
+        while (length < maxLength && id >= powers[length - 1]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * 编码为字符串，会创建一个String对象，高频场景请使用write系列方法
+     *
+     * @param id 非负ID
+     * @return 字符串
+     */
+    public String encode(long id) {
+        final char[] buf = new char[length(id)];
+        write(id, buf, 0);
+        return new String(buf);
+    }
+
+    /**
+     * 写入字符数组
+     *
+     * @param id     非负ID
+     * @param dest   目标数组
+     * @param offset 起始位置
+     * @return 写入结束后的位置
+     */
+    public int write(long id, char[] dest, int offset) {
+        final int end = offset + length(id);
+        int pos = end;
+        if (radix == 10) {
+            // 与Long.getChars相同，每次除以100处理两位，数值落入int范围后改用int运算
+            while (id > Integer.MAX_VALUE) {
+                final long quotient = id / 100;
+                final int r = (int) (id - quotient * 100);
+                dest[--pos] = DIGIT_ONES[r];
+                dest[--pos] = DIGIT_TENS[r];
+                id = quotient;
+            }
+            int i = (int) id;
+            while (i >= 100) {
+                final int quotient = i / 100;
+                final int r = i - quotient * 100;
+                dest[--pos] = DIGIT_ONES[r];
+                dest[--pos] = DIGIT_TENS[r];
+                i = quotient;
+            }
+            if (i >= 10) {
+                dest[--pos] = DIGIT_ONES[i];
+                dest[--pos] = DIGIT_TENS[i];
+            } else {
+                dest[--pos] = DIGIT_ONES[i];
+            }
+            return end;
+        }
+        do {
+            final long quotient = divide(id);
+            dest[--pos] = alphabet[(int) (id - quotient * radix)];
+            id = quotient;
+        } while (id != 0);
+        return end;
+    }
+
+    /**
+     * 以ASCII写入字节数组
+     *
+     * @param id     非负ID
+     * @param dest   目标数组
+     * @param offset 起始位置
+     * @return 写入结束后的位置
+     */
+    public int write(long id, byte[] dest, int offset) {
+        final int end = offset + length(id);
+        int pos = end;
+        if (radix == 10) {
+            // 与Long.getChars相同，每次除以100处理两位，数值落入int范围后改用int运算
+            while (id > Integer.MAX_VALUE) {
+                final long quotient = id / 100;
+                final int r = (int) (id - quotient * 100);
+                dest[--pos] = (byte) DIGIT_ONES[r];
+                dest[--pos] = (byte) DIGIT_TENS[r];
+                id = quotient;
+            }
+            int i = (int) id;
+            while (i >= 100) {
+                final int quotient = i / 100;
+                final int r = i - quotient * 100;
+                dest[--pos] = (byte) DIGIT_ONES[r];
+                dest[--pos] = (byte) DIGIT_TENS[r];
+                i = quotient;
+            }
+            if (i >= 10) {
+                dest[--pos] = (byte) DIGIT_ONES[i];
+                dest[--pos] = (byte) DIGIT_TENS[i];
+            } else {
+                dest[--pos] = (byte) DIGIT_ONES[i];
+            }
+            return end;
+        }
+        do {
+            final long quotient = divide(id);
+            dest[--pos] = (byte) alphabet[(int) (id - quotient * radix)];
+            id = quotient;
+        } while (id != 0);
+        return end;
+    }
+
+    /**
+     * 以ASCII写入ByteBuffer的当前位置，写入后position后移
+     *
+     * @param id   非负ID
+     * @param dest 目标缓冲区
+     */
+    public void write(long id, ByteBuffer dest) {
+        final int length = length(id);
+        final int start = dest.position();
+        if (dest.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+        if (dest.hasArray()) {
+            // 堆缓冲区直接写底层数组
+            write(id, dest.array(), dest.arrayOffset() + start);
+            dest.position(start + length);
+            return;
+        }
+        int pos = start + length;
+        do {
+            final long quotient = divide(id);
+            dest.put(--pos, (byte) alphabet[(int) (id - quotient * radix)]);
+            id = quotient;
+        } while (id != 0);
+        dest.position(start + length);
+    }
+
+    /**
+     * 追加到StringBuilder
+     *
+     * @param id   非负ID
+     * @param dest 目标
+     * @return dest
+     */
+    public StringBuilder append(long id, StringBuilder dest) {
+        if (radix == 10) {
+            checkId(id);
+            // StringBuilder自身的十进制追加不会创建中间对象
+            return dest.append(id);
+        }
+        final int length = length(id);
+        final int start = dest.length();
+        dest.setLength(start + length);
+        int pos = start + length;
+        do {
+            final long quotient = divide(id);
+            dest.setCharAt(--pos, alphabet[(int) (id - quotient * radix)]);
+            id = quotient;
+        } while (id != 0);
+        return dest;
+    }
+
+    /**
+     * 解析字符串
+     *
+     * @param text 文本
+     * @return ID
+     */
+    public long parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * 解析字符串的一部分
+     *
+     * @param text  文本
+     * @param start 起始位置（含）
+     * @param end   结束位置（不含）
+     * @return ID
+     */
+    public long parse(CharSequence text, int start, int end) {
+        checkLength(end - start);
+        long id = 0;
+        for (int i = start; i < end; i++) {
+            id = accumulate(id, text.charAt(i));
+        }
+        return id;
+    }
+
+    /**
+     * 解析字符数组
+     *
+     * @param src    源数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @return ID
+     */
+    public long parse(char[] src, int offset, int length) {
+        checkLength(length);
+        long id = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            id = accumulate(id, src[i]);
+        }
+        return id;
+    }
+
+    /**
+     * 解析ASCII字节数组
+     *
+     * @param src    源数组
+     * @param offset 起始位置
+     * @param length 长度
+     * @return ID
+     */
+    public long parse(byte[] src, int offset, int length) {
+        checkLength(length);
+        long id = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            id = accumulate(id, (char) (src[i] & 0xFF));
+        }
+        return id;
+    }
+
+    /**
+     * 从ByteBuffer的当前位置解析指定长度的ASCII字节，解析后position后移
+     *
+     * @param src    源缓冲区
+     * @param length 长度
+     * @return ID
+     */
+    public long parse(ByteBuffer src, int length) {
+        checkLength(length);
+        long id = 0;
+        for (int i = 0; i < length; i++) {
+            id = accumulate(id, (char) (src.get() & 0xFF));
+        }
+        return id;
+    }
+
+    /**
+     * 数值对应的字符
+     *
+     * @param value 0 ~ radix - 1
+     * @return 字符
+     */
+    char digit(int value) {
+        return alphabet[value];
+    }
+
+    /**
+     * 字符对应的数值
+     *
+     * @param c 字符
+     * @return 数值，非法字符返回-1
+     */
+    int value(char c) {
+        return c < 128 ? values[c] : -1;
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    /**
+     * id / radix，使用常量除数以便JIT将除法优化为乘法或移位
+     *
+     * @param id 非负ID
+     * @return 商
+     */
+    private long divide(long id) {
+        switch (radix) {
+            case 10:
+                return id / 10;
+            case 32:
+                return id >>> 5;
+            default:
+                return id / 62;
+        }
+    }
+
+    private long accumulate(long id, char c) {
+        final int value = value(c);
+        if (value < 0) {
+            throw new IllegalArgumentException(StringUtils.format("illegal %s character: '%s'", name(), c));
+        }
+        if (id > (Long.MAX_VALUE - value) / radix) {
+            throw new IllegalArgumentException(StringUtils.format("%s value out of range of long", name()));
+        }
+        return id * radix + value;
+    }
+
+    private void checkLength(int length) {
+        if (length <= 0 || length > maxLength) {
+            throw new IllegalArgumentException(
+                StringUtils.format("%s length must be between 1 and %s, but was %s", name(), maxLength, length));
+        }
+    }
+
+    private static void checkId(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException(StringUtils.format("id can't be less than 0, but was %s", id));
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+
+/**
+ * ID生成器<br>
+ * 统一{@link Snowflake}、{@link LockFreeSnowflake}、{@link StripedSnowflake}及{@link BatchingIdGenerator}的调用方式，
+ * 业务代码只依赖该接口，可以按场景切换具体实现。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public interface IdGenerator {
+
+    /**
+     * 下一个ID
+     *
+     * @return ID
+     */
+    long nextId();
+
+    /**
+     * 下一个ID（字符串形式）
+     *
+     * @return ID 字符串形式
+     */
+    default String nextIdStr() {
+        return Long.toString(nextId());
+    }
+
+    /**
+     * 批量获取ID
+     *
+     * @param n 需要的ID个数
+     * @return ID数组
+     */
+    default long[] nextIds(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException(StringUtils.format("n can't be less than 0, but was %s", n));
+        }
+        final long[] ids = new long[n];
+        nextIds(ids);
+        return ids;
+    }
+
+    /**
+     * 批量获取ID，填满给定的数组，默认逐个调用{@link #nextId()}，实现类可以一次预留一段序列号
+     *
+     * @param dest 存放ID的数组
+     */
+    default void nextIds(long[] dest) {
+        for (int i = 0; i < dest.length; i++) {
+            dest[i] = nextId();
+        }
+    }
+}
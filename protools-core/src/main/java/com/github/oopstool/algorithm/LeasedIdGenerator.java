@@ -0,0 +1,137 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * 基于workerId租约的ID生成器<br>
+ * 构造时从{@link WorkerIdAllocator}申请租约，用租约中的(workerId, dataCenterId)创建实际的生成器，
+ * 之后由后台守护线程每隔约1/3租约时长续约一次。租约过期（例如进程长时间停顿或续约失败）后拒绝生成ID，
+ * 避免与接管了同一workerId的其它节点产生重复ID。
+ *
+ * <pre>
+ * WorkerIdAllocator allocator = new FileWorkerIdAllocator(Paths.get("/mnt/shared/ids"), 30_000L);
+ * LeasedIdGenerator generator = new LeasedIdGenerator(allocator, Snowflake::new);
+ * long id = generator.nextId();
+ * </pre>
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class LeasedIdGenerator implements IdGenerator, Closeable {
+
+    private final WorkerIdAllocator allocator;
+    private final WorkerIdLease lease;
+    private final IdGenerator delegate;
+    private final TimeSource timeSource;
+    private final ScheduledExecutorService renewer;
+    /**
+     * 最近一次续约失败的原因，续约成功后清空，租约过期时作为拒绝生成ID的异常原因
+     */
+    private volatile RuntimeException renewFailure;
+
+    /**
+     * 构造
+     *
+     * @param allocator workerId分配器
+     * @param factory   根据(workerId, dataCenterId)创建生成器，例如{@code Snowflake::new}
+     */
+    public LeasedIdGenerator(WorkerIdAllocator allocator, BiFunction<Long, Long, ? extends IdGenerator> factory) {
+        this(allocator, factory, TimeSource.system());
+    }
+
+    /**
+     * 构造
+     *
+     * @param allocator  workerId分配器
+     * @param factory    根据(workerId, dataCenterId)创建生成器，例如{@code Snowflake::new}
+     * @param timeSource 判断租约是否过期使用的时间源
+     */
+    public LeasedIdGenerator(WorkerIdAllocator allocator, BiFunction<Long, Long, ? extends IdGenerator> factory,
+        TimeSource timeSource) {
+        this.allocator = allocator;
+        this.timeSource = timeSource;
+        this.lease = allocator.lease();
+        try {
+            this.delegate = factory.apply(lease.getWorkerId(), lease.getDataCenterId());
+        } catch (RuntimeException | Error e) {
+            allocator.release(lease);
+            throw e;
+        }
+        final long period = Math.max(1L, (lease.getExpireAt() - timeSource.currentTimeMillis()) / 3);
+        this.renewer = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "protools-worker-id-renewer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        renewer.scheduleWithFixedDelay(this::renew, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 当前持有的租约
+     *
+     * @return 租约
+     */
+    public WorkerIdLease getLease() {
+        return lease;
+    }
+
+    /**
+     * 实际的生成器
+     *
+     * @return 生成器
+     */
+    public IdGenerator getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public long nextId() {
+        checkLease();
+        return delegate.nextId();
+    }
+
+    @Override
+    public void nextIds(long[] dest) {
+        checkLease();
+        delegate.nextIds(dest);
+    }
+
+    /**
+     * 停止续约并释放租约，之后不能再生成ID
+     */
+    @Override
+    public void close() {
+        renewer.shutdownNow();
+        allocator.release(lease);
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private void renew() {
+        if (!lease.isValid(timeSource.currentTimeMillis())) {
+            // 租约已过期，之后的续约都会失败，停止续约
+            renewer.shutdown();
+            return;
+        }
+        try {
+            allocator.renew(lease);
+            renewFailure = null;
+        } catch (RuntimeException e) {
+            // 续约失败时不中断调度，下次继续尝试；租约真正过期后nextId会拒绝生成
+            renewFailure = e;
+        }
+    }
+
+    private void checkLease() {
+        if (!lease.isValid(timeSource.currentTimeMillis())) {
+            throw new IllegalStateException(StringUtils.format("worker id lease expired. Refusing to generate id for %s",
+                lease), renewFailure);
+        }
+    }
+}
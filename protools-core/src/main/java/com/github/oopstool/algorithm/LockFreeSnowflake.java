@@ -0,0 +1,325 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁版本的Twitter的Snowflake 算法<br>
+ * 相同{@link SnowflakeLayout}下位布局与{@link Snowflake}完全一致，生成的ID可以互相解析。
+ *
+ * <p>
+ * 与{@link Snowflake}使用{@code synchronized}保护(lastTimestamp, sequence)不同，
+ * 本类将两者打包到同一个{@link AtomicLong}中：
+ *
+ * <pre>
+ * 0 - 0000000000 0000000000 0000000000 0000000000 0 - 000000000000
+ *     |----------------- 相对时间戳 -----------------|   |-- 序列号 --|
+ * </pre>
+ * <p>
+ * 每次生成ID时基于当前状态计算出下一个状态，并通过CAS一次性推进，
+ * 多线程竞争时失败的线程只需重试，不会阻塞在监视器上。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class LockFreeSnowflake implements IdGenerator, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 容忍的时钟回拨毫秒数
+     */
+    private static final long BACKWARD_TOLERANCE_MILLIS = 2000L;
+
+    private final long twepoch;
+    /**
+     * 位布局
+     */
+    private final SnowflakeLayout layout;
+    /**
+     * 序列号位数，默认12位
+     */
+    private final int sequenceBits;
+    /**
+     * 序列掩码，用于限定序列最大值，默认不能超过4095
+     */
+    private final long sequenceMask;
+    /**
+     * 时间戳左移位数，默认22位
+     */
+    private final int timestampLeftShift;
+    /**
+     * 容忍的时钟回拨，以时间单位计
+     */
+    private final long backwardTolerance;
+    /**
+     * 序列号用尽时的等待策略
+     */
+    private final SnowflakeWaitStrategy waitStrategy;
+    /**
+     * 时间源
+     */
+    private final TimeSource timeSource;
+
+    private final long workerId;
+    private final long dataCenterId;
+    /**
+     * 数据中心与机器节点部分，构造后不再变化，预先计算好
+     */
+    private final long nodeBits;
+    /**
+     * 打包后的状态：高位为相对twepoch的时间戳，低位为序列号
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * 构造
+     *
+     * @param workerId     终端ID
+     * @param dataCenterId 数据中心ID
+     */
+    public LockFreeSnowflake(long workerId, long dataCenterId) {
+        this(null, workerId, dataCenterId);
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id
+     * @param dataCenterId 数据中心id
+     */
+    public LockFreeSnowflake(Date epochDate, long workerId, long dataCenterId) {
+        this(epochDate, workerId, dataCenterId, SnowflakeLayout.DEFAULT);
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id
+     * @param dataCenterId 数据中心id
+     * @param layout       位布局
+     */
+    public LockFreeSnowflake(Date epochDate, long workerId, long dataCenterId, SnowflakeLayout layout) {
+        this(epochDate, workerId, dataCenterId, layout, SnowflakeWaitStrategy.busySpin());
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id
+     * @param dataCenterId 数据中心id
+     * @param layout       位布局
+     * @param waitStrategy 序列号用尽时的等待策略
+     */
+    public LockFreeSnowflake(Date epochDate, long workerId, long dataCenterId, SnowflakeLayout layout,
+        SnowflakeWaitStrategy waitStrategy) {
+        this(epochDate, workerId, dataCenterId, layout, waitStrategy, TimeSource.system());
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id
+     * @param dataCenterId 数据中心id
+     * @param layout       位布局
+     * @param waitStrategy 序列号用尽时的等待策略
+     * @param timeSource   时间源
+     */
+    public LockFreeSnowflake(Date epochDate, long workerId, long dataCenterId, SnowflakeLayout layout,
+        SnowflakeWaitStrategy waitStrategy, TimeSource timeSource) {
+        if (null != epochDate) {
+            this.twepoch = epochDate.getTime();
+        } else {
+            // Thu, 04 Nov 2010 01:42:54 GMT
+            this.twepoch = 1288834974657L;
+        }
+        if (workerId > layout.getMaxWorkerId() || workerId < 0) {
+            throw new IllegalArgumentException(
+                StringUtils.format("worker Id can't be greater than %s or less than 0", layout.getMaxWorkerId()));
+        }
+        if (dataCenterId > layout.getMaxDataCenterId() || dataCenterId < 0) {
+            throw new IllegalArgumentException(StringUtils
+                .format("datacenter Id can't be greater than %s or less than 0", layout.getMaxDataCenterId()));
+        }
+        this.layout = layout;
+        this.sequenceBits = layout.getSequenceBits();
+        this.sequenceMask = layout.getSequenceMask();
+        this.timestampLeftShift = layout.getTimestampShift();
+        this.backwardTolerance = Math.max(1L, layout.toTicks(BACKWARD_TOLERANCE_MILLIS));
+        this.waitStrategy = waitStrategy;
+        this.timeSource = timeSource;
+        this.workerId = workerId;
+        this.dataCenterId = dataCenterId;
+        this.nodeBits = layout.encode(0L, dataCenterId, workerId, 0L);
+    }
+
+    /**
+     * 获取位布局
+     *
+     * @return 位布局
+     */
+    public SnowflakeLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * 获取序列号用尽时的等待策略，可通过其计数观察各等待路径的执行次数
+     *
+     * @return 等待策略
+     */
+    public SnowflakeWaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * 获取时间源
+     *
+     * @return 时间源
+     */
+    public TimeSource getTimeSource() {
+        return timeSource;
+    }
+
+    /**
+     * 根据Snowflake的ID，获取机器id
+     *
+     * @param id snowflake算法生成的id
+     * @return 所属机器的id
+     */
+    public long getWorkerId(long id) {
+        return layout.getWorkerId(id);
+    }
+
+    /**
+     * 根据Snowflake的ID，获取数据中心id
+     *
+     * @param id snowflake算法生成的id
+     * @return 所属数据中心
+     */
+    public long getDataCenterId(long id) {
+        return layout.getDataCenterId(id);
+    }
+
+    /**
+     * 根据Snowflake的ID，获取生成时间
+     *
+     * @param id snowflake算法生成的id
+     * @return 生成的时间
+     */
+    public long getGenerateDateTime(long id) {
+        return layout.toMillis(layout.getTimestamp(id)) + twepoch;
+    }
+
+    /**
+     * 下一个ID
+     *
+     * @return ID
+     */
+    @Override
+    public long nextId() {
+        for (; ; ) {
+            final long current = state.get();
+            final long lastTimestamp = current >>> sequenceBits;
+            final long timestamp = genTime();
+            final long next;
+            if (timestamp > lastTimestamp) {
+                next = timestamp << sequenceBits;
+            } else {
+                if (lastTimestamp - timestamp >= backwardTolerance) {
+                    // 如果服务器时间有问题(时钟后退) 报错。容忍2秒内的回拨，避免NTP校时造成的异常
+                    throw new IllegalStateException(StringUtils.format(
+                        "Clock moved backwards. Refusing to generate id for %s ms",
+                        layout.toMillis(lastTimestamp - timestamp)));
+                }
+                if (((current + 1) & sequenceMask) == 0) {
+                    // 当前毫秒内序列号已用尽，等待下一毫秒（或由等待策略借用下一毫秒）后重新竞争
+                    next = tilNextMillis(lastTimestamp) << sequenceBits;
+                } else {
+                    next = current + 1;
+                }
+            }
+            if (state.compareAndSet(current, next)) {
+                return ((next >>> sequenceBits) << timestampLeftShift) | nodeBits | (next & sequenceMask);
+            }
+        }
+    }
+
+    /**
+     * 批量获取ID，填满给定的数组<br>
+     * 每次CAS预留当前毫秒内尽可能多的连续序列号，仅在序列号用尽时才等待下一毫秒，生成的ID严格递增
+     *
+     * @param dest 存放ID的数组
+     */
+    @Override
+    public void nextIds(long[] dest) {
+        final int n = dest.length;
+        int index = 0;
+        while (index < n) {
+            final long current = state.get();
+            final long lastTimestamp = current >>> sequenceBits;
+            final long timestamp = genTime();
+            final long first;
+            if (timestamp > lastTimestamp) {
+                first = timestamp << sequenceBits;
+            } else {
+                if (lastTimestamp - timestamp >= backwardTolerance) {
+                    // 如果服务器时间有问题(时钟后退) 报错。容忍2秒内的回拨，避免NTP校时造成的异常
+                    throw new IllegalStateException(StringUtils.format(
+                        "Clock moved backwards. Refusing to generate id for %s ms",
+                        layout.toMillis(lastTimestamp - timestamp)));
+                }
+                if (((current + 1) & sequenceMask) == 0) {
+                    first = tilNextMillis(lastTimestamp) << sequenceBits;
+                } else {
+                    first = current + 1;
+                }
+            }
+            final long firstSequence = first & sequenceMask;
+            final int count = (int) Math.min(n - index, sequenceMask - firstSequence + 1);
+            if (state.compareAndSet(current, first + count - 1)) {
+                final long prefix = ((first >>> sequenceBits) << timestampLeftShift) | nodeBits;
+                for (int i = 0; i < count; i++) {
+                    dest[index++] = prefix | (firstSequence + i);
+                }
+            }
+        }
+    }
+
+    /**
+     * 下一个ID（字符串形式）
+     *
+     * @return ID 字符串形式
+     */
+    @Override
+    public String nextIdStr() {
+        return Long.toString(nextId());
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    /**
+     * 等待下一个时间，具体的等待方式由{@link SnowflakeWaitStrategy}决定
+     *
+     * @param lastTimestamp 上次记录的相对时间
+     * @return 下一个相对时间
+     */
+    private long tilNextMillis(long lastTimestamp) {
+        return waitStrategy.awaitNextTick(lastTimestamp, this::genTime);
+    }
+
+    /**
+     * 生成时间戳，相对twepoch，以布局的时间单位计
+     *
+     * @return 时间戳
+     * @throws IllegalStateException 超出布局的时间戳范围
+     */
+    private long genTime() {
+        final long timestamp = layout.toTicks(timeSource.currentTimeMillis() - twepoch);
+        if (timestamp > layout.getMaxTimestamp()) {
+            // 超出布局的时间戳范围后继续生成会溢出到符号位，产生负数或不递增的ID
+            throw new IllegalStateException(StringUtils.format(
+                "Timestamp exceeds the layout's time range. Refusing to generate id after %s",
+                new Date(layout.toMillis(layout.getMaxTimestamp()) + twepoch)));
+        }
+        return timestamp;
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.oopstool.algorithm;
+
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单调时钟<br>
+ * 在类加载时记录一次墙上时间与{@link System#nanoTime()}作为锚点，之后的时间由锚点加上经过的纳秒数推算，
+ * 因此不会因NTP校时而倒退。
+ * <p>
+ * 注意：长时间运行后，推算的时间可能与校时后的墙上时间存在少量偏差。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+enum MonotonicTimeSource implements TimeSource {
+
+    /**
+     * 单例，JVM内所有生成器共用同一个锚点
+     */
+    INSTANCE;
+
+    private final long anchorMillis;
+    private final long anchorNanos;
+
+    MonotonicTimeSource() {
+        this.anchorMillis = System.currentTimeMillis();
+        this.anchorNanos = System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return anchorMillis + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - anchorNanos);
+    }
+}
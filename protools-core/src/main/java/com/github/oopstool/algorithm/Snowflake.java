@@ -20,6 +20,8 @@ import java.util.Date;
  * 然后是5位datacenterId和5位workerId(10位的长度最多支持部署1024个节点）<br>
  * 最后12位是毫秒内的计数（12位的计数顺序号支持每个节点每毫秒产生4096个ID序号）
  * <p>
+ * 以上为默认布局，各部分的位数及时间单位可以通过{@link SnowflakeLayout}调整
+ * <p>
  * 并且可以通过生成的id反推出生成时间,datacenterId和workerId
  * <p>
  * 参考：http://www.cnblogs.com/relucent/p/4955340.html
@@ -27,48 +29,51 @@ import java.util.Date;
  * @author HouGY
  * @since 1.0.3
  */
-public class Snowflake implements Serializable {
+public class Snowflake implements IdGenerator, Serializable {
 
     private static final long serialVersionUID = 1L;
 
-    private final long twepoch;
-    private final long workerIdBits = 5L;
     /**
-     * 最大支持机器节点数0~31，一共32个
+     * 容忍的时钟回拨毫秒数
      */
-    @SuppressWarnings({"PointlessBitwiseExpression", "FieldCanBeLocal"})
-    private final long maxWorkerId = -1L ^ (-1L << workerIdBits);
-    private final long dataCenterIdBits = 5L;
+    private static final long BACKWARD_TOLERANCE_MILLIS = 2000L;
+
+    private final long twepoch;
     /**
-     * 最大支持数据中心节点数0~31，一共32个
+     * 位布局
      */
-    @SuppressWarnings({"PointlessBitwiseExpression", "FieldCanBeLocal"})
-    private final long maxDataCenterId = -1L ^ (-1L << dataCenterIdBits);
+    private final SnowflakeLayout layout;
     /**
-     * 序列号12位
+     * 序列掩码，用于限定序列最大值，默认不能超过4095
      */
-    private final long sequenceBits = 12L;
+    private final long sequenceMask;
     /**
-     * 机器节点左移12位
+     * 时间戳左移位数，默认22位。1.0.3中同名字段timestampLeftShift为long，改名以免与旧的序列化形式冲突
      */
-    private final long workerIdShift = sequenceBits;
+    private final int timestampShift;
     /**
-     * 数据中心节点左移17位
+     * 容忍的时钟回拨，以时间单位计
      */
-    private final long dataCenterIdShift = sequenceBits + workerIdBits;
+    private final long backwardTolerance;
     /**
-     * 时间毫秒数左移22位
+     * 序列号用尽时的等待策略
      */
-    private final long timestampLeftShift = sequenceBits + workerIdBits + dataCenterIdBits;
+    private final SnowflakeWaitStrategy waitStrategy;
     /**
-     * 序列掩码，用于限定序列最大值不能超过4095
+     * 时间源
      */
-    @SuppressWarnings("FieldCanBeLocal")
-    private final long sequenceMask = ~(-1L << sequenceBits);
+    private final TimeSource timeSource;
 
     private final long workerId;
     private final long dataCenterId;
+    /**
+     * 数据中心与机器节点部分，构造后不再变化，预先计算好
+     */
+    private final long nodeBits;
     private long sequence = 0L;
+    /**
+     * 上次生成ID的时间，相对twepoch，以时间单位计
+     */
     private long lastTimestamp = -1L;
 
     /**
@@ -88,22 +93,97 @@ public class Snowflake implements Serializable {
      * @since 5.1.3
      */
     public Snowflake(Date epochDate, long workerId, long dataCenterId) {
+        this(epochDate, workerId, dataCenterId, SnowflakeLayout.DEFAULT);
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id
+     * @param dataCenterId 数据中心id
+     * @param layout       位布局
+     * @since 1.0.4
+     */
+    public Snowflake(Date epochDate, long workerId, long dataCenterId, SnowflakeLayout layout) {
+        this(epochDate, workerId, dataCenterId, layout, SnowflakeWaitStrategy.busySpin());
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id
+     * @param dataCenterId 数据中心id
+     * @param layout       位布局
+     * @param waitStrategy 序列号用尽时的等待策略
+     * @since 1.0.4
+     */
+    public Snowflake(Date epochDate, long workerId, long dataCenterId, SnowflakeLayout layout,
+        SnowflakeWaitStrategy waitStrategy) {
+        this(epochDate, workerId, dataCenterId, layout, waitStrategy, TimeSource.system());
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id
+     * @param dataCenterId 数据中心id
+     * @param layout       位布局
+     * @param waitStrategy 序列号用尽时的等待策略
+     * @param timeSource   时间源
+     * @since 1.0.4
+     */
+    public Snowflake(Date epochDate, long workerId, long dataCenterId, SnowflakeLayout layout,
+        SnowflakeWaitStrategy waitStrategy, TimeSource timeSource) {
         if (null != epochDate) {
             this.twepoch = epochDate.getTime();
         } else {
             // Thu, 04 Nov 2010 01:42:54 GMT
             this.twepoch = 1288834974657L;
         }
-        if (workerId > maxWorkerId || workerId < 0) {
+        if (workerId > layout.getMaxWorkerId() || workerId < 0) {
             throw new IllegalArgumentException(
-                StringUtils.format("worker Id can't be greater than %s or less than 0", maxWorkerId));
+                StringUtils.format("worker Id can't be greater than %s or less than 0", layout.getMaxWorkerId()));
         }
-        if (dataCenterId > maxDataCenterId || dataCenterId < 0) {
-            throw new IllegalArgumentException(
-                StringUtils.format("datacenter Id can't be greater than %s or less than 0", maxDataCenterId));
+        if (dataCenterId > layout.getMaxDataCenterId() || dataCenterId < 0) {
+            throw new IllegalArgumentException(StringUtils
+                .format("datacenter Id can't be greater than %s or less than 0", layout.getMaxDataCenterId()));
         }
+        this.layout = layout;
+        this.sequenceMask = layout.getSequenceMask();
+        this.timestampShift = layout.getTimestampShift();
+        this.backwardTolerance = Math.max(1L, layout.toTicks(BACKWARD_TOLERANCE_MILLIS));
+        this.waitStrategy = waitStrategy;
+        this.timeSource = timeSource;
         this.workerId = workerId;
         this.dataCenterId = dataCenterId;
+        this.nodeBits = layout.encode(0L, dataCenterId, workerId, 0L);
+    }
+
+    /**
+     * 获取位布局
+     *
+     * @return 位布局
+     * @since 1.0.4
+     */
+    public SnowflakeLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * 获取序列号用尽时的等待策略，可通过其计数观察各等待路径的执行次数
+     *
+     * @return 等待策略
+     * @since 1.0.4
+     */
+    public SnowflakeWaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * 获取时间源
+     *
+     * @return 时间源
+     * @since 1.0.4
+     */
+    public TimeSource getTimeSource() {
+        return timeSource;
     }
 
     /**
@@ -113,7 +193,7 @@ public class Snowflake implements Serializable {
      * @return 所属机器的id
      */
     public long getWorkerId(long id) {
-        return id >> workerIdShift & ~(-1L << workerIdBits);
+        return layout.getWorkerId(id);
     }
 
     /**
@@ -123,7 +203,7 @@ public class Snowflake implements Serializable {
      * @return 所属数据中心
      */
     public long getDataCenterId(long id) {
-        return id >> dataCenterIdShift & ~(-1L << dataCenterIdBits);
+        return layout.getDataCenterId(id);
     }
 
     /**
@@ -133,7 +213,7 @@ public class Snowflake implements Serializable {
      * @return 生成的时间
      */
     public long getGenerateDateTime(long id) {
-        return (id >> timestampLeftShift & ~(-1L << 41L)) + twepoch;
+        return layout.toMillis(layout.getTimestamp(id)) + twepoch;
     }
 
     /**
@@ -141,16 +221,18 @@ public class Snowflake implements Serializable {
      *
      * @return ID
      */
+    @Override
     public synchronized long nextId() {
         long timestamp = genTime();
         if (timestamp < this.lastTimestamp) {
-            if (this.lastTimestamp - timestamp < 2000) {
+            if (this.lastTimestamp - timestamp < backwardTolerance) {
                 // 容忍2秒内的回拨，避免NTP校时造成的异常
                 timestamp = lastTimestamp;
             } else {
                 // 如果服务器时间有问题(时钟后退) 报错。
-                throw new IllegalStateException(StringUtils
-                    .format("Clock moved backwards. Refusing to generate id for %s ms", lastTimestamp - timestamp));
+                throw new IllegalStateException(StringUtils.format(
+                    "Clock moved backwards. Refusing to generate id for %s ms",
+                    layout.toMillis(lastTimestamp - timestamp)));
             }
         }
 
@@ -166,8 +248,63 @@ public class Snowflake implements Serializable {
 
         lastTimestamp = timestamp;
 
-        return ((timestamp - twepoch) << timestampLeftShift) | (dataCenterId << dataCenterIdShift) | (workerId
-            << workerIdShift) | sequence;
+        return (timestamp << timestampShift) | nodeBits | sequence;
+    }
+
+    /**
+     * 批量获取ID，填满给定的数组<br>
+     * 在一次加锁内预留一段连续的序列号，仅在当前毫秒的序列号用尽时才等待下一毫秒，生成的ID严格递增
+     *
+     * @param dest 存放ID的数组
+     * @since 1.0.4
+     */
+    @Override
+    public synchronized void nextIds(long[] dest) {
+        final int n = dest.length;
+        if (n == 0) {
+            return;
+        }
+        long timestamp = genTime();
+        if (timestamp < this.lastTimestamp) {
+            if (this.lastTimestamp - timestamp < backwardTolerance) {
+                // 容忍2秒内的回拨，避免NTP校时造成的异常
+                timestamp = lastTimestamp;
+            } else {
+                // 如果服务器时间有问题(时钟后退) 报错。
+                throw new IllegalStateException(StringUtils.format(
+                    "Clock moved backwards. Refusing to generate id for %s ms",
+                    layout.toMillis(lastTimestamp - timestamp)));
+            }
+        }
+
+        long sequence;
+        if (timestamp == this.lastTimestamp) {
+            sequence = (this.sequence + 1) & sequenceMask;
+            if (sequence == 0) {
+                timestamp = tilNextMillis(lastTimestamp);
+            }
+        } else {
+            sequence = 0L;
+        }
+
+        int index = 0;
+        for (; ; ) {
+            final long prefix = (timestamp << timestampShift) | nodeBits;
+            final int count = (int) Math.min(n - index, sequenceMask - sequence + 1);
+            for (int i = 0; i < count; i++) {
+                dest[index++] = prefix | (sequence + i);
+            }
+            // 记录本毫秒内最后一个被使用的序列号
+            sequence += count - 1;
+            if (index == n) {
+                break;
+            }
+            timestamp = tilNextMillis(timestamp);
+            sequence = 0L;
+        }
+
+        this.sequence = sequence;
+        this.lastTimestamp = timestamp;
     }
 
     /**
@@ -175,6 +312,7 @@ public class Snowflake implements Serializable {
      *
      * @return ID 字符串形式
      */
+    @Override
     public String nextIdStr() {
         return Long.toString(nextId());
     }
@@ -182,32 +320,45 @@ public class Snowflake implements Serializable {
     // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
 
     /**
-     * 循环等待下一个时间
+     * 1.0.3的序列化形式没有布局、等待策略与时间源，反序列化后这些字段为null，按默认值重建，
+     * 并沿用旧实例的上次生成时间（旧形式为绝对毫秒数），避免重启后的时钟回拨产生重复ID
+     *
+     * @return 反序列化的结果
+     */
+    private Object readResolve() {
+        if (null != layout) {
+            return this;
+        }
+        final Snowflake snowflake = new Snowflake(new Date(twepoch), workerId, dataCenterId);
+        snowflake.sequence = sequence;
+        snowflake.lastTimestamp = lastTimestamp < 0 ? -1L : SnowflakeLayout.DEFAULT.toTicks(lastTimestamp - twepoch);
+        return snowflake;
+    }
+
+    /**
+     * 等待下一个时间，具体的等待方式由{@link SnowflakeWaitStrategy}决定
      *
      * @param lastTimestamp 上次记录的时间
      * @return 下一个时间
      */
     private long tilNextMillis(long lastTimestamp) {
-        long timestamp = genTime();
-        // 循环直到操作系统时间戳变化
-        while (timestamp == lastTimestamp) {
-            timestamp = genTime();
-        }
-        if (timestamp < lastTimestamp) {
-            // 如果发现新的时间戳比上次记录的时间戳数值小，说明操作系统时间发生了倒退，报错
-            throw new IllegalStateException(
-                StringUtils
-                    .format("Clock moved backwards. Refusing to generate id for %s ms", lastTimestamp - timestamp));
-        }
-        return timestamp;
+        return waitStrategy.awaitNextTick(lastTimestamp, this::genTime);
     }
 
     /**
-     * 生成时间戳
+     * 生成时间戳，相对twepoch，以布局的时间单位计
      *
      * @return 时间戳
+     * @throws IllegalStateException 超出布局的时间戳范围
      */
     private long genTime() {
-        return System.currentTimeMillis();
+        final long timestamp = layout.toTicks(timeSource.currentTimeMillis() - twepoch);
+        if (timestamp > layout.getMaxTimestamp()) {
+            // 超出布局的时间戳范围后继续生成会溢出到符号位，产生负数或不递增的ID
+            throw new IllegalStateException(StringUtils.format(
+                "Timestamp exceeds the layout's time range. Refusing to generate id after %s",
+                new Date(layout.toMillis(layout.getMaxTimestamp()) + twepoch)));
+        }
+        return timestamp;
     }
 }
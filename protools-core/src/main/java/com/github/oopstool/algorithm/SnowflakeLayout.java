@@ -0,0 +1,332 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snowflake的位布局<br>
+ * 描述一个ID中时间戳、数据中心、机器节点、序列号各占多少位，以及时间戳的单位，ID的编码与解析都由布局驱动。
+ *
+ * <pre>
+ * 0 - 时间戳(timestampBits) - 数据中心(dataCenterIdBits) - 机器节点(workerIdBits) - 序列号(sequenceBits)
+ * </pre>
+ * <p>
+ * 默认布局{@link #DEFAULT}为41/5/5/12，时间单位1毫秒，与原始Snowflake一致。
+ * 例如序列号不够用时，可以选择10位机器节点加10位序列号，或者使用10毫秒的时间单位换取更多的序列号位：
+ *
+ * <pre>
+ * SnowflakeLayout layout = SnowflakeLayout.builder()
+ *     .dataCenterIdBits(0)
+ *     .workerIdBits(10)
+ *     .sequenceBits(12)
+ *     .timeUnit(10, TimeUnit.MILLISECONDS)
+ *     .build();
+ * </pre>
+ * <p>
+ * 未指定时间戳位数时，时间戳占用剩余的全部位（63 - 其它位之和）。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class SnowflakeLayout implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 除符号位外可用的总位数
+     */
+    public static final int TOTAL_BITS = 63;
+
+    /**
+     * 默认布局：41位毫秒时间戳，5位数据中心，5位机器节点，12位序列号
+     */
+    public static final SnowflakeLayout DEFAULT = builder().build();
+
+    private final int timestampBits;
+    private final int dataCenterIdBits;
+    private final int workerIdBits;
+    private final int sequenceBits;
+    private final long timeUnitMillis;
+
+    private final int workerIdShift;
+    private final int dataCenterIdShift;
+    private final int timestampShift;
+
+    private SnowflakeLayout(int timestampBits, int dataCenterIdBits, int workerIdBits, int sequenceBits,
+        long timeUnitMillis) {
+        this.timestampBits = timestampBits;
+        this.dataCenterIdBits = dataCenterIdBits;
+        this.workerIdBits = workerIdBits;
+        this.sequenceBits = sequenceBits;
+        this.timeUnitMillis = timeUnitMillis;
+        this.workerIdShift = sequenceBits;
+        this.dataCenterIdShift = sequenceBits + workerIdBits;
+        this.timestampShift = sequenceBits + workerIdBits + dataCenterIdBits;
+    }
+
+    /**
+     * 创建布局构建器
+     *
+     * @return 构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 将各部分编码为ID，调用方需保证各部分不超过对应的最大值，时间戳超过{@link #getMaxTimestamp()}时会溢出到符号位
+     *
+     * @param timestamp    相对起始时间的时间戳（以时间单位计）
+     * @param dataCenterId 数据中心id
+     * @param workerId     机器节点id
+     * @param sequence     序列号
+     * @return ID
+     */
+    public long encode(long timestamp, long dataCenterId, long workerId, long sequence) {
+        return (timestamp << timestampShift) | (dataCenterId << dataCenterIdShift) | (workerId << workerIdShift)
+            | sequence;
+    }
+
+    /**
+     * 根据ID，获取相对起始时间的时间戳（以时间单位计）
+     *
+     * @param id snowflake算法生成的id
+     * @return 时间戳
+     */
+    public long getTimestamp(long id) {
+        return id >>> timestampShift & getMaxTimestamp();
+    }
+
+    /**
+     * 根据ID，获取数据中心id
+     *
+     * @param id snowflake算法生成的id
+     * @return 数据中心id
+     */
+    public long getDataCenterId(long id) {
+        return id >> dataCenterIdShift & getMaxDataCenterId();
+    }
+
+    /**
+     * 根据ID，获取机器节点id
+     *
+     * @param id snowflake算法生成的id
+     * @return 机器节点id
+     */
+    public long getWorkerId(long id) {
+        return id >> workerIdShift & getMaxWorkerId();
+    }
+
+    /**
+     * 根据ID，获取序列号
+     *
+     * @param id snowflake算法生成的id
+     * @return 序列号
+     */
+    public long getSequence(long id) {
+        return id & getSequenceMask();
+    }
+
+    /**
+     * 将毫秒数转换为时间单位数
+     *
+     * @param millis 毫秒数
+     * @return 时间单位数
+     */
+    public long toTicks(long millis) {
+        return timeUnitMillis == 1 ? millis : Math.floorDiv(millis, timeUnitMillis);
+    }
+
+    /**
+     * 将时间单位数转换为毫秒数
+     *
+     * @param ticks 时间单位数
+     * @return 毫秒数
+     */
+    public long toMillis(long ticks) {
+        return ticks * timeUnitMillis;
+    }
+
+    public int getTimestampBits() {
+        return timestampBits;
+    }
+
+    public int getDataCenterIdBits() {
+        return dataCenterIdBits;
+    }
+
+    public int getWorkerIdBits() {
+        return workerIdBits;
+    }
+
+    public int getSequenceBits() {
+        return sequenceBits;
+    }
+
+    public long getTimeUnitMillis() {
+        return timeUnitMillis;
+    }
+
+    public int getWorkerIdShift() {
+        return workerIdShift;
+    }
+
+    public int getDataCenterIdShift() {
+        return dataCenterIdShift;
+    }
+
+    public int getTimestampShift() {
+        return timestampShift;
+    }
+
+    public long getMaxTimestamp() {
+        return ~(-1L << timestampBits);
+    }
+
+    public long getMaxDataCenterId() {
+        return ~(-1L << dataCenterIdBits);
+    }
+
+    public long getMaxWorkerId() {
+        return ~(-1L << workerIdBits);
+    }
+
+    public long getSequenceMask() {
+        return ~(-1L << sequenceBits);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SnowflakeLayout)) {
+            return false;
+        }
+        SnowflakeLayout that = (SnowflakeLayout) o;
+        return timestampBits == that.timestampBits && dataCenterIdBits == that.dataCenterIdBits
+            && workerIdBits == that.workerIdBits && sequenceBits == that.sequenceBits
+            && timeUnitMillis == that.timeUnitMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = timestampBits;
+        result = 31 * result + dataCenterIdBits;
+        result = 31 * result + workerIdBits;
+        result = 31 * result + sequenceBits;
+        result = 31 * result + Long.hashCode(timeUnitMillis);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtils.format("SnowflakeLayout{%s/%s/%s/%s, %sms}", timestampBits, dataCenterIdBits, workerIdBits,
+            sequenceBits, timeUnitMillis);
+    }
+
+    /**
+     * 布局构建器
+     */
+    public static final class Builder {
+
+        private int timestampBits = -1;
+        private int dataCenterIdBits = 5;
+        private int workerIdBits = 5;
+        private int sequenceBits = 12;
+        private long timeUnitMillis = 1;
+
+        private Builder() {
+        }
+
+        /**
+         * 时间戳位数，不指定时占用剩余的全部位
+         *
+         * @param timestampBits 时间戳位数
+         * @return this
+         */
+        public Builder timestampBits(int timestampBits) {
+            this.timestampBits = timestampBits;
+            return this;
+        }
+
+        /**
+         * 数据中心位数，默认5位
+         *
+         * @param dataCenterIdBits 数据中心位数
+         * @return this
+         */
+        public Builder dataCenterIdBits(int dataCenterIdBits) {
+            this.dataCenterIdBits = dataCenterIdBits;
+            return this;
+        }
+
+        /**
+         * 机器节点位数，默认5位
+         *
+         * @param workerIdBits 机器节点位数
+         * @return this
+         */
+        public Builder workerIdBits(int workerIdBits) {
+            this.workerIdBits = workerIdBits;
+            return this;
+        }
+
+        /**
+         * 序列号位数，默认12位
+         *
+         * @param sequenceBits 序列号位数
+         * @return this
+         */
+        public Builder sequenceBits(int sequenceBits) {
+            this.sequenceBits = sequenceBits;
+            return this;
+        }
+
+        /**
+         * 时间戳的单位，默认1毫秒，必须为整数毫秒
+         *
+         * @param duration 时长
+         * @param unit     单位
+         * @return this
+         */
+        public Builder timeUnit(long duration, TimeUnit unit) {
+            this.timeUnitMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        /**
+         * 校验并构建布局
+         *
+         * @return 布局
+         * @throws IllegalArgumentException 某部分位数不合法，或者总位数超过63位
+         */
+        public SnowflakeLayout build() {
+            checkBits("datacenter Id", dataCenterIdBits, 0);
+            checkBits("worker Id", workerIdBits, 0);
+            checkBits("sequence", sequenceBits, 1);
+            if (timeUnitMillis < 1) {
+                throw new IllegalArgumentException(
+                    StringUtils.format("time unit can't be less than 1 ms, but was %s ms", timeUnitMillis));
+            }
+            final int nodeBits = dataCenterIdBits + workerIdBits + sequenceBits;
+            final int timestampBits = this.timestampBits < 0 ? TOTAL_BITS - nodeBits : this.timestampBits;
+            if (timestampBits + nodeBits > TOTAL_BITS || nodeBits >= TOTAL_BITS) {
+                throw new IllegalArgumentException(StringUtils
+                    .format("layout %s/%s/%s/%s overflows %s bits", timestampBits, dataCenterIdBits, workerIdBits,
+                        sequenceBits, TOTAL_BITS));
+            }
+            checkBits("timestamp", timestampBits, 1);
+            return new SnowflakeLayout(timestampBits, dataCenterIdBits, workerIdBits, sequenceBits, timeUnitMillis);
+        }
+
+        private static void checkBits(String name, int bits, int min) {
+            if (bits < min || bits > TOTAL_BITS) {
+                throw new IllegalArgumentException(
+                    StringUtils.format("%s bits can't be greater than %s or less than %s", name, TOTAL_BITS, min));
+            }
+        }
+    }
+}
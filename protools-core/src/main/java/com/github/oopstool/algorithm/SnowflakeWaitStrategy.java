@@ -0,0 +1,282 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake序列号用尽时的等待策略<br>
+ * 当前时间单位内的序列号用尽后，生成器需要等到时钟走到下一个时间单位，不同策略在CPU占用与延迟之间取舍：
+ *
+ * <ul>
+ *     <li>{@link #busySpin()}：忙等，延迟最低，但会占满一个核，与原始实现一致</li>
+ *     <li>{@link #spinWait()}：忙等时调用{@code Thread.onSpinWait()}提示CPU，JDK 8下退化为忙等</li>
+ *     <li>{@link #park(long)}：通过{@link LockSupport#parkNanos(long)}让出CPU</li>
+ *     <li>{@link #borrowFuture(long, SnowflakeWaitStrategy)}：在有限的超前量内直接使用下一个时间单位，不等待</li>
+ * </ul>
+ * <p>
+ * 每个策略实例都会统计各条路径被执行的次数，可用于观察序列号用尽的频率。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public abstract class SnowflakeWaitStrategy implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 等待的总次数
+     */
+    private final LongAdder waitCount = new LongAdder();
+    /**
+     * 忙等循环的次数
+     */
+    final LongAdder spinCount = new LongAdder();
+    /**
+     * 挂起线程的次数
+     */
+    final LongAdder parkCount = new LongAdder();
+    /**
+     * 借用未来时间的次数
+     */
+    final LongAdder borrowCount = new LongAdder();
+
+    SnowflakeWaitStrategy() {
+    }
+
+    /**
+     * 忙等策略，循环读取时钟直到时间变化
+     *
+     * @return 等待策略
+     */
+    public static SnowflakeWaitStrategy busySpin() {
+        return new BusySpin(false);
+    }
+
+    /**
+     * 忙等策略，每次循环调用{@code Thread.onSpinWait()}，降低忙等对同核其它超线程的影响<br>
+     * {@code Thread.onSpinWait()}自JDK 9提供，低版本JDK下等同于{@link #busySpin()}
+     *
+     * @return 等待策略
+     */
+    public static SnowflakeWaitStrategy spinWait() {
+        return new BusySpin(true);
+    }
+
+    /**
+     * 挂起策略，每次检查时钟后挂起指定的纳秒数
+     *
+     * @param parkNanos 每次挂起的纳秒数
+     * @return 等待策略
+     */
+    public static SnowflakeWaitStrategy park(long parkNanos) {
+        if (parkNanos <= 0) {
+            throw new IllegalArgumentException(
+                StringUtils.format("park nanos must be greater than 0, but was %s", parkNanos));
+        }
+        return new Park(parkNanos);
+    }
+
+    /**
+     * 借用未来时间策略<br>
+     * 序列号用尽时直接使用下一个时间单位，只要超前于时钟的量不超过maxLead，否则交给fallback等待。
+     * 借用后生成器的时间会领先于时钟，依赖生成器对时钟回拨的容忍（2秒），因此maxLead应明显小于2秒。
+     *
+     * @param maxLead  允许领先时钟的最大时间单位数（默认布局下为毫秒）
+     * @param fallback 超过maxLead时使用的等待策略
+     * @return 等待策略
+     */
+    public static SnowflakeWaitStrategy borrowFuture(long maxLead, SnowflakeWaitStrategy fallback) {
+        if (maxLead <= 0) {
+            throw new IllegalArgumentException(StringUtils.format("max lead must be greater than 0, but was %s", maxLead));
+        }
+        if (null == fallback) {
+            throw new IllegalArgumentException("fallback can't be null");
+        }
+        return new BorrowFuture(maxLead, fallback);
+    }
+
+    /**
+     * 等待直到时钟越过lastTimestamp
+     *
+     * @param lastTimestamp 序列号已用尽的时间戳
+     * @param clock         生成器的时钟，返回与lastTimestamp同单位的时间戳
+     * @return 大于lastTimestamp的时间戳
+     */
+    public final long awaitNextTick(long lastTimestamp, LongSupplier clock) {
+        waitCount.increment();
+        return doAwait(lastTimestamp, clock);
+    }
+
+    /**
+     * 具体的等待逻辑
+     *
+     * @param lastTimestamp 序列号已用尽的时间戳
+     * @param clock         生成器的时钟
+     * @return 大于lastTimestamp的时间戳
+     */
+    abstract long doAwait(long lastTimestamp, LongSupplier clock);
+
+    /**
+     * 等待的总次数，即序列号用尽的次数
+     *
+     * @return 次数
+     */
+    public long getWaitCount() {
+        return waitCount.sum();
+    }
+
+    /**
+     * 忙等循环的次数
+     *
+     * @return 次数
+     */
+    public long getSpinCount() {
+        return spinCount.sum();
+    }
+
+    /**
+     * 挂起线程的次数
+     *
+     * @return 次数
+     */
+    public long getParkCount() {
+        return parkCount.sum();
+    }
+
+    /**
+     * 借用未来时间的次数
+     *
+     * @return 次数
+     */
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    @Override
+    public String toString() {
+        return StringUtils.format("%s{wait=%s, spin=%s, park=%s, borrow=%s}", getClass().getSimpleName(),
+            getWaitCount(), getSpinCount(), getParkCount(), getBorrowCount());
+    }
+
+    /**
+     * 忙等
+     */
+    private static final class BusySpin extends SnowflakeWaitStrategy {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Thread.onSpinWait()，JDK 9以下为null
+         */
+        private static final MethodHandle ON_SPIN_WAIT = findOnSpinWait();
+
+        private final boolean onSpinWait;
+
+        private BusySpin(boolean onSpinWait) {
+            this.onSpinWait = onSpinWait && null != ON_SPIN_WAIT;
+        }
+
+        @Override
+        long doAwait(long lastTimestamp, LongSupplier clock) {
+            long timestamp = clock.getAsLong();
+            long spins = 0;
+            while (timestamp <= lastTimestamp) {
+                spins++;
+                if (onSpinWait) {
+                    onSpinWait();
+                }
+                timestamp = clock.getAsLong();
+            }
+            spinCount.add(spins);
+            return timestamp;
+        }
+
+        private static void onSpinWait() {
+            try {
+                ON_SPIN_WAIT.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private static MethodHandle findOnSpinWait() {
+            try {
+                return MethodHandles.lookup()
+                    .findStatic(Thread.class, "onSpinWait", MethodType.methodType(void.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 挂起
+     */
+    private static final class Park extends SnowflakeWaitStrategy {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long parkNanos;
+
+        private Park(long parkNanos) {
+            this.parkNanos = parkNanos;
+        }
+
+        @Override
+        long doAwait(long lastTimestamp, LongSupplier clock) {
+            long timestamp = clock.getAsLong();
+            while (timestamp <= lastTimestamp) {
+                parkCount.increment();
+                LockSupport.parkNanos(parkNanos);
+                timestamp = clock.getAsLong();
+            }
+            return timestamp;
+        }
+    }
+
+    /**
+     * 借用未来时间
+     */
+    private static final class BorrowFuture extends SnowflakeWaitStrategy {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long maxLead;
+        private final SnowflakeWaitStrategy fallback;
+
+        private BorrowFuture(long maxLead, SnowflakeWaitStrategy fallback) {
+            this.maxLead = maxLead;
+            this.fallback = fallback;
+        }
+
+        @Override
+        long doAwait(long lastTimestamp, LongSupplier clock) {
+            final long timestamp = clock.getAsLong();
+            if (timestamp > lastTimestamp) {
+                return timestamp;
+            }
+            if (lastTimestamp + 1 - timestamp <= maxLead) {
+                borrowCount.increment();
+                return lastTimestamp + 1;
+            }
+            return fallback.awaitNextTick(lastTimestamp, clock);
+        }
+
+        @Override
+        public long getSpinCount() {
+            return fallback.getSpinCount();
+        }
+
+        @Override
+        public long getParkCount() {
+            return fallback.getParkCount();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+import java.io.Serializable;
+import java.util.Date;
+
+/**
+ * 分条带的Snowflake<br>
+ * 将workerId（默认5位）中的低若干位划分为条带（stripe）位，每个条带是一个独立的{@link LockFreeSnowflake}，
+ * 线程按线程ID落到不同的条带上，热点路径上不存在共享的可变状态。
+ *
+ * <pre>
+ * 0 - 0000000000 0000000000 0000000000 0000000000 0 - 00000 - 000 00 - 000000000000
+ *                                                     数据中心  机器   条带
+ * </pre>
+ * <p>
+ * 由于每个条带拥有独立的workerId，生成的ID仍然全局唯一，且可以被{@link Snowflake}正常解析，
+ * 默认布局下每个条带每毫秒可以生成4096个ID，因此整体吞吐随条带数（核数）近似线性增长。
+ * <p>
+ * 注意：同一线程内生成的ID严格递增，但不同线程之间的ID仅按毫秒粗略有序。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class StripedSnowflake implements IdGenerator, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int stripeBits;
+    private final int stripeMask;
+    private final LockFreeSnowflake[] stripes;
+
+    /**
+     * 构造
+     *
+     * @param workerId     终端ID，取值范围为0 ~ 2^(5 - stripeBits) - 1
+     * @param dataCenterId 数据中心ID
+     * @param stripeBits   从workerId中划出的条带位数，0 ~ 5，条带数为2^stripeBits
+     */
+    public StripedSnowflake(long workerId, long dataCenterId, int stripeBits) {
+        this(null, workerId, dataCenterId, stripeBits);
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id，取值范围为0 ~ 2^(5 - stripeBits) - 1
+     * @param dataCenterId 数据中心id
+     * @param stripeBits   从workerId中划出的条带位数，0 ~ 5，条带数为2^stripeBits
+     */
+    public StripedSnowflake(Date epochDate, long workerId, long dataCenterId, int stripeBits) {
+        this(epochDate, workerId, dataCenterId, stripeBits, SnowflakeLayout.DEFAULT);
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id，取值范围为0 ~ 2^(workerIdBits - stripeBits) - 1
+     * @param dataCenterId 数据中心id
+     * @param stripeBits   从workerId中划出的条带位数，0 ~ workerIdBits，条带数为2^stripeBits
+     * @param layout       位布局
+     */
+    public StripedSnowflake(Date epochDate, long workerId, long dataCenterId, int stripeBits, SnowflakeLayout layout) {
+        this(epochDate, workerId, dataCenterId, stripeBits, layout, SnowflakeWaitStrategy.busySpin());
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id，取值范围为0 ~ 2^(workerIdBits - stripeBits) - 1
+     * @param dataCenterId 数据中心id
+     * @param stripeBits   从workerId中划出的条带位数，0 ~ workerIdBits，条带数为2^stripeBits
+     * @param layout       位布局
+     * @param waitStrategy 序列号用尽时的等待策略，所有条带共用，计数为所有条带之和
+     */
+    public StripedSnowflake(Date epochDate, long workerId, long dataCenterId, int stripeBits, SnowflakeLayout layout,
+        SnowflakeWaitStrategy waitStrategy) {
+        this(epochDate, workerId, dataCenterId, stripeBits, layout, waitStrategy, TimeSource.system());
+    }
+
+    /**
+     * @param epochDate    初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
+     * @param workerId     工作机器节点id，取值范围为0 ~ 2^(workerIdBits - stripeBits) - 1
+     * @param dataCenterId 数据中心id
+     * @param stripeBits   从workerId中划出的条带位数，0 ~ workerIdBits，条带数为2^stripeBits
+     * @param layout       位布局
+     * @param waitStrategy 序列号用尽时的等待策略，所有条带共用，计数为所有条带之和
+     * @param timeSource   时间源，所有条带共用
+     */
+    public StripedSnowflake(Date epochDate, long workerId, long dataCenterId, int stripeBits, SnowflakeLayout layout,
+        SnowflakeWaitStrategy waitStrategy, TimeSource timeSource) {
+        final int workerIdBits = layout.getWorkerIdBits();
+        if (stripeBits < 0 || stripeBits > workerIdBits) {
+            throw new IllegalArgumentException(
+                StringUtils.format("stripe bits can't be greater than %s or less than 0", workerIdBits));
+        }
+        final long maxWorkerId = ~(-1L << (workerIdBits - stripeBits));
+        if (workerId > maxWorkerId || workerId < 0) {
+            throw new IllegalArgumentException(
+                StringUtils.format("worker Id can't be greater than %s or less than 0", maxWorkerId));
+        }
+        this.stripeBits = stripeBits;
+        this.stripeMask = ~(-1 << stripeBits);
+        this.stripes = new LockFreeSnowflake[1 << stripeBits];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new LockFreeSnowflake(epochDate, (workerId << stripeBits) | i, dataCenterId, layout,
+                waitStrategy, timeSource);
+        }
+    }
+
+    /**
+     * 获取位布局
+     *
+     * @return 位布局
+     */
+    public SnowflakeLayout getLayout() {
+        return stripes[0].getLayout();
+    }
+
+    /**
+     * 获取序列号用尽时的等待策略
+     *
+     * @return 等待策略
+     */
+    public SnowflakeWaitStrategy getWaitStrategy() {
+        return stripes[0].getWaitStrategy();
+    }
+
+    /**
+     * 根据Snowflake的ID，获取机器id（不含条带位）
+     *
+     * @param id snowflake算法生成的id
+     * @return 所属机器的id
+     */
+    public long getWorkerId(long id) {
+        return stripes[0].getWorkerId(id) >> stripeBits;
+    }
+
+    /**
+     * 根据Snowflake的ID，获取生成该ID的条带
+     *
+     * @param id snowflake算法生成的id
+     * @return 条带序号
+     */
+    public int getStripe(long id) {
+        return (int) stripes[0].getWorkerId(id) & stripeMask;
+    }
+
+    /**
+     * 根据Snowflake的ID，获取数据中心id
+     *
+     * @param id snowflake算法生成的id
+     * @return 所属数据中心
+     */
+    public long getDataCenterId(long id) {
+        return stripes[0].getDataCenterId(id);
+    }
+
+    /**
+     * 根据Snowflake的ID，获取生成时间
+     *
+     * @param id snowflake算法生成的id
+     * @return 生成的时间
+     */
+    public long getGenerateDateTime(long id) {
+        return stripes[0].getGenerateDateTime(id);
+    }
+
+    /**
+     * 条带数
+     *
+     * @return 条带数
+     */
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * 下一个ID
+     *
+     * @return ID
+     */
+    @Override
+    public long nextId() {
+        return currentStripe().nextId();
+    }
+
+    /**
+     * 批量获取ID，由当前线程对应的条带一次预留一段序列号
+     *
+     * @param dest 存放ID的数组
+     */
+    @Override
+    public void nextIds(long[] dest) {
+        currentStripe().nextIds(dest);
+    }
+
+    /**
+     * 下一个ID（字符串形式）
+     *
+     * @return ID 字符串形式
+     */
+    @Override
+    public String nextIdStr() {
+        return Long.toString(nextId());
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    /**
+     * 当前线程对应的条带<br>
+     * 线程ID是递增分配的，相邻创建的线程会落在不同的条带上；线程数多于条带数时，同一条带上的线程通过CAS竞争
+     *
+     * @return 条带
+     */
+    private LockFreeSnowflake currentStripe() {
+        return stripes[(int) Thread.currentThread().getId() & stripeMask];
+    }
+}
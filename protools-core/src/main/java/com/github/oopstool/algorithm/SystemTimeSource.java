@@ -0,0 +1,21 @@
+package com.github.oopstool.algorithm;
+
+
+/**
+ * 系统时钟
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+enum SystemTimeSource implements TimeSource {
+
+    /**
+     * 单例
+     */
+    INSTANCE;
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,309 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+import java.io.Serializable;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 128位按时间有序的ID生成器，兼容UUIDv7（RFC 9562）与ULID<br>
+ * 用于需要128位ID又希望B树索引按时间顺序追加写入的场景，位布局如下：
+ *
+ * <pre>
+ * |------ 48位毫秒时间戳 ------| 4位版本(7) | 12位计数器 | 2位变体(10) | 62位随机数 |
+ * </pre>
+ * <p>
+ * 时间戳与计数器像{@link LockFreeSnowflake}一样打包在同一个{@link AtomicLong}中通过CAS推进，
+ * 因此同一个生成器产生的ID严格递增；每毫秒内的4096个计数用尽时按{@link SnowflakeWaitStrategy}等待下一毫秒。
+ * 时钟回拨时沿用上次的时间戳继续计数，不会报错。随机部分来自{@link ThreadLocalRandom}，不适合作为不可猜测的令牌。
+ * <p>
+ * 同样的128位既可以按UUID的规范格式输出（{@link #writeUuid(long, long, char[], int)}），
+ * 也可以按ULID的26位Crockford base32输出（{@link #writeUlid(long, long, char[], int)}），两种文本的字典序均与生成顺序一致。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class TimeOrderedIdGenerator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * UUID规范格式的长度
+     */
+    public static final int UUID_LENGTH = 36;
+    /**
+     * ULID文本的长度
+     */
+    public static final int ULID_LENGTH = 26;
+
+    private static final int COUNTER_BITS = 12;
+    private static final long COUNTER_MASK = ~(-1L << COUNTER_BITS);
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * 序列号用尽时的等待策略
+     */
+    private final SnowflakeWaitStrategy waitStrategy;
+    /**
+     * 时间源
+     */
+    private final TimeSource timeSource;
+    /**
+     * 打包后的状态：高位为毫秒时间戳，低12位为计数器
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * 构造，使用单调时钟
+     */
+    public TimeOrderedIdGenerator() {
+        this(TimeSource.monotonic());
+    }
+
+    /**
+     * 构造
+     *
+     * @param timeSource 时间源
+     */
+    public TimeOrderedIdGenerator(TimeSource timeSource) {
+        this(timeSource, SnowflakeWaitStrategy.busySpin());
+    }
+
+    /**
+     * 构造
+     *
+     * @param timeSource   时间源
+     * @param waitStrategy 每毫秒的计数用尽时的等待策略
+     */
+    public TimeOrderedIdGenerator(TimeSource timeSource, SnowflakeWaitStrategy waitStrategy) {
+        this.timeSource = timeSource;
+        this.waitStrategy = waitStrategy;
+    }
+
+    /**
+     * 获取序列号用尽时的等待策略
+     *
+     * @return 等待策略
+     */
+    public SnowflakeWaitStrategy getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * 获取时间源
+     *
+     * @return 时间源
+     */
+    public TimeSource getTimeSource() {
+        return timeSource;
+    }
+
+    /**
+     * 下一个ID
+     *
+     * @return UUID
+     */
+    public UUID nextUuid() {
+        return new UUID(nextMostSigBits(), randomLeastSigBits(ThreadLocalRandom.current()));
+    }
+
+    /**
+     * 下一个ID，UUID规范格式（小写十六进制）
+     *
+     * @return 36位字符串
+     */
+    public String nextUuidStr() {
+        final char[] buf = new char[UUID_LENGTH];
+        nextUuid(buf, 0);
+        return new String(buf);
+    }
+
+    /**
+     * 下一个ID，以UUID规范格式写入字符数组
+     *
+     * @param dest   目标数组
+     * @param offset 起始位置
+     * @return 写入结束后的位置
+     */
+    public int nextUuid(char[] dest, int offset) {
+        return writeUuid(nextMostSigBits(), randomLeastSigBits(ThreadLocalRandom.current()), dest, offset);
+    }
+
+    /**
+     * 下一个ID，ULID格式
+     *
+     * @return 26位字符串
+     */
+    public String nextUlidStr() {
+        final char[] buf = new char[ULID_LENGTH];
+        nextUlid(buf, 0);
+        return new String(buf);
+    }
+
+    /**
+     * 下一个ID，以ULID格式写入字符数组
+     *
+     * @param dest   目标数组
+     * @param offset 起始位置
+     * @return 写入结束后的位置
+     */
+    public int nextUlid(char[] dest, int offset) {
+        return writeUlid(nextMostSigBits(), randomLeastSigBits(ThreadLocalRandom.current()), dest, offset);
+    }
+
+    /**
+     * 批量获取ID，填满给定的数组<br>
+     * 每个ID占用相邻两个元素，依次为高64位与低64位，因此数组长度必须为偶数。
+     * 每次CAS预留当前毫秒内尽可能多的计数，生成的ID严格递增。
+     *
+     * @param dest 存放ID的数组
+     */
+    public void nextIds(long[] dest) {
+        if ((dest.length & 1) != 0) {
+            throw new IllegalArgumentException(
+                StringUtils.format("dest length must be even, but was %s", dest.length));
+        }
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        int index = 0;
+        while (index < dest.length) {
+            final long current = state.get();
+            final long first = advance(current);
+            final long firstCounter = first & COUNTER_MASK;
+            final int count = (int) Math.min((dest.length - index) >> 1, COUNTER_MASK - firstCounter + 1);
+            if (state.compareAndSet(current, first + count - 1)) {
+                for (int i = 0; i < count; i++) {
+                    dest[index++] = toMostSigBits(first + i);
+                    dest[index++] = randomLeastSigBits(random);
+                }
+            }
+        }
+    }
+
+    /**
+     * 根据ID获取生成时间
+     *
+     * @param id ID
+     * @return 生成时间，毫秒
+     */
+    public static long getGenerateDateTime(UUID id) {
+        return id.getMostSignificantBits() >>> 16;
+    }
+
+    /**
+     * 以UUID规范格式（8-4-4-4-12，小写十六进制）写入字符数组
+     *
+     * @param mostSigBits  高64位
+     * @param leastSigBits 低64位
+     * @param dest         目标数组
+     * @param offset       起始位置
+     * @return 写入结束后的位置
+     */
+    public static int writeUuid(long mostSigBits, long leastSigBits, char[] dest, int offset) {
+        writeHex(mostSigBits >>> 32, dest, offset, 8);
+        dest[offset + 8] = '-';
+        writeHex(mostSigBits >>> 16, dest, offset + 9, 4);
+        dest[offset + 13] = '-';
+        writeHex(mostSigBits, dest, offset + 14, 4);
+        dest[offset + 18] = '-';
+        writeHex(leastSigBits >>> 48, dest, offset + 19, 4);
+        dest[offset + 23] = '-';
+        writeHex(leastSigBits, dest, offset + 24, 12);
+        return offset + UUID_LENGTH;
+    }
+
+    /**
+     * 以ULID格式（26位Crockford base32）写入字符数组
+     *
+     * @param mostSigBits  高64位
+     * @param leastSigBits 低64位
+     * @param dest         目标数组
+     * @param offset       起始位置
+     * @return 写入结束后的位置
+     */
+    public static int writeUlid(long mostSigBits, long leastSigBits, char[] dest, int offset) {
+        // 26个字符共130位，从低位开始每次取5位，最高位字符只有3位有效
+        for (int i = offset + ULID_LENGTH - 1; i >= offset; i--) {
+            dest[i] = IdCodec.CROCKFORD_BASE32.digit((int) leastSigBits & 0x1F);
+            leastSigBits = (leastSigBits >>> 5) | (mostSigBits << 59);
+            mostSigBits >>>= 5;
+        }
+        return offset + ULID_LENGTH;
+    }
+
+    /**
+     * 解析ULID文本，忽略大小写
+     *
+     * @param text ULID文本
+     * @return 对应的128位
+     */
+    public static UUID parseUlid(CharSequence text) {
+        if (text.length() != ULID_LENGTH) {
+            throw new IllegalArgumentException(
+                StringUtils.format("ULID length must be %s, but was %s", ULID_LENGTH, text.length()));
+        }
+        long mostSigBits = 0;
+        long leastSigBits = 0;
+        for (int i = 0; i < ULID_LENGTH; i++) {
+            final char c = text.charAt(i);
+            final int value = IdCodec.CROCKFORD_BASE32.value(c);
+            if (value < 0 || (i == 0 && value > 7)) {
+                throw new IllegalArgumentException(StringUtils.format("illegal ULID character: '%s'", c));
+            }
+            mostSigBits = (mostSigBits << 5) | (leastSigBits >>> 59);
+            leastSigBits = (leastSigBits << 5) | value;
+        }
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private long nextMostSigBits() {
+        for (; ; ) {
+            final long current = state.get();
+            final long next = advance(current);
+            if (state.compareAndSet(current, next)) {
+                return toMostSigBits(next);
+            }
+        }
+    }
+
+    /**
+     * 基于当前状态计算下一个状态
+     *
+     * @param current 当前状态
+     * @return 下一个状态
+     */
+    private long advance(long current) {
+        final long lastTimestamp = current >>> COUNTER_BITS;
+        final long timestamp = timeSource.currentTimeMillis();
+        if (timestamp > lastTimestamp) {
+            return timestamp << COUNTER_BITS;
+        }
+        if (((current + 1) & COUNTER_MASK) == 0) {
+            // 当前毫秒内计数已用尽，等待下一毫秒（或由等待策略借用下一毫秒）
+            return waitStrategy.awaitNextTick(lastTimestamp, timeSource::currentTimeMillis) << COUNTER_BITS;
+        }
+        // 同一毫秒或时钟回拨，沿用上次的时间戳继续计数
+        return current + 1;
+    }
+
+    private static long toMostSigBits(long state) {
+        return ((state >>> COUNTER_BITS) << 16) | VERSION | (state & COUNTER_MASK);
+    }
+
+    private static long randomLeastSigBits(ThreadLocalRandom random) {
+        return VARIANT | (random.nextLong() & RANDOM_MASK);
+    }
+
+    private static void writeHex(long value, char[] dest, int offset, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            dest[i] = HEX_DIGITS[(int) value & 0xF];
+            value >>>= 4;
+        }
+    }
+}
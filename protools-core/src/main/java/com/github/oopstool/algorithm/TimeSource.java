@@ -0,0 +1,56 @@
+package com.github.oopstool.algorithm;
+
+
+/**
+ * ID生成使用的时间源<br>
+ * 默认的{@link #system()}每次都调用{@link System#currentTimeMillis()}，另外提供：
+ *
+ * <ul>
+ *     <li>{@link #monotonic()}：以{@link System#nanoTime()}为锚点的单调时钟，不受NTP校时回拨影响</li>
+ *     <li>{@link #cached()}：由一个后台守护线程每毫秒刷新的缓存时钟，读取只是一次volatile读</li>
+ * </ul>
+ * <p>
+ * 使用单调时钟时不会出现时钟回拨，生成器中对回拨的容忍与报错逻辑也就不会被触发。
+ * <p>
+ * 内置的时间源都是枚举单例，按名称序列化，反序列化后仍是同一个实例。自定义的时间源需要同时实现{@link java.io.Serializable}，
+ * 使用它的生成器才能序列化，例如{@code (TimeSource & Serializable) clock::get}。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public interface TimeSource {
+
+    /**
+     * 当前时间
+     *
+     * @return 自1970-01-01 00:00:00 UTC起的毫秒数
+     */
+    long currentTimeMillis();
+
+    /**
+     * 系统时钟，即{@link System#currentTimeMillis()}
+     *
+     * @return 时间源
+     */
+    static TimeSource system() {
+        return SystemTimeSource.INSTANCE;
+    }
+
+    /**
+     * 单调时钟，JVM内共用同一个锚点，不会倒退
+     *
+     * @return 时间源
+     */
+    static TimeSource monotonic() {
+        return MonotonicTimeSource.INSTANCE;
+    }
+
+    /**
+     * 缓存时钟，由后台守护线程基于单调时钟每毫秒刷新，不会倒退
+     *
+     * @return 时间源
+     */
+    static TimeSource cached() {
+        return CachedTimeSource.INSTANCE;
+    }
+}
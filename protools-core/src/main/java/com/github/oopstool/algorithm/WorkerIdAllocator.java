@@ -0,0 +1,46 @@
+package com.github.oopstool.algorithm;
+
+
+import java.io.Closeable;
+
+/**
+ * workerId分配器SPI<br>
+ * 让生成器在启动时自动获得唯一的(dataCenterId, workerId)，而不需要为每个节点手工配置，便于弹性扩缩容。
+ * 租约需要在到期前续约，到期后持有者不得再生成ID（见{@link LeasedIdGenerator}）。
+ *
+ * @author HouGY
+ * @see FileWorkerIdAllocator
+ * @since 1.0.4
+ */
+public interface WorkerIdAllocator extends Closeable {
+
+    /**
+     * 申请一个租约
+     *
+     * @return 租约
+     * @throws IllegalStateException 没有可用的workerId
+     */
+    WorkerIdLease lease();
+
+    /**
+     * 续约，成功后租约的到期时间被原地延长
+     *
+     * @param lease 租约
+     * @throws IllegalStateException 租约已经失效或被他人占用
+     */
+    void renew(WorkerIdLease lease);
+
+    /**
+     * 释放租约，释放后的workerId可以被其他节点申请
+     *
+     * @param lease 租约
+     */
+    void release(WorkerIdLease lease);
+
+    /**
+     * 关闭分配器，默认不做任何事
+     */
+    @Override
+    default void close() {
+    }
+}
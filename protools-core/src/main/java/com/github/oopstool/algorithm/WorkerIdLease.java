@@ -0,0 +1,69 @@
+package com.github.oopstool.algorithm;
+
+
+import com.github.oopstool.string.StringUtils;
+
+/**
+ * workerId租约<br>
+ * 由{@link WorkerIdAllocator}分配，持有期间该(dataCenterId, workerId)只属于当前持有者，
+ * 续约会原地延长到期时间，因此持有租约引用的生成器总能看到最新的到期时间。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class WorkerIdLease {
+
+    private final long workerId;
+    private final long dataCenterId;
+    private volatile long expireAt;
+
+    /**
+     * 构造，供{@link WorkerIdAllocator}的实现使用
+     *
+     * @param workerId     机器节点id
+     * @param dataCenterId 数据中心id
+     * @param expireAt     到期时间，毫秒
+     */
+    public WorkerIdLease(long workerId, long dataCenterId, long expireAt) {
+        this.workerId = workerId;
+        this.dataCenterId = dataCenterId;
+        this.expireAt = expireAt;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public long getDataCenterId() {
+        return dataCenterId;
+    }
+
+    public long getExpireAt() {
+        return expireAt;
+    }
+
+    /**
+     * 延长到期时间，供{@link WorkerIdAllocator}的实现在续约时使用
+     *
+     * @param expireAt 新的到期时间，毫秒
+     */
+    public void extendTo(long expireAt) {
+        this.expireAt = expireAt;
+    }
+
+    /**
+     * 租约在指定时间是否仍然有效
+     *
+     * @param now 当前时间，毫秒
+     * @return 是否有效
+     */
+    public boolean isValid(long now) {
+        return now < expireAt;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtils.format("WorkerIdLease{dataCenterId=%s, workerId=%s, expireAt=%s}", dataCenterId, workerId,
+            expireAt);
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.string.StringUtils;
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 基于批量函数的 CacheLoader，通过{@link CacheUtils#fromBulk}构建
+ * <p>
+ * {@link com.google.common.cache.LoadingCache#getAll(Iterable)}的未命中key一次性交给批量函数加载；
+ * 单个key的未命中（并发的get）在一个很短的时间窗口内合并为一次批量加载：
+ * 窗口内第一个未命中的线程负责等待窗口结束（或凑满maxBatchSize个key）后执行批量函数，其它线程等待其结果。
+ * 冷启动时大量并发的单key未命中因此只会产生少量的后端请求。
+ * <p>
+ * 批量函数返回的Map中缺少的key视为加载失败，对应的get抛出{@link InvalidCacheLoadException}。
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class BulkCacheLoader<K, V> extends CacheLoader<K, V> {
+
+    private final Function<Set<K>, Map<K, V>> function;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    /**
+     * 正在收集key的批次，窗口结束或凑满后置为null
+     */
+    private Batch<K, V> current;
+
+    /**
+     * 构造
+     *
+     * @param function     批量函数，参数为需要加载的key，返回key到值的映射
+     * @param window       合并单key未命中的时间窗口，0表示不等待
+     * @param unit         时间单位
+     * @param maxBatchSize 每批最多的key数，凑满后立即加载
+     */
+    public BulkCacheLoader(Function<Set<K>, Map<K, V>> function, long window, TimeUnit unit, int maxBatchSize) {
+        if (window < 0) {
+            throw new IllegalArgumentException(StringUtils.format("window can't be less than 0, but was %s", window));
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException(
+                StringUtils.format("max batch size must be greater than 0, but was %s", maxBatchSize));
+        }
+        this.function = function;
+        this.windowNanos = unit.toNanos(window);
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public V load(K key) throws Exception {
+        final Batch<K, V> batch;
+        final CompletableFuture<V> future;
+        final boolean leader;
+        synchronized (this) {
+            leader = null == current;
+            if (leader) {
+                current = new Batch<>(Thread.currentThread());
+            }
+            batch = current;
+            future = batch.futures.computeIfAbsent(key, k -> new CompletableFuture<>());
+            if (batch.futures.size() >= maxBatchSize) {
+                close(batch);
+            }
+        }
+        if (leader) {
+            final long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            while (!batch.closed && remaining > 0) {
+                LockSupport.parkNanos(this, remaining);
+                remaining = deadline - System.nanoTime();
+            }
+            synchronized (this) {
+                close(batch);
+            }
+            batch.execute(function);
+        }
+        try {
+            return Uninterruptibles.getUninterruptibly(future);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            Throwables.throwIfUnchecked(cause);
+            // 既不是Exception也不是Error的Throwable
+            throw e;
+        }
+    }
+
+    @Override
+    public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+        final Set<K> keySet = new LinkedHashSet<>();
+        for (K key : keys) {
+            keySet.add(key);
+        }
+        return function.apply(keySet);
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    /**
+     * 结束批次的收集，需持有this的锁
+     *
+     * @param batch 批次
+     */
+    private void close(Batch<K, V> batch) {
+        if (current == batch) {
+            current = null;
+        }
+        if (!batch.closed) {
+            batch.closed = true;
+            LockSupport.unpark(batch.leader);
+        }
+    }
+
+    /**
+     * 一次批量加载
+     */
+    private static final class Batch<K, V> {
+
+        private final Thread leader;
+        /**
+         * 只在收集期间（持有锁时）修改
+         */
+        private final Map<K, CompletableFuture<V>> futures = new LinkedHashMap<>();
+        private volatile boolean closed;
+
+        private Batch(Thread leader) {
+            this.leader = leader;
+        }
+
+        private void execute(Function<Set<K>, Map<K, V>> function) {
+            final Map<K, V> values;
+            try {
+                values = function.apply(new LinkedHashSet<>(futures.keySet()));
+            } catch (Throwable e) {
+                futures.values().forEach(future -> future.completeExceptionally(e));
+                return;
+            }
+            futures.forEach((key, future) -> {
+                final V value = null == values ? null : values.get(key);
+                if (null == value) {
+                    future.completeExceptionally(new InvalidCacheLoadException(
+                        StringUtils.format("bulk function returned no value for key %s", key)));
+                } else {
+                    future.complete(value);
+                }
+            });
+        }
+    }
+}
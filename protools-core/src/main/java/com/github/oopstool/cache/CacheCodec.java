@@ -0,0 +1,104 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.json.GsonUtils;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 缓存value的序列化方式，用于{@link OffHeapCache}等堆外或持久化的缓存层
+ *
+ * @param <V> value
+ * @author HouGY
+ * @since 1.0.4
+ */
+public interface CacheCodec<V> {
+
+    /**
+     * 序列化
+     *
+     * @param value value，不为null
+     * @return 字节
+     */
+    byte[] encode(V value);
+
+    /**
+     * 反序列化
+     *
+     * @param buffer position到limit之间为{@link #encode(Object)}的结果
+     * @return value
+     */
+    V decode(ByteBuffer buffer);
+
+    /**
+     * 基于{@link GsonUtils}的json序列化，以UTF-8保存
+     *
+     * @param cls value的类型
+     * @param <V> value
+     * @return 序列化方式
+     */
+    static <V> CacheCodec<V> gson(Class<V> cls) {
+        return gson((Type) cls);
+    }
+
+    /**
+     * 基于{@link GsonUtils}的json序列化，以UTF-8保存，用于泛型的value
+     *
+     * @param type value的类型
+     * @param <V>  value
+     * @return 序列化方式
+     */
+    static <V> CacheCodec<V> gson(Type type) {
+        return new CacheCodec<V>() {
+            @Override
+            public byte[] encode(V value) {
+                return GsonUtils.toJson(value).getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public V decode(ByteBuffer buffer) {
+                return GsonUtils.jsonToBean(StandardCharsets.UTF_8.decode(buffer).toString(), type);
+            }
+        };
+    }
+
+    /**
+     * 字符串，以UTF-8保存
+     *
+     * @return 序列化方式
+     */
+    static CacheCodec<String> string() {
+        return new CacheCodec<String>() {
+            @Override
+            public byte[] encode(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(ByteBuffer buffer) {
+                return StandardCharsets.UTF_8.decode(buffer).toString();
+            }
+        };
+    }
+
+    /**
+     * 原样保存字节数组，适合调用方已经序列化好的二进制数据（如protobuf）
+     *
+     * @return 序列化方式
+     */
+    static CacheCodec<byte[]> bytes() {
+        return new CacheCodec<byte[]>() {
+            @Override
+            public byte[] encode(byte[] value) {
+                return value;
+            }
+
+            @Override
+            public byte[] decode(ByteBuffer buffer) {
+                final byte[] value = new byte[buffer.remaining()];
+                buffer.get(value);
+                return value;
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package com.github.oopstool.cache;
+
+/**
+ * 缓存的底层实现，通过{@link LoadingCacheBuilder#engine(CacheEngine)}按缓存选择
+ * <p>
+ * 两种实现构建出的都是guava的{@link com.google.common.cache.LoadingCache}接口，业务代码无需改动即可切换：
+ * <ul>
+ *     <li>{@link #GUAVA}：分段锁 + LRU，读操作也需要记录访问顺序</li>
+ *     <li>{@link #CAFFEINE}：W-TinyLFU淘汰，读操作无锁，key分布倾斜或存在扫描时命中率更高、尾延迟更低</li>
+ * </ul>
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public enum CacheEngine {
+
+    /**
+     * guava CacheBuilder
+     */
+    GUAVA,
+    /**
+     * caffeine，经CaffeinatedGuava适配为guava接口
+     * <p>
+     * 与guava的差异：concurrencyLevel不生效；移除回调与refreshAfterWrite触发的刷新默认在ForkJoinPool.commonPool()上异步执行
+     */
+    CAFFEINE
+}
@@ -0,0 +1,208 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.string.StringUtils;
+import com.google.common.cache.Cache;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * 具名缓存注册表，注册后的缓存通过JMX（{@link CacheStatsMXBean}）发布统计，也可以通过{@link #snapshot(String)}主动拉取，
+ * 无需持有缓存引用即可在线上找出命中率低、加载慢的缓存
+ * <p>
+ * 通过{@link LoadingCacheBuilder#name(String)}构建的缓存会自动注册并记录加载耗时的分布；
+ * {@link CacheUtils#buildCache}等方法构建的缓存已开启统计，可以直接{@link #register(String, Cache)}，但没有加载耗时的分布。
+ * 注册表持有缓存的强引用，缓存废弃时需要{@link #unregister(String)}。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class CacheRegistry {
+
+    /**
+     * JMX的域
+     */
+    public static final String JMX_DOMAIN = "com.github.oopstool.cache";
+
+    private static final Map<String, Registration> REGISTRATIONS = new ConcurrentHashMap<>();
+
+    private CacheRegistry() {
+    }
+
+    /**
+     * 注册缓存，缓存需要开启统计，否则计数全部为0
+     *
+     * @param name  缓存名，不能重复
+     * @param cache 缓存
+     */
+    public static void register(String name, Cache<?, ?> cache) {
+        register(name, cache, new LatencyHistogram());
+    }
+
+    /**
+     * 注销缓存，同时从JMX注销，缓存不存在时忽略
+     *
+     * @param name 缓存名
+     */
+    public static void unregister(String name) {
+        final Registration registration = REGISTRATIONS.remove(name);
+        if (null == registration) {
+            return;
+        }
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(registration.objectName)) {
+                server.unregisterMBean(registration.objectName);
+            }
+        } catch (JMException e) {
+            throw new IllegalStateException(StringUtils.format("failed to unregister cache %s from JMX", name), e);
+        }
+    }
+
+    /**
+     * 已注册的缓存名
+     *
+     * @return 缓存名，按字典序
+     */
+    public static Set<String> names() {
+        return new TreeMap<>(REGISTRATIONS).keySet();
+    }
+
+    /**
+     * 拉取一个缓存当前的统计
+     *
+     * @param name 缓存名
+     * @return 统计，缓存未注册时为null
+     */
+    public static CacheSnapshot snapshot(String name) {
+        final Registration registration = REGISTRATIONS.get(name);
+        return null == registration ? null : registration.snapshot();
+    }
+
+    /**
+     * 拉取所有已注册缓存当前的统计
+     *
+     * @return 缓存名到统计的映射，按缓存名的字典序
+     */
+    public static Map<String, CacheSnapshot> snapshots() {
+        final Map<String, CacheSnapshot> snapshots = new TreeMap<>();
+        REGISTRATIONS.forEach((name, registration) -> snapshots.put(name, registration.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * 注册缓存，加载耗时记入指定的直方图
+     */
+    static void register(String name, Cache<?, ?> cache, LatencyHistogram histogram) {
+        if (StringUtils.isBlank(name)) {
+            throw new IllegalArgumentException("cache name can't be blank");
+        }
+        final ObjectName objectName;
+        try {
+            objectName = new ObjectName(JMX_DOMAIN + ":type=Cache,name=" + ObjectName.quote(name));
+        } catch (JMException e) {
+            throw new IllegalArgumentException(StringUtils.format("illegal cache name %s", name), e);
+        }
+        final Registration registration = new Registration(name, objectName, cache, histogram);
+        if (null != REGISTRATIONS.putIfAbsent(name, registration)) {
+            throw new IllegalArgumentException(StringUtils.format("cache %s already registered", name));
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(registration, objectName);
+        } catch (JMException e) {
+            REGISTRATIONS.remove(name, registration);
+            throw new IllegalStateException(StringUtils.format("failed to register cache %s to JMX", name), e);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private static final class Registration implements CacheStatsMXBean {
+
+        private final String name;
+        private final ObjectName objectName;
+        private final Cache<?, ?> cache;
+        private final LatencyHistogram histogram;
+
+        Registration(String name, ObjectName objectName, Cache<?, ?> cache, LatencyHistogram histogram) {
+            this.name = name;
+            this.objectName = objectName;
+            this.cache = cache;
+            this.histogram = histogram;
+        }
+
+        CacheSnapshot snapshot() {
+            return new CacheSnapshot(name, cache.size(), cache.stats(), histogram);
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getSize() {
+            return cache.size();
+        }
+
+        @Override
+        public long getHitCount() {
+            return cache.stats().hitCount();
+        }
+
+        @Override
+        public long getMissCount() {
+            return cache.stats().missCount();
+        }
+
+        @Override
+        public double getHitRate() {
+            return cache.stats().hitRate();
+        }
+
+        @Override
+        public long getLoadSuccessCount() {
+            return cache.stats().loadSuccessCount();
+        }
+
+        @Override
+        public long getLoadExceptionCount() {
+            return cache.stats().loadExceptionCount();
+        }
+
+        @Override
+        public double getAverageLoadPenalty() {
+            return cache.stats().averageLoadPenalty();
+        }
+
+        @Override
+        public long getEvictionCount() {
+            return cache.stats().evictionCount();
+        }
+
+        @Override
+        public long getLoadLatencyP50() {
+            return histogram.percentile(0.5);
+        }
+
+        @Override
+        public long getLoadLatencyP99() {
+            return histogram.percentile(0.99);
+        }
+
+        @Override
+        public long getLoadLatencyP999() {
+            return histogram.percentile(0.999);
+        }
+
+        @Override
+        public long getLoadLatencyMax() {
+            return histogram.max();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.string.StringUtils;
+import com.google.common.cache.CacheStats;
+
+/**
+ * 某一时刻的缓存统计，不可变，通过{@link CacheRegistry#snapshot(String)}获取
+ * <p>
+ * 计数均为缓存创建以来的累计值，两次快照相减（{@link CacheStats#minus(CacheStats)}）即为区间内的值
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class CacheSnapshot {
+
+    private final String name;
+    private final long size;
+    private final CacheStats stats;
+    private final long loadLatencyP50;
+    private final long loadLatencyP99;
+    private final long loadLatencyP999;
+    private final long loadLatencyMax;
+
+    CacheSnapshot(String name, long size, CacheStats stats, LatencyHistogram histogram) {
+        this.name = name;
+        this.size = size;
+        this.stats = stats;
+        this.loadLatencyP50 = histogram.percentile(0.5);
+        this.loadLatencyP99 = histogram.percentile(0.99);
+        this.loadLatencyP999 = histogram.percentile(0.999);
+        this.loadLatencyMax = histogram.max();
+    }
+
+    /**
+     * @return 缓存名
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return 条目数（近似值）
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return 命中、未命中、加载耗时、淘汰等计数，缓存未开启统计时全部为0
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * @return 加载耗时的中位数，纳秒
+     */
+    public long getLoadLatencyP50() {
+        return loadLatencyP50;
+    }
+
+    /**
+     * @return 加载耗时的99分位，纳秒
+     */
+    public long getLoadLatencyP99() {
+        return loadLatencyP99;
+    }
+
+    /**
+     * @return 加载耗时的999分位，纳秒
+     */
+    public long getLoadLatencyP999() {
+        return loadLatencyP999;
+    }
+
+    /**
+     * @return 最大加载耗时，纳秒
+     */
+    public long getLoadLatencyMax() {
+        return loadLatencyMax;
+    }
+
+    @Override
+    public String toString() {
+        return StringUtils.format(
+            "%s{size=%s, hitRate=%s, hits=%s, misses=%s, loads=%s, loadFailures=%s, evictions=%s, "
+                + "loadP50=%sns, loadP99=%sns, loadP999=%sns, loadMax=%sns}",
+            name, size, stats.hitRate(), stats.hitCount(), stats.missCount(), stats.loadSuccessCount(),
+            stats.loadExceptionCount(), stats.evictionCount(), loadLatencyP50, loadLatencyP99, loadLatencyP999,
+            loadLatencyMax);
+    }
+}
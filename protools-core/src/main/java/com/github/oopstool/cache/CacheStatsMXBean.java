@@ -0,0 +1,76 @@
+package com.github.oopstool.cache;
+
+/**
+ * 通过JMX发布的缓存统计，ObjectName为{@code com.github.oopstool.cache:type=Cache,name=<缓存名>}
+ *
+ * @author HouGY
+ * @see CacheRegistry
+ * @since 1.0.4
+ */
+public interface CacheStatsMXBean {
+
+    /**
+     * @return 缓存名
+     */
+    String getName();
+
+    /**
+     * @return 条目数
+     */
+    long getSize();
+
+    /**
+     * @return 命中次数
+     */
+    long getHitCount();
+
+    /**
+     * @return 未命中次数
+     */
+    long getMissCount();
+
+    /**
+     * @return 命中率
+     */
+    double getHitRate();
+
+    /**
+     * @return 加载成功次数
+     */
+    long getLoadSuccessCount();
+
+    /**
+     * @return 加载失败次数
+     */
+    long getLoadExceptionCount();
+
+    /**
+     * @return 平均加载耗时，纳秒
+     */
+    double getAverageLoadPenalty();
+
+    /**
+     * @return 淘汰次数（不含手动删除）
+     */
+    long getEvictionCount();
+
+    /**
+     * @return 加载耗时的中位数，纳秒
+     */
+    long getLoadLatencyP50();
+
+    /**
+     * @return 加载耗时的99分位，纳秒
+     */
+    long getLoadLatencyP99();
+
+    /**
+     * @return 加载耗时的999分位，纳秒
+     */
+    long getLoadLatencyP999();
+
+    /**
+     * @return 最大加载耗时，纳秒
+     */
+    long getLoadLatencyMax();
+}
@@ -0,0 +1,65 @@
+package com.github.oopstool.cache;
+
+/**
+ * 缓存层，作为堆内{@link com.google.common.cache.LoadingCache}之后的二级缓存，
+ * 通过{@link LoadingCacheBuilder#secondLevel(CacheTier)}挂接
+ * <p>
+ * 实现类需要线程安全，且不能阻塞太久：一级缓存未命中时会先查询二级缓存，再调用CacheLoader。
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author HouGY
+ * @see OffHeapCache
+ * @since 1.0.4
+ */
+public interface CacheTier<K, V> {
+
+    /**
+     * 获取
+     *
+     * @param key key
+     * @return value，不存在时为null
+     */
+    V getIfPresent(K key);
+
+    /**
+     * 获取写入后未超过maxAgeNanos的value，一级缓存设置了expireAfterWrite时由一级缓存按相同的时长调用，
+     * 避免一级缓存过期后又从二级缓存取回旧值
+     * <p>
+     * 默认实现不记录写入时间，直接调用{@link #getIfPresent(Object)}
+     *
+     * @param key         key
+     * @param maxAgeNanos 写入后的最大时长，纳秒，{@link Long#MAX_VALUE}表示不限
+     * @return value，不存在或已过期时为null
+     */
+    default V getIfPresent(K key, long maxAgeNanos) {
+        return getIfPresent(key);
+    }
+
+    /**
+     * 放入，容量不足时按实现自身的策略淘汰
+     *
+     * @param key   key
+     * @param value value
+     */
+    void put(K key, V value);
+
+    /**
+     * 删除
+     *
+     * @param key key
+     */
+    void invalidate(K key);
+
+    /**
+     * 清空
+     */
+    void invalidateAll();
+
+    /**
+     * 当前的条目数
+     *
+     * @return 条目数
+     */
+    long size();
+}
@@ -2,9 +2,16 @@ package com.github.oopstool.cache;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
-import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -44,12 +51,12 @@ public class CacheUtils {
      * @param maximumSize       允许最大的缓存条目数
      * @param cacheLoader       缓存加载逻辑
      * @return 返回LoadingCache 对象
+     * @see #newBuilder()
      */
     public static <K, V> LoadingCache<K, V> buildCache(Integer expireAfterWrite, Integer refreshAfterWrite,
         Integer concurrencyLevel, Integer initialCapacity, Integer maximumSize, CacheLoader<K, V> cacheLoader) {
         LoadingCache<K, V> cache =
-            CacheBuilder
-                .newBuilder()
+            CacheUtils.<K, V>newBuilder()
                 .concurrencyLevel(concurrencyLevel)
                 .expireAfterWrite(expireAfterWrite, TimeUnit.SECONDS)
                 .refreshAfterWrite(refreshAfterWrite, TimeUnit.SECONDS)
@@ -63,8 +70,7 @@ public class CacheUtils {
     public static <K, V> LoadingCache<K, V> buildCacheWithoutExpire(Integer refreshAfterWrite, Integer concurrencyLevel,
         Integer initialCapacity, Integer maximumSize, CacheLoader<K, V> cacheLoader) {
         LoadingCache<K, V> cache =
-            CacheBuilder
-                .newBuilder()
+            CacheUtils.<K, V>newBuilder()
                 .concurrencyLevel(concurrencyLevel)
                 .refreshAfterWrite(refreshAfterWrite, TimeUnit.SECONDS)
                 .initialCapacity(initialCapacity)
@@ -74,6 +80,18 @@ public class CacheUtils {
         return cache;
     }
 
+    /**
+     * 获取缓存构建器，只有显式设置的选项才会生效，可按需开启按权重淘汰、expireAfterAccess、弱/软引用value、移除回调与统计
+     *
+     * @param <K> key
+     * @param <V> value
+     * @return 缓存构建器
+     * @since 1.0.4
+     */
+    public static <K, V> LoadingCacheBuilder<K, V> newBuilder() {
+        return new LoadingCacheBuilder<>();
+    }
+
     /**
      * 从指定的函数构建 CacheLoader
      *
@@ -97,5 +115,135 @@ public class CacheUtils {
         return CacheLoader.from(supplier);
     }
 
+    /**
+     * 从批量函数构建 CacheLoader，getAll的未命中key一次性加载，单key的未命中不合并
+     *
+     * @param function 批量函数，参数为需要加载的key，返回key到值的映射
+     * @param <K>      key
+     * @param <V>      value
+     * @return 返回CacheLoader
+     * @since 1.0.4
+     */
+    public static <K, V> CacheLoader<K, V> fromBulk(Function<Set<K>, Map<K, V>> function) {
+        return new BulkCacheLoader<>(function, 0, TimeUnit.MILLISECONDS, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 从批量函数构建 CacheLoader，getAll的未命中key一次性加载，并发的单key未命中在window内合并为一次批量加载
+     *
+     * @param function     批量函数，参数为需要加载的key，返回key到值的映射
+     * @param window       合并的时间窗口，通常为几毫秒
+     * @param unit         时间单位
+     * @param maxBatchSize 每批最多的key数，凑满后不再等待窗口结束
+     * @param <K>          key
+     * @param <V>          value
+     * @return 返回CacheLoader
+     * @since 1.0.4
+     */
+    public static <K, V> CacheLoader<K, V> fromBulk(Function<Set<K>, Map<K, V>> function, long window,
+        TimeUnit unit, int maxBatchSize) {
+        return new BulkCacheLoader<>(function, window, unit, maxBatchSize);
+    }
+
+    /**
+     * 从指定的函数构建刷新异步执行的 CacheLoader
+     * <p>
+     * 配合refreshAfterWrite使用时，刷新提交到executor执行，触发刷新的请求线程及刷新期间的其它请求都直接返回旧值；
+     * 首次加载（缓存中没有旧值）仍在调用线程上同步执行，如需避免请使用{@link #getAsync(LoadingCache, Object, Executor)}
+     *
+     * @param function 函数
+     * @param executor 执行刷新的线程池
+     * @param <K>      key
+     * @param <V>      value
+     * @return 返回CacheLoader
+     * @since 1.0.4
+     */
+    public static <K, V> CacheLoader<K, V> fromAsync(Function<K, V> function, Executor executor) {
+        return asyncReloading(CacheLoader.from(function), executor);
+    }
+
+    /**
+     * 从指定的函数构建刷新异步执行的 CacheLoader，详见{@link #fromAsync(Function, Executor)}
+     *
+     * @param supplier 函数
+     * @param executor 执行刷新的线程池
+     * @param <V>      value
+     * @return 返回CacheLoader
+     * @since 1.0.4
+     */
+    public static <V> CacheLoader<Object, V> fromAsync(Supplier<V> supplier, Executor executor) {
+        return asyncReloading(CacheLoader.from(supplier), executor);
+    }
+
+    /**
+     * 将已有的 CacheLoader 的刷新改为在executor上异步执行，详见{@link #fromAsync(Function, Executor)}
+     *
+     * @param cacheLoader 缓存加载逻辑
+     * @param executor    执行刷新的线程池
+     * @param <K>         key
+     * @param <V>         value
+     * @return 返回CacheLoader
+     * @since 1.0.4
+     */
+    public static <K, V> CacheLoader<K, V> asyncReloading(CacheLoader<K, V> cacheLoader, Executor executor) {
+        return CacheLoader.asyncReloading(cacheLoader, executor);
+    }
+
+    /**
+     * 异步获取缓存
+     * <p>
+     * 已缓存时在调用线程上直接返回，与{@link LoadingCache#getIfPresent}一样计入命中且不会触发refreshAfterWrite的刷新；
+     * 未缓存时加载提交到executor执行，请求线程不会因为加载而阻塞。并发请求同一个key时只会加载一次。加载失败时future以loader抛出的异常结束。
+     *
+     * @param cache    缓存
+     * @param key      key
+     * @param executor 执行加载的线程池
+     * @param <K>      key
+     * @param <V>      value
+     * @return 完成时为缓存的值
+     * @since 1.0.4
+     */
+    public static <K, V> CompletableFuture<V> getAsync(LoadingCache<K, V> cache, K key, Executor executor) {
+        final V cached = cache.getIfPresent(key);
+        if (null != cached) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(cache.getUnchecked(key));
+            } catch (UncheckedExecutionException | ExecutionError e) {
+                future.completeExceptionally(e.getCause());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
 
+    /**
+     * 异步批量获取缓存，未缓存的key在executor上一次性加载，详见{@link #getAsync(LoadingCache, Object, Executor)}
+     *
+     * @param cache    缓存
+     * @param keys     key
+     * @param executor 执行加载的线程池
+     * @param <K>      key
+     * @param <V>      value
+     * @return 完成时为key到值的映射
+     * @since 1.0.4
+     */
+    public static <K, V> CompletableFuture<ImmutableMap<K, V>> getAllAsync(LoadingCache<K, V> cache,
+        Iterable<? extends K> keys, Executor executor) {
+        final CompletableFuture<ImmutableMap<K, V>> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                future.complete(cache.getAll(keys));
+            } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+                future.completeExceptionally(e.getCause());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
 }
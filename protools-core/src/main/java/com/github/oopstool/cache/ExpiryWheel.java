@@ -0,0 +1,440 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.ForwardingCache.SimpleForwardingCache;
+import com.google.common.cache.ForwardingLoadingCache.SimpleForwardingLoadingCache;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分层时间轮，代替guava/caffeine自身的过期队列执行expireAfterWrite，见{@link LoadingCacheBuilder#expiryWheel(long, TimeUnit)}
+ * <p>
+ * 写入线程只把(key, 过期时间)追加到无锁队列；后台线程每个tick先把队列中的事件放入时间轮，再推进时间轮，
+ * 到期的key按批{@link Cache#invalidateAll(Iterable)}。时间轮共5层、每层64个桶，第0层每个桶跨一个tick，
+ * 上一层每个桶跨下一层的一整圈，放入与到期都是O(1)，高层的桶在轮到时整体降级到低层，摊还后仍是O(1)。
+ * <p>
+ * 时间轮只在后台线程上修改，写入线程之间不竞争锁。所有缓存共用一个后台线程，缓存被GC回收后自动停止调度。
+ *
+ * @param <K> key
+ * @author HouGY
+ * @since 1.0.4
+ */
+final class ExpiryWheel<K> {
+
+    private static final int BITS = 6;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 5;
+    private static final int MAX_BATCH_SIZE = 1024;
+    private static final long CANCEL = Long.MIN_VALUE;
+
+    private static final ScheduledExecutorService TICKER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "protools-expiry-wheel");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long ttlNanos;
+    private final long tickNanos;
+    private final Queue<Event<K>> events = new ConcurrentLinkedQueue<>();
+    private final Node<K>[][] wheels;
+    private final Map<K, Node<K>> nodes = new HashMap<>();
+    private final LongAdder failureCount = new LongAdder();
+    private long currentTick;
+    private volatile WeakReference<Cache<K, ?>> cacheRef;
+    private volatile ScheduledFuture<?> future;
+
+    @SuppressWarnings("unchecked")
+    ExpiryWheel(long ttlNanos, long tickNanos) {
+        this.ttlNanos = ttlNanos;
+        this.tickNanos = tickNanos;
+        this.wheels = (Node<K>[][]) new Node<?>[LEVELS][WHEEL_SIZE];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int bucket = 0; bucket < WHEEL_SIZE; bucket++) {
+                wheels[level][bucket] = Node.sentinel();
+            }
+        }
+        this.currentTick = Math.floorDiv(System.nanoTime(), tickNanos);
+    }
+
+    /**
+     * 开始在后台线程上执行过期，到期的key直接从cache中删除
+     */
+    void start(Cache<K, ?> cache) {
+        this.cacheRef = new WeakReference<>(cache);
+        this.future = TICKER.scheduleWithFixedDelay(this::run, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 包装加载逻辑，加载或刷新成功后登记过期时间
+     */
+    <V> CacheLoader<K, V> wrap(CacheLoader<? super K, V> loader) {
+        return new WheelCacheLoader<>(loader, this);
+    }
+
+    /**
+     * 包装缓存，put时登记过期时间，invalidate时取消登记
+     */
+    <V> LoadingCache<K, V> wrap(LoadingCache<K, V> cache) {
+        return new WheelLoadingCache<>(cache, this);
+    }
+
+    /**
+     * 包装缓存，put时登记过期时间，invalidate时取消登记
+     */
+    <V> Cache<K, V> wrap(Cache<K, V> cache) {
+        return new WheelCache<>(cache, this);
+    }
+
+    void written(K key) {
+        written(key, System.nanoTime());
+    }
+
+    void written(K key, long nowNanos) {
+        events.add(new Event<>(key, nowNanos + ttlNanos));
+    }
+
+    void invalidated(K key) {
+        events.add(new Event<>(key, CANCEL));
+    }
+
+    void invalidatedAll() {
+        events.add(new Event<>(null, CANCEL));
+    }
+
+    /**
+     * 处理积压的事件并推进到指定时间，返回到期的key
+     */
+    synchronized List<K> advance(long nowNanos) {
+        Event<K> event;
+        while (null != (event = events.poll())) {
+            apply(event);
+        }
+        final List<K> expired = new ArrayList<>();
+        final long nowTick = Math.floorDiv(nowNanos, tickNanos);
+        while (currentTick < nowTick) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                    cascade(wheels[level][(int) (currentTick >>> (BITS * level)) & MASK], expired);
+                }
+            }
+            expire(wheels[0][(int) currentTick & MASK], expired);
+        }
+        return expired;
+    }
+
+    /**
+     * 时间轮中登记的key数
+     */
+    synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * 后台过期失败的次数
+     */
+    long failureCount() {
+        return failureCount.sum();
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private void run() {
+        final Cache<K, ?> cache = cacheRef.get();
+        if (null == cache) {
+            future.cancel(false);
+            return;
+        }
+        try {
+            final List<K> expired = advance(System.nanoTime());
+            for (int from = 0; from < expired.size(); from += MAX_BATCH_SIZE) {
+                cache.invalidateAll(expired.subList(from, Math.min(expired.size(), from + MAX_BATCH_SIZE)));
+            }
+        } catch (RuntimeException e) {
+            // 过期失败时不中断调度，下个tick继续
+            failureCount.increment();
+        }
+    }
+
+    private void apply(Event<K> event) {
+        if (null == event.key) {
+            nodes.clear();
+            for (Node<K>[] wheel : wheels) {
+                for (Node<K> sentinel : wheel) {
+                    sentinel.prev = sentinel;
+                    sentinel.next = sentinel;
+                }
+            }
+            return;
+        }
+        Node<K> node = nodes.get(event.key);
+        if (event.deadline == CANCEL) {
+            if (null != node) {
+                nodes.remove(event.key);
+                node.unlink();
+            }
+            return;
+        }
+        if (null == node) {
+            node = new Node<>(event.key);
+            nodes.put(event.key, node);
+        } else {
+            node.unlink();
+        }
+        // 已经到期的放到下一个tick
+        node.deadlineTick = Math.max(currentTick + 1, Math.floorDiv(event.deadline, tickNanos));
+        schedule(node);
+    }
+
+    private void schedule(Node<K> node) {
+        final long delta = node.deadlineTick - currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) {
+            level++;
+        }
+        wheels[level][(int) (node.deadlineTick >>> (BITS * level)) & MASK].link(node);
+    }
+
+    private void cascade(Node<K> sentinel, List<K> expired) {
+        Node<K> node = sentinel.next;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        while (node != sentinel) {
+            final Node<K> next = node.next;
+            if (node.deadlineTick <= currentTick) {
+                nodes.remove(node.key);
+                expired.add(node.key);
+            } else {
+                schedule(node);
+            }
+            node = next;
+        }
+    }
+
+    private void expire(Node<K> sentinel, List<K> expired) {
+        Node<K> node = sentinel.next;
+        sentinel.prev = sentinel;
+        sentinel.next = sentinel;
+        while (node != sentinel) {
+            nodes.remove(node.key);
+            expired.add(node.key);
+            node = node.next;
+        }
+    }
+
+    private static final class Event<K> {
+
+        private final K key;
+        private final long deadline;
+
+        Event(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+
+    /**
+     * 桶内的双向循环链表节点，每个桶有一个不存放key的哨兵
+     */
+    private static final class Node<K> {
+
+        private final K key;
+        private long deadlineTick;
+        private Node<K> prev;
+        private Node<K> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+
+        static <K> Node<K> sentinel() {
+            final Node<K> sentinel = new Node<>(null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+
+        void link(Node<K> node) {
+            node.prev = prev;
+            node.next = this;
+            prev.next = node;
+            prev = node;
+        }
+
+        void unlink() {
+            if (null != prev) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+
+    private static final class WheelCacheLoader<K, V> extends CacheLoader<K, V> {
+
+        private final CacheLoader<? super K, V> delegate;
+        private final ExpiryWheel<K> wheel;
+
+        WheelCacheLoader(CacheLoader<? super K, V> delegate, ExpiryWheel<K> wheel) {
+            this.delegate = delegate;
+            this.wheel = wheel;
+        }
+
+        @Override
+        public V load(K key) throws Exception {
+            final V value = delegate.load(key);
+            wheel.written(key);
+            return value;
+        }
+
+        @Override
+        public ListenableFuture<V> reload(K key, V oldValue) throws Exception {
+            final ListenableFuture<V> future = delegate.reload(key, oldValue);
+            // 只有刷新成功才重新计时，刷新失败时旧值仍按原来的写入时间过期
+            Futures.addCallback(future, new FutureCallback<V>() {
+                @Override
+                public void onSuccess(V result) {
+                    if (null != result) {
+                        wheel.written(key);
+                    }
+                }
+
+                @Override
+                public void onFailure(Throwable t) {
+                    // 失败由cache处理
+                }
+            }, MoreExecutors.directExecutor());
+            return future;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+            final Map<K, V> result = (Map<K, V>) delegate.loadAll(keys);
+            result.keySet().forEach(wheel::written);
+            return result;
+        }
+    }
+
+    private static final class WheelLoadingCache<K, V> extends SimpleForwardingLoadingCache<K, V> {
+
+        private final ExpiryWheel<K> wheel;
+
+        WheelLoadingCache(LoadingCache<K, V> delegate, ExpiryWheel<K> wheel) {
+            super(delegate);
+            this.wheel = wheel;
+        }
+
+        @Override
+        public V get(K key, Callable<? extends V> valueLoader) throws ExecutionException {
+            return super.get(key, () -> {
+                final V value = valueLoader.call();
+                wheel.written(key);
+                return value;
+            });
+        }
+
+        @Override
+        public void put(K key, V value) {
+            super.put(key, value);
+            wheel.written(key);
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> m) {
+            super.putAll(m);
+            m.keySet().forEach(wheel::written);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void invalidate(Object key) {
+            super.invalidate(key);
+            wheel.invalidated((K) key);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void invalidateAll(Iterable<?> keys) {
+            super.invalidateAll(keys);
+            keys.forEach(key -> wheel.invalidated((K) key));
+        }
+
+        @Override
+        public void invalidateAll() {
+            super.invalidateAll();
+            wheel.invalidatedAll();
+        }
+    }
+
+    private static final class WheelCache<K, V> extends SimpleForwardingCache<K, V> {
+
+        private final ExpiryWheel<K> wheel;
+
+        WheelCache(Cache<K, V> delegate, ExpiryWheel<K> wheel) {
+            super(delegate);
+            this.wheel = wheel;
+        }
+
+        @Override
+        public V get(K key, Callable<? extends V> valueLoader) throws ExecutionException {
+            return super.get(key, () -> {
+                final V value = valueLoader.call();
+                wheel.written(key);
+                return value;
+            });
+        }
+
+        @Override
+        public void put(K key, V value) {
+            super.put(key, value);
+            wheel.written(key);
+        }
+
+        @Override
+        public void putAll(Map<? extends K, ? extends V> m) {
+            super.putAll(m);
+            m.keySet().forEach(wheel::written);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void invalidate(Object key) {
+            super.invalidate(key);
+            wheel.invalidated((K) key);
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public void invalidateAll(Iterable<?> keys) {
+            super.invalidateAll(keys);
+            keys.forEach(key -> wheel.invalidated((K) key));
+        }
+
+        @Override
+        public void invalidateAll() {
+            super.invalidateAll();
+            wheel.invalidatedAll();
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.string.StringUtils;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于共享内存映射文件的传输，同一主机上打开同一个文件的JVM之间互相送达失效消息
+ * <p>
+ * 文件是一个环形缓冲区，写入位置单调递增、按容量取模，写入在文件锁内追加；每个实例在后台线程上定期轮询写入位置，
+ * 读取自己上次读到的位置之后的消息。实例只接收打开之后发布的消息。读取落后超过一圈时消息被覆盖，
+ * 通过{@link Listener#onLost()}通知订阅者清空缓存：
+ *
+ * <pre>
+ * | magic(4) | version(4) | capacity(4) | 保留(4) | 写入位置(8) | 保留(8) | 环形缓冲区(capacity) |
+ * 消息：| 长度(4) | 发送者(8) | 条数(4) | 缓存名长度(4) | 缓存名 | key长度(4，清空整个缓存时为-1) | key | ... |
+ * </pre>
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class FileInvalidationTransport implements InvalidationTransport {
+
+    /**
+     * 默认的环形缓冲区大小，1MB
+     */
+    public static final int DEFAULT_CAPACITY = 1024 * 1024;
+
+    private static final int MAGIC = 0x50494E56;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int WRITE_POSITION_OFFSET = 16;
+    /**
+     * 文件锁由JVM持有，同一JVM内打开同一文件的多个实例重叠加锁会抛出OverlappingFileLockException，先在JVM内互斥
+     */
+    private static final ConcurrentMap<Path, Object> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final Object localLock;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService poller;
+    private final LongAdder pollFailureCount = new LongAdder();
+    private volatile boolean closed;
+    /**
+     * 下一条待读取消息的位置，只在轮询线程上访问
+     */
+    private long readPosition;
+
+    /**
+     * 打开或创建，默认大小，每10毫秒轮询一次
+     *
+     * @param file 文件，不存在时创建
+     */
+    public FileInvalidationTransport(Path file) {
+        this(file, DEFAULT_CAPACITY, 10, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 打开或创建
+     *
+     * @param file         文件，不存在时创建
+     * @param capacity     环形缓冲区大小，文件已存在时以文件中的为准
+     * @param pollInterval 轮询间隔
+     * @param unit         时间单位
+     */
+    public FileInvalidationTransport(Path file, int capacity, long pollInterval, TimeUnit unit) {
+        if (capacity < 1024) {
+            throw new IllegalArgumentException(StringUtils.format("capacity can't be less than 1024, but was %s",
+                capacity));
+        }
+        this.localLock = LOCAL_LOCKS.computeIfAbsent(file.toAbsolutePath().normalize(), path -> new Object());
+        try {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        try {
+            synchronized (localLock) {
+                final FileLock lock = channel.lock();
+                try {
+                    if (channel.size() >= HEADER_SIZE) {
+                        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                        channel.read(header, 0);
+                        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                            throw new IllegalArgumentException(
+                                StringUtils.format("%s is not an invalidation file", file));
+                        }
+                        this.capacity = header.getInt(8);
+                        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + this.capacity);
+                    } else {
+                        this.capacity = capacity;
+                        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + capacity);
+                        buffer.putInt(0, MAGIC);
+                        buffer.putInt(4, VERSION);
+                        buffer.putInt(8, capacity);
+                        buffer.putLong(WRITE_POSITION_OFFSET, 0L);
+                    }
+                    this.readPosition = buffer.getLong(WRITE_POSITION_OFFSET);
+                } finally {
+                    lock.release();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            closeQuietly();
+            throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+        }
+        this.poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "protools-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::poll, pollInterval, pollInterval, unit);
+    }
+
+    @Override
+    public void publish(long origin, List<Invalidation> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        final byte[] message = encode(origin, batch);
+        // 单条消息不超过缓冲区的一半，保证轮询及时的读者不会因为一条大消息而丢失消息
+        if (4 + message.length > capacity / 2) {
+            if (batch.size() == 1) {
+                throw new IllegalArgumentException(StringUtils.format(
+                    "invalidation of %s is too large: %s bytes", batch.get(0).getCacheName(), message.length));
+            }
+            publish(origin, batch.subList(0, batch.size() / 2));
+            publish(origin, batch.subList(batch.size() / 2, batch.size()));
+            return;
+        }
+        synchronized (localLock) {
+            try {
+                final FileLock lock = channel.lock(0, HEADER_SIZE, false);
+                try {
+                    final long writePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+                    write(writePosition, ByteBuffer.allocate(4).putInt(0, message.length).array());
+                    write(writePosition + 4, message);
+                    buffer.putLong(WRITE_POSITION_OFFSET, writePosition + 4 + message.length);
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 轮询失败的次数，轮询失败时不中断调度，下次继续尝试
+     *
+     * @return 次数
+     */
+    public long pollFailureCount() {
+        return pollFailureCount.sum();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        poller.shutdownNow();
+        listeners.clear();
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private void poll() {
+        try {
+            // 不加锁先看一眼写入位置，没有新消息时不必加文件锁
+            if (buffer.getLong(WRITE_POSITION_OFFSET) == readPosition) {
+                return;
+            }
+            final List<byte[]> messages = new ArrayList<>();
+            boolean lost = false;
+            synchronized (localLock) {
+                final FileLock lock = channel.lock(0, HEADER_SIZE, false);
+                try {
+                    final long writePosition = buffer.getLong(WRITE_POSITION_OFFSET);
+                    if (writePosition - readPosition > capacity || writePosition < readPosition) {
+                        lost = true;
+                    } else {
+                        while (readPosition < writePosition) {
+                            final byte[] length = read(readPosition, 4);
+                            final byte[] message = read(readPosition + 4, ByteBuffer.wrap(length).getInt());
+                            messages.add(message);
+                            readPosition += 4 + message.length;
+                        }
+                    }
+                    readPosition = writePosition;
+                } finally {
+                    lock.release();
+                }
+            }
+            for (Listener listener : listeners) {
+                if (lost) {
+                    listener.onLost();
+                }
+                for (byte[] message : messages) {
+                    final ByteBuffer reader = ByteBuffer.wrap(message);
+                    listener.onInvalidations(reader.getLong(), decode(reader));
+                }
+            }
+        } catch (ClosedChannelException e) {
+            // close()不等待进行中的轮询，通道关闭后停止轮询
+            poller.shutdown();
+        } catch (Exception e) {
+            // 轮询失败时不中断调度，下次继续尝试
+            if (!closed) {
+                pollFailureCount.increment();
+            }
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // 已在处理打开失败
+        }
+    }
+
+    private void write(long position, byte[] bytes) {
+        final int offset = (int) (position % capacity);
+        final int first = Math.min(bytes.length, capacity - offset);
+        final ByteBuffer writer = buffer.duplicate();
+        writer.position(HEADER_SIZE + offset);
+        writer.put(bytes, 0, first);
+        if (first < bytes.length) {
+            writer.position(HEADER_SIZE);
+            writer.put(bytes, first, bytes.length - first);
+        }
+    }
+
+    private byte[] read(long position, int length) {
+        final byte[] bytes = new byte[length];
+        final int offset = (int) (position % capacity);
+        final int first = Math.min(length, capacity - offset);
+        final ByteBuffer reader = buffer.duplicate();
+        reader.position(HEADER_SIZE + offset);
+        reader.get(bytes, 0, first);
+        if (first < length) {
+            reader.position(HEADER_SIZE);
+            reader.get(bytes, first, length - first);
+        }
+        return bytes;
+    }
+
+    private static byte[] encode(long origin, List<Invalidation> batch) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(origin);
+            out.writeInt(batch.size());
+            for (Invalidation invalidation : batch) {
+                final byte[] name = invalidation.getCacheName().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(name.length);
+                out.write(name);
+                if (invalidation.isAll()) {
+                    out.writeInt(-1);
+                } else {
+                    out.writeInt(invalidation.getKey().length);
+                    out.write(invalidation.getKey());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<Invalidation> decode(ByteBuffer reader) {
+        final int count = reader.getInt();
+        final List<Invalidation> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final byte[] name = new byte[reader.getInt()];
+            reader.get(name);
+            final int keyLength = reader.getInt();
+            byte[] key = null;
+            if (keyLength >= 0) {
+                key = new byte[keyLength];
+                reader.get(key);
+            }
+            batch.add(new Invalidation(new String(name, StandardCharsets.UTF_8), key));
+        }
+        return batch;
+    }
+}
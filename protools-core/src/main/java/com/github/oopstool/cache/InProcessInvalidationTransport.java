@@ -0,0 +1,32 @@
+package com.github.oopstool.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 同一JVM内的传输，在发布线程上同步通知所有订阅者，用于同一进程内多份缓存副本之间的失效以及测试
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class InProcessInvalidationTransport implements InvalidationTransport {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(long origin, List<Invalidation> batch) {
+        for (Listener listener : listeners) {
+            listener.onInvalidations(origin, batch);
+        }
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        listeners.clear();
+    }
+}
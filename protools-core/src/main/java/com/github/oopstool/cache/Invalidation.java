@@ -0,0 +1,64 @@
+package com.github.oopstool.cache;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 一条缓存失效消息，key为{@link CacheCodec}编码后的字节，为null时表示清空整个缓存
+ *
+ * @author HouGY
+ * @see InvalidationBus
+ * @since 1.0.4
+ */
+public final class Invalidation {
+
+    private final String cacheName;
+    private final byte[] key;
+
+    /**
+     * @param cacheName 缓存名
+     * @param key       编码后的key，为null时表示清空整个缓存
+     */
+    public Invalidation(String cacheName, byte[] key) {
+        this.cacheName = Objects.requireNonNull(cacheName, "cacheName");
+        this.key = key;
+    }
+
+    /**
+     * @return 缓存名
+     */
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    /**
+     * @return 编码后的key，为null时表示清空整个缓存
+     */
+    public byte[] getKey() {
+        return key;
+    }
+
+    /**
+     * @return 是否清空整个缓存
+     */
+    public boolean isAll() {
+        return null == key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Invalidation)) {
+            return false;
+        }
+        final Invalidation that = (Invalidation) o;
+        return cacheName.equals(that.cacheName) && Arrays.equals(key, that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * cacheName.hashCode() + Arrays.hashCode(key);
+    }
+}
@@ -0,0 +1,268 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.string.StringUtils;
+import com.google.common.cache.Cache;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存失效总线，让多个实例中同名的本地缓存（例如{@link CacheUtils}构建的缓存）互相失效，从而可以放心地使用更长的过期时间
+ * <p>
+ * 每个实例创建一个总线并绑定本地缓存，数据变更后调用{@link #invalidate(String, Object)}：本地缓存立即失效，
+ * 失效消息在后台线程上按时间窗口合并去重后批量发布，其它实例收到后失效各自绑定的同名缓存：
+ *
+ * <pre>
+ * InvalidationBus bus = new InvalidationBus(new FileInvalidationTransport(Paths.get("/dev/shm/student.inv")));
+ * bus.bind("student", studentCache, CacheCodec.gson(Long.class));
+ * dao.update(student);
+ * bus.invalidate("student", student.getId());
+ * </pre>
+ * <p>
+ * 失效是异步的，其它实例在一个时间窗口加传输延迟内仍可能读到旧值；消息丢失时清空全部绑定的缓存。
+ * 发布失败的一批消息保留到下次发布时重试，失败次数见{@link #publishFailureCount()}。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class InvalidationBus implements Closeable {
+
+    private final long origin = ThreadLocalRandom.current().nextLong();
+    private final InvalidationTransport transport;
+    private final int maxBatchSize;
+    private final Map<String, Binding<?>> bindings = new ConcurrentHashMap<>();
+    private final Queue<Invalidation> pending = new ConcurrentLinkedQueue<>();
+    /**
+     * 发布失败、等待重试的一批消息，只在持有this锁时访问
+     */
+    private final Set<Invalidation> unpublished = new LinkedHashSet<>();
+    private final ScheduledExecutorService flusher;
+    private final LongAdder publishedCount = new LongAdder();
+    private final LongAdder receivedCount = new LongAdder();
+    private final LongAdder publishFailureCount = new LongAdder();
+
+    /**
+     * 每10毫秒批量发布一次，每批最多1000条
+     *
+     * @param transport 传输，关闭总线时一起关闭
+     */
+    public InvalidationBus(InvalidationTransport transport) {
+        this(transport, 10, TimeUnit.MILLISECONDS, 1000);
+    }
+
+    /**
+     * @param transport    传输，关闭总线时一起关闭
+     * @param window       合并的时间窗口
+     * @param unit         时间单位
+     * @param maxBatchSize 每批最多的条数
+     */
+    public InvalidationBus(InvalidationTransport transport, long window, TimeUnit unit, int maxBatchSize) {
+        if (window <= 0) {
+            throw new IllegalArgumentException(StringUtils.format("window must be greater than 0, but was %s", window));
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException(
+                StringUtils.format("max batch size must be greater than 0, but was %s", maxBatchSize));
+        }
+        this.transport = transport;
+        this.maxBatchSize = maxBatchSize;
+        transport.subscribe(new InvalidationTransport.Listener() {
+            @Override
+            public void onInvalidations(long from, List<Invalidation> batch) {
+                if (from != origin) {
+                    receive(batch);
+                }
+            }
+
+            @Override
+            public void onLost() {
+                bindings.values().forEach(binding -> binding.cache.invalidateAll());
+            }
+        });
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "protools-invalidation-bus");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, window, window, unit);
+    }
+
+    /**
+     * 绑定本地缓存，收到同名缓存的失效消息时失效其中的key
+     *
+     * @param cacheName 缓存名，各实例中相同
+     * @param cache     本地缓存
+     * @param keyCodec  key的序列化方式，各实例中相同
+     * @param <K>       key
+     */
+    public <K> void bind(String cacheName, Cache<K, ?> cache, CacheCodec<K> keyCodec) {
+        if (null != bindings.putIfAbsent(cacheName, new Binding<>(cache, keyCodec))) {
+            throw new IllegalArgumentException(StringUtils.format("cache %s already bound", cacheName));
+        }
+    }
+
+    /**
+     * 解除绑定，不再接收该缓存的失效消息
+     *
+     * @param cacheName 缓存名
+     */
+    public void unbind(String cacheName) {
+        bindings.remove(cacheName);
+    }
+
+    /**
+     * 立即失效本地缓存中的key，并通知其它实例
+     *
+     * @param cacheName 缓存名，需要已绑定
+     * @param key       key
+     * @param <K>       key
+     */
+    public <K> void invalidate(String cacheName, K key) {
+        final Binding<K> binding = binding(cacheName);
+        binding.cache.invalidate(key);
+        pending.add(new Invalidation(cacheName, binding.keyCodec.encode(key)));
+    }
+
+    /**
+     * 立即清空本地缓存，并通知其它实例
+     *
+     * @param cacheName 缓存名，需要已绑定
+     */
+    public void invalidateAll(String cacheName) {
+        binding(cacheName).cache.invalidateAll();
+        pending.add(new Invalidation(cacheName, null));
+    }
+
+    /**
+     * 立即发布所有待发布的失效消息，不等待时间窗口结束
+     *
+     * @throws RuntimeException 传输发布失败，未发布的消息保留到下次发布
+     */
+    public synchronized void flush() {
+        while (!unpublished.isEmpty() || !pending.isEmpty()) {
+            // 同一批内重复的失效只发布一次，上次发布失败的消息排在最前
+            final Set<Invalidation> batch = new LinkedHashSet<>(unpublished);
+            unpublished.clear();
+            Invalidation invalidation;
+            while (batch.size() < maxBatchSize && null != (invalidation = pending.poll())) {
+                batch.add(invalidation);
+            }
+            try {
+                transport.publish(origin, new ArrayList<>(batch));
+            } catch (RuntimeException e) {
+                publishFailureCount.increment();
+                unpublished.addAll(batch);
+                throw e;
+            }
+            publishedCount.add(batch.size());
+        }
+    }
+
+    /**
+     * 已发布的失效条数（去重后）
+     *
+     * @return 条数
+     */
+    public long publishedCount() {
+        return publishedCount.sum();
+    }
+
+    /**
+     * 发布失败的次数
+     *
+     * @return 次数
+     */
+    public long publishFailureCount() {
+        return publishFailureCount.sum();
+    }
+
+    /**
+     * 收到的来自其它实例的失效条数
+     *
+     * @return 条数
+     */
+    public long receivedCount() {
+        return receivedCount.sum();
+    }
+
+    /**
+     * 发布剩余的失效消息后关闭，同时关闭传输
+     */
+    @Override
+    public void close() {
+        flusher.shutdownNow();
+        try {
+            flush();
+        } finally {
+            transport.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    @SuppressWarnings("unchecked")
+    private <K> Binding<K> binding(String cacheName) {
+        final Binding<K> binding = (Binding<K>) bindings.get(cacheName);
+        if (null == binding) {
+            throw new IllegalArgumentException(StringUtils.format("cache %s not bound", cacheName));
+        }
+        return binding;
+    }
+
+    private void receive(List<Invalidation> batch) {
+        receivedCount.add(batch.size());
+        for (Invalidation invalidation : batch) {
+            final Binding<?> binding = bindings.get(invalidation.getCacheName());
+            if (null != binding) {
+                binding.invalidate(invalidation);
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            // 发布失败时不中断调度，失败的消息已保留，下次继续尝试
+        }
+    }
+
+    private static final class Binding<K> {
+
+        private final Cache<K, ?> cache;
+        private final CacheCodec<K> keyCodec;
+
+        Binding(Cache<K, ?> cache, CacheCodec<K> keyCodec) {
+            this.cache = cache;
+            this.keyCodec = keyCodec;
+        }
+
+        void invalidate(Invalidation invalidation) {
+            if (invalidation.isAll()) {
+                cache.invalidateAll();
+                return;
+            }
+            final K key;
+            try {
+                key = keyCodec.decode(ByteBuffer.wrap(invalidation.getKey()));
+            } catch (RuntimeException e) {
+                // 无法解码时不知道哪个key失效，只能清空
+                cache.invalidateAll();
+                return;
+            }
+            cache.invalidate(key);
+        }
+    }
+}
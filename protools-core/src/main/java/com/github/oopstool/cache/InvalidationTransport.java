@@ -0,0 +1,56 @@
+package com.github.oopstool.cache;
+
+import java.io.Closeable;
+import java.util.List;
+
+/**
+ * 缓存失效消息的传输，负责把一批失效消息送达所有订阅者（包括发送者自己，由{@link InvalidationBus}按来源过滤）
+ * <p>
+ * 内置{@link InProcessInvalidationTransport}（同一JVM内）与{@link FileInvalidationTransport}（同一主机的多个JVM），
+ * 跨主机时可基于消息队列等自行实现
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public interface InvalidationTransport extends Closeable {
+
+    /**
+     * 发布一批失效消息
+     *
+     * @param origin 发送者标识
+     * @param batch  失效消息
+     */
+    void publish(long origin, List<Invalidation> batch);
+
+    /**
+     * 订阅失效消息
+     *
+     * @param listener 订阅者
+     */
+    void subscribe(Listener listener);
+
+    /**
+     * 关闭，不抛出受检异常
+     */
+    @Override
+    void close();
+
+    /**
+     * 失效消息的订阅者
+     */
+    interface Listener {
+
+        /**
+         * 收到一批失效消息
+         *
+         * @param origin 发送者标识
+         * @param batch  失效消息
+         */
+        void onInvalidations(long origin, List<Invalidation> batch);
+
+        /**
+         * 有消息丢失（例如读取落后于环形缓冲区），订阅者无法得知哪些key失效，应清空全部缓存
+         */
+        void onLost();
+    }
+}
@@ -0,0 +1,421 @@
+package com.github.oopstool.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.guava.CaffeinatedGuava;
+import com.github.oopstool.string.StringUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.cache.Weigher;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缓存构建器，通过{@link CacheUtils#newBuilder()}获取
+ * <p>
+ * 与{@link CacheUtils#buildCache}固定开启统计、固定并发度不同，这里只有显式设置的选项才会生效，
+ * 未设置的选项沿用底层实现的默认值，便于按缓存分别权衡内存与延迟：
+ *
+ * <pre>
+ * LoadingCache&lt;Long, Student&gt; cache = CacheUtils.&lt;Long, Student&gt;newBuilder()
+ *     .maximumWeight(64 * 1024 * 1024)
+ *     .weigher((id, student) -&gt; student.getName().length() + 64)
+ *     .expireAfterAccess(10, TimeUnit.MINUTES)
+ *     .softValues()
+ *     .removalListener(notification -&gt; log(notification.getKey(), notification.getCause()))
+ *     .name("student")
+ *     .build(CacheUtils.from(dao::findById));
+ * </pre>
+ * <p>
+ * 底层实现默认为guava，可通过{@link #engine(CacheEngine)}切换为caffeine，两者构建出的都是guava的缓存接口。
+ * 构建器本身不是线程安全的，但可以反复调用build创建多个配置相同的缓存。
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class LoadingCacheBuilder<K, V> {
+
+    private static final int UNSET = -1;
+
+    private CacheEngine engine = CacheEngine.GUAVA;
+    private int initialCapacity = UNSET;
+    private int concurrencyLevel = UNSET;
+    private long maximumSize = UNSET;
+    private long maximumWeight = UNSET;
+    private Weigher<? super K, ? super V> weigher;
+    private long expireAfterWriteNanos = UNSET;
+    private long expireAfterAccessNanos = UNSET;
+    private long refreshAfterWriteNanos = UNSET;
+    private long expiryWheelTickNanos = UNSET;
+    private boolean weakValues;
+    private boolean softValues;
+    private RemovalListener<? super K, ? super V> removalListener;
+    private boolean recordStats;
+    private CacheTier<K, V> secondLevel;
+    private String name;
+
+    LoadingCacheBuilder() {
+    }
+
+    /**
+     * 底层实现，默认{@link CacheEngine#GUAVA}
+     *
+     * @param engine 底层实现
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> engine(CacheEngine engine) {
+        this.engine = engine;
+        return this;
+    }
+
+    /**
+     * 初始容量，预估足够大的容量可以避免数据增长时的扩容
+     *
+     * @param initialCapacity 初始容量
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> initialCapacity(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+        return this;
+    }
+
+    /**
+     * 允许同时并发更新的线程数，决定分段的个数，详见{@link CacheUtils#buildCache}，对{@link CacheEngine#CAFFEINE}不生效
+     *
+     * @param concurrencyLevel 并发度
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> concurrencyLevel(int concurrencyLevel) {
+        this.concurrencyLevel = concurrencyLevel;
+        return this;
+    }
+
+    /**
+     * 按条目数淘汰，不能与{@link #maximumWeight(long)}同时使用
+     *
+     * @param maximumSize 最大条目数
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> maximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+        return this;
+    }
+
+    /**
+     * 按权重淘汰，需要同时设置{@link #weigher(Weigher)}，不能与{@link #maximumSize(long)}同时使用
+     *
+     * @param maximumWeight 所有条目的权重之和的上限
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> maximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        return this;
+    }
+
+    /**
+     * 条目的权重，例如估算的字节数，在写入时计算一次
+     *
+     * @param weigher 权重计算
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> weigher(Weigher<? super K, ? super V> weigher) {
+        this.weigher = weigher;
+        return this;
+    }
+
+    /**
+     * 写入（创建或覆盖）后经过指定时间过期，过期后下次访问同步加载
+     *
+     * @param duration 时长
+     * @param unit     单位
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+        this.expireAfterWriteNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * 读写后经过指定时间没有再被访问则过期
+     *
+     * @param duration 时长
+     * @param unit     单位
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+        this.expireAfterAccessNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * 写入后经过指定时间，下次访问时触发刷新，新值返回前始终返回旧值
+     *
+     * @param duration 时长
+     * @param unit     单位
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> refreshAfterWrite(long duration, TimeUnit unit) {
+        this.refreshAfterWriteNanos = unit.toNanos(duration);
+        return this;
+    }
+
+    /**
+     * 由分层时间轮代替底层实现的过期队列执行{@link #expireAfterWrite}，适合条目多、过期时间短的会话类缓存
+     * <p>
+     * 写入只追加一个事件，过期在所有缓存共用的后台线程上按tick批量执行，读写路径上不再维护过期队列。代价是：
+     * 条目在过期后最多一个tick内仍可能被读到；到期删除的移除原因为EXPLICIT且不计入淘汰次数；
+     * 通过asMap()写入的条目不会过期。不能与{@link #expireAfterAccess}同时使用
+     *
+     * @param tick 时间轮的精度，不小于1毫秒
+     * @param unit 单位
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> expiryWheel(long tick, TimeUnit unit) {
+        if (unit.toNanos(tick) < TimeUnit.MILLISECONDS.toNanos(1)) {
+            throw new IllegalArgumentException(
+                StringUtils.format("tick can't be less than 1ms, but was %s %s", tick, unit));
+        }
+        this.expiryWheelTickNanos = unit.toNanos(tick);
+        return this;
+    }
+
+    /**
+     * value使用弱引用，没有其它强引用时可被GC回收，比较value时使用==
+     *
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> weakValues() {
+        this.weakValues = true;
+        this.softValues = false;
+        return this;
+    }
+
+    /**
+     * value使用软引用，内存不足时由GC按全局LRU回收，比较value时使用==
+     *
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> softValues() {
+        this.softValues = true;
+        this.weakValues = false;
+        return this;
+    }
+
+    /**
+     * 条目被移除（淘汰、过期、覆盖、手动删除、被GC回收）时的回调，应尽量轻量。
+     * guava在执行维护的线程上同步调用，caffeine在ForkJoinPool.commonPool()上异步调用
+     *
+     * @param removalListener 回调
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> removalListener(RemovalListener<? super K, ? super V> removalListener) {
+        this.removalListener = removalListener;
+        return this;
+    }
+
+    /**
+     * 记录命中率、加载耗时等统计，通过{@link Cache#stats()}获取，默认不记录
+     *
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> recordStats() {
+        this.recordStats = true;
+        return this;
+    }
+
+    /**
+     * 二级缓存，例如{@link OffHeapCache}。本构建器的容量、过期等设置只作用于堆内的一级缓存，
+     * 但二级缓存中写入后超过{@link #expireAfterWrite}的条目不会再被取回，见{@link CacheTier#getIfPresent(Object, long)}
+     * <p>
+     * 一级缓存未命中时先查询二级缓存，仍未命中再调用CacheLoader，加载与刷新的结果同时写入二级缓存；
+     * put与invalidate同时作用于两级缓存。只对{@link #build(CacheLoader)}生效。
+     *
+     * @param secondLevel 二级缓存
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> secondLevel(CacheTier<K, V> secondLevel) {
+        this.secondLevel = secondLevel;
+        return this;
+    }
+
+    /**
+     * 缓存名，设置后隐含{@link #recordStats()}，构建时注册到{@link CacheRegistry}并记录加载耗时的分布，
+     * 因此同一个名字只能build一次
+     *
+     * @param name 缓存名
+     * @return this
+     */
+    public LoadingCacheBuilder<K, V> name(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /**
+     * 构建自动加载的缓存
+     *
+     * @param cacheLoader 缓存加载逻辑
+     * @return LoadingCache
+     */
+    public LoadingCache<K, V> build(CacheLoader<? super K, V> cacheLoader) {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final ExpiryWheel<K> wheel = newExpiryWheel();
+        CacheLoader<? super K, V> loader = cacheLoader;
+        if (null != secondLevel) {
+            loader = new TieredCacheLoader<>(secondLevel, loader,
+                expireAfterWriteNanos == UNSET ? Long.MAX_VALUE : expireAfterWriteNanos);
+        }
+        if (null != name) {
+            // 与CacheStats的加载耗时口径一致，包含查询二级缓存的时间
+            loader = new TimedCacheLoader<>(loader, histogram);
+        }
+        if (null != wheel) {
+            loader = wheel.wrap(loader);
+        }
+        LoadingCache<K, V> firstLevel = buildFirstLevel(loader);
+        if (null != wheel) {
+            wheel.start(firstLevel);
+            firstLevel = wheel.wrap(firstLevel);
+        }
+        final LoadingCache<K, V> cache =
+            null == secondLevel ? firstLevel : new TieredLoadingCache<>(firstLevel, secondLevel);
+        if (null != name) {
+            CacheRegistry.register(name, cache, histogram);
+        }
+        return cache;
+    }
+
+    /**
+     * 构建需要手动放入的缓存，不能设置refreshAfterWrite与secondLevel
+     *
+     * @return Cache
+     */
+    public Cache<K, V> build() {
+        if (null != secondLevel) {
+            throw new IllegalStateException("second level requires a CacheLoader");
+        }
+        final ExpiryWheel<K> wheel = newExpiryWheel();
+        Cache<K, V> cache = engine == CacheEngine.CAFFEINE
+            ? CaffeinatedGuava.build(toCaffeine()) : toCacheBuilder().build();
+        if (null != wheel) {
+            wheel.start(cache);
+            cache = wheel.wrap(cache);
+        }
+        if (null != name) {
+            CacheRegistry.register(name, cache);
+        }
+        return cache;
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private ExpiryWheel<K> newExpiryWheel() {
+        if (expiryWheelTickNanos == UNSET) {
+            return null;
+        }
+        if (expireAfterWriteNanos == UNSET) {
+            throw new IllegalStateException("expiry wheel requires expireAfterWrite");
+        }
+        if (expireAfterAccessNanos != UNSET) {
+            throw new IllegalStateException("expiry wheel can't be used with expireAfterAccess");
+        }
+        return new ExpiryWheel<>(expireAfterWriteNanos, expiryWheelTickNanos);
+    }
+
+    private LoadingCache<K, V> buildFirstLevel(CacheLoader<? super K, V> cacheLoader) {
+        if (engine == CacheEngine.CAFFEINE) {
+            return CaffeinatedGuava.build(toCaffeine(), cacheLoader);
+        }
+        return toCacheBuilder().build(cacheLoader);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheBuilder<K, V> toCacheBuilder() {
+        // CacheBuilder的泛型在设置weigher/removalListener时才收窄，这里统一收窄后再设置
+        final CacheBuilder<K, V> builder = (CacheBuilder<K, V>) (CacheBuilder<?, ?>) CacheBuilder.newBuilder();
+        if (initialCapacity != UNSET) {
+            builder.initialCapacity(initialCapacity);
+        }
+        if (concurrencyLevel != UNSET) {
+            builder.concurrencyLevel(concurrencyLevel);
+        }
+        if (maximumSize != UNSET) {
+            builder.maximumSize(maximumSize);
+        }
+        if (maximumWeight != UNSET) {
+            builder.maximumWeight(maximumWeight);
+        }
+        if (null != weigher) {
+            builder.weigher(weigher);
+        }
+        if (expireAfterWriteNanos != UNSET && expiryWheelTickNanos == UNSET) {
+            builder.expireAfterWrite(expireAfterWriteNanos, TimeUnit.NANOSECONDS);
+        }
+        if (expireAfterAccessNanos != UNSET) {
+            builder.expireAfterAccess(expireAfterAccessNanos, TimeUnit.NANOSECONDS);
+        }
+        if (refreshAfterWriteNanos != UNSET) {
+            builder.refreshAfterWrite(refreshAfterWriteNanos, TimeUnit.NANOSECONDS);
+        }
+        if (weakValues) {
+            builder.weakValues();
+        }
+        if (softValues) {
+            builder.softValues();
+        }
+        if (null != removalListener) {
+            builder.removalListener(removalListener);
+        }
+        if (recordStats || null != name) {
+            builder.recordStats();
+        }
+        return builder;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Caffeine<K, V> toCaffeine() {
+        final Caffeine<K, V> caffeine = (Caffeine<K, V>) (Caffeine<?, ?>) Caffeine.newBuilder();
+        if (initialCapacity != UNSET) {
+            caffeine.initialCapacity(initialCapacity);
+        }
+        if (maximumSize != UNSET) {
+            caffeine.maximumSize(maximumSize);
+        }
+        if (maximumWeight != UNSET) {
+            caffeine.maximumWeight(maximumWeight);
+        }
+        if (null != weigher) {
+            final Weigher<? super K, ? super V> guavaWeigher = weigher;
+            caffeine.weigher((K key, V value) -> guavaWeigher.weigh(key, value));
+        }
+        if (expireAfterWriteNanos != UNSET && expiryWheelTickNanos == UNSET) {
+            caffeine.expireAfterWrite(expireAfterWriteNanos, TimeUnit.NANOSECONDS);
+        }
+        if (expireAfterAccessNanos != UNSET) {
+            caffeine.expireAfterAccess(expireAfterAccessNanos, TimeUnit.NANOSECONDS);
+        }
+        if (refreshAfterWriteNanos != UNSET) {
+            caffeine.refreshAfterWrite(refreshAfterWriteNanos, TimeUnit.NANOSECONDS);
+        }
+        if (weakValues) {
+            caffeine.weakValues();
+        }
+        if (softValues) {
+            caffeine.softValues();
+        }
+        if (null != removalListener) {
+            final RemovalListener<? super K, ? super V> guavaListener = removalListener;
+            // 两者的移除原因同名
+            caffeine.removalListener((K key, V value, com.github.benmanes.caffeine.cache.RemovalCause cause) ->
+                guavaListener.onRemoval(RemovalNotification.create(key, value, RemovalCause.valueOf(cause.name()))));
+        }
+        if (recordStats || null != name) {
+            caffeine.recordStats();
+        }
+        return caffeine;
+    }
+}
@@ -0,0 +1,283 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.string.StringUtils;
+import com.google.common.cache.CacheStats;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * 堆外缓存，value序列化后保存在直接内存（{@link ByteBuffer#allocateDirect(int)}）中，不占用老年代，也不增加GC的扫描量
+ * <p>
+ * 总容量被划分为若干个固定大小的slab，按日志结构顺序追加写入：
+ * 当前slab写满后切换到下一个slab，所有slab都用过后循环覆盖最早写入的slab，并淘汰其中的全部条目（FIFO）。
+ * 覆盖写入同一个key、invalidate留下的空洞也随slab的循环一并回收，因此不需要空闲链表与碎片整理。
+ * 堆上只保留key到位置的索引。slab在首次使用时才分配。
+ * <p>
+ * 读取时先将字节复制到堆上再反序列化，读与追加写之间无锁，只有在slab被循环覆盖时读取才会重试。
+ * 每个条目记录写入时间，作为二级缓存时按一级缓存的expireAfterWrite判断是否过期，见{@link #getIfPresent(Object, long)}。
+ * 通常作为堆内缓存的二级缓存使用，见{@link LoadingCacheBuilder#secondLevel(CacheTier)}：
+ *
+ * <pre>
+ * OffHeapCache&lt;Long, Student&gt; l2 = new OffHeapCache&lt;&gt;(512L * 1024 * 1024, CacheCodec.gson(Student.class));
+ * LoadingCache&lt;Long, Student&gt; cache = CacheUtils.&lt;Long, Student&gt;newBuilder()
+ *     .maximumSize(10_000)
+ *     .secondLevel(l2)
+ *     .build(CacheUtils.from(dao::findById));
+ * </pre>
+ * <p>
+ * 注意：直接内存在JDK 8下只能等待GC回收ByteBuffer对象后释放，不再使用的实例应调用{@link #invalidateAll()}并释放引用。
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class OffHeapCache<K, V> implements CacheTier<K, V> {
+
+    /**
+     * 默认每个slab的大小，16MB
+     */
+    public static final int DEFAULT_SLAB_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * 每个条目的头部：value的字节数(4) | 写入时间(8，{@link System#nanoTime()})
+     */
+    private static final int HEADER_SIZE = 12;
+
+    private final CacheCodec<V> codec;
+    private final int slabSize;
+    /**
+     * slab，只用于读取，从不修改其position
+     */
+    private final ByteBuffer[] slabs;
+    /**
+     * slab的写入视图，只在持有写锁时使用
+     */
+    private final ByteBuffer[] writers;
+    /**
+     * 写入到各个slab的key，slab被覆盖时据此淘汰
+     */
+    private final List<List<K>> slabKeys;
+    /**
+     * key到位置的索引，位置的高32位为slab序号，低32位为slab内的偏移
+     */
+    private final ConcurrentHashMap<K, Long> index = new ConcurrentHashMap<>();
+    /**
+     * slab被覆盖时持有写锁，读取时乐观读
+     */
+    private final StampedLock recycleLock = new StampedLock();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private int currentSlab;
+    private int writeOffset;
+
+    /**
+     * 构造，slab大小为{@link #DEFAULT_SLAB_SIZE}与maximumBytes的较小者
+     *
+     * @param maximumBytes 占用直接内存的上限，字节
+     * @param codec        value的序列化方式
+     */
+    public OffHeapCache(long maximumBytes, CacheCodec<V> codec) {
+        this(maximumBytes, (int) Math.min(DEFAULT_SLAB_SIZE, maximumBytes), codec);
+    }
+
+    /**
+     * 构造
+     *
+     * @param maximumBytes 占用直接内存的上限，字节，向下取整为slabSize的整数倍
+     * @param slabSize     每个slab的大小，字节，同时也是单个条目序列化后的大小上限；
+     *                     越小淘汰粒度越细，越大单次淘汰的条目越多
+     * @param codec        value的序列化方式
+     */
+    public OffHeapCache(long maximumBytes, int slabSize, CacheCodec<V> codec) {
+        if (slabSize <= HEADER_SIZE) {
+            throw new IllegalArgumentException(
+                StringUtils.format("slab size must be greater than %s, but was %s", HEADER_SIZE, slabSize));
+        }
+        final long slabCount = maximumBytes / slabSize;
+        if (slabCount < 1 || slabCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(StringUtils
+                .format("maximum bytes must be between %s and %s, but was %s", slabSize,
+                    (long) Integer.MAX_VALUE * slabSize, maximumBytes));
+        }
+        this.codec = codec;
+        this.slabSize = slabSize;
+        this.slabs = new ByteBuffer[(int) slabCount];
+        this.writers = new ByteBuffer[slabs.length];
+        this.slabKeys = new ArrayList<>(slabs.length);
+        for (int i = 0; i < slabs.length; i++) {
+            slabKeys.add(new ArrayList<>());
+        }
+    }
+
+    @Override
+    public V getIfPresent(K key) {
+        return getIfPresent(key, Long.MAX_VALUE);
+    }
+
+    /**
+     * 获取，写入后超过maxAgeNanos的条目视为未命中
+     *
+     * @param key         key
+     * @param maxAgeNanos 写入后的最大时长，纳秒
+     * @return value，不存在或已过期时为null
+     */
+    @Override
+    public V getIfPresent(K key, long maxAgeNanos) {
+        final long now = System.nanoTime();
+        long stamp = recycleLock.tryOptimisticRead();
+        Long location = index.get(key);
+        byte[] bytes = null == location ? null : read(location, now, maxAgeNanos);
+        if (!recycleLock.validate(stamp)) {
+            // 读取期间有slab被覆盖，加读锁重新读取
+            stamp = recycleLock.readLock();
+            try {
+                location = index.get(key);
+                bytes = null == location ? null : read(location, now, maxAgeNanos);
+            } finally {
+                recycleLock.unlockRead(stamp);
+            }
+        }
+        if (null == bytes) {
+            missCount.increment();
+            return null;
+        }
+        hitCount.increment();
+        return codec.decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 放入，序列化后超过slab大小的value不会被缓存
+     *
+     * @param key   key
+     * @param value value
+     */
+    @Override
+    public void put(K key, V value) {
+        final byte[] bytes = codec.encode(value);
+        final int size = HEADER_SIZE + bytes.length;
+        if (size > slabSize) {
+            invalidate(key);
+            return;
+        }
+        synchronized (this) {
+            if (null == writers[currentSlab] || writeOffset + size > slabSize) {
+                nextSlab();
+            }
+            final ByteBuffer writer = writers[currentSlab];
+            writer.putInt(writeOffset, bytes.length);
+            writer.putLong(writeOffset + 4, System.nanoTime());
+            writer.position(writeOffset + HEADER_SIZE);
+            writer.put(bytes);
+            slabKeys.get(currentSlab).add(key);
+            // 字节写完后才发布到索引，读取方通过索引的happens-before看到完整的数据
+            index.put(key, ((long) currentSlab << 32) | writeOffset);
+            writeOffset += size;
+        }
+    }
+
+    @Override
+    public void invalidate(K key) {
+        index.remove(key);
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (this) {
+            final long stamp = recycleLock.writeLock();
+            try {
+                index.clear();
+                slabKeys.forEach(List::clear);
+                currentSlab = 0;
+                writeOffset = 0;
+            } finally {
+                recycleLock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return index.size();
+    }
+
+    /**
+     * 占用直接内存的上限
+     *
+     * @return 字节
+     */
+    public long maximumBytes() {
+        return (long) slabSize * slabs.length;
+    }
+
+    /**
+     * 统计，只有命中、未命中与淘汰数有意义
+     *
+     * @return 统计
+     */
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), 0, 0, 0, evictionCount.sum());
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    /**
+     * 读取位置上的字节，slab可能正在被覆盖，因此需要检查边界，结果只有在乐观读校验通过后才可信
+     *
+     * @param location    位置
+     * @param now         当前时间，{@link System#nanoTime()}
+     * @param maxAgeNanos 写入后的最大时长，纳秒
+     * @return 字节，越界或已过期时为null
+     */
+    private byte[] read(long location, long now, long maxAgeNanos) {
+        final ByteBuffer slab = slabs[(int) (location >>> 32)];
+        final int offset = (int) location;
+        final int length = slab.getInt(offset);
+        if (length < 0 || length > slabSize - HEADER_SIZE - offset) {
+            return null;
+        }
+        if (now - slab.getLong(offset + 4) > maxAgeNanos) {
+            return null;
+        }
+        final byte[] bytes = new byte[length];
+        final ByteBuffer reader = slab.duplicate();
+        reader.position(offset + HEADER_SIZE);
+        reader.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 切换到下一个slab，需持有this的锁
+     */
+    private void nextSlab() {
+        if (null != writers[currentSlab]) {
+            currentSlab = (currentSlab + 1) % slabs.length;
+        }
+        writeOffset = 0;
+        if (null == slabs[currentSlab]) {
+            slabs[currentSlab] = ByteBuffer.allocateDirect(slabSize);
+            writers[currentSlab] = slabs[currentSlab].duplicate();
+            return;
+        }
+        // 循环覆盖最早写入的slab，淘汰其中仍然有效的条目
+        final long stamp = recycleLock.writeLock();
+        try {
+            final List<K> keys = slabKeys.get(currentSlab);
+            for (K key : keys) {
+                final Long location = index.get(key);
+                if (null != location && (int) (location >>> 32) == currentSlab && index.remove(key, location)) {
+                    evictionCount.increment();
+                }
+            }
+            keys.clear();
+        } finally {
+            recycleLock.unlockWrite(stamp);
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.string.StringUtils;
+import com.google.common.cache.CacheStats;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于内存映射文件的持久化缓存，进程重启后仍然保留，避免每次发布后冷缓存对数据库的冲击
+ * <p>
+ * 文件是一个只追加的日志，写入与删除都追加一条记录，堆上只保留key到记录位置的索引，打开文件时顺序扫描日志重建索引：
+ *
+ * <pre>
+ * | magic(4) | version(4) | 记录 | 记录 | ... | 0 |
+ * 记录：| 记录长度(4) | key长度(4，删除记录取反) | 写入时间(8) | key | value |
+ * </pre>
+ * <p>
+ * 日志写满时进行压缩：将仍然有效的记录按写入顺序复制到新文件后原子替换旧文件，
+ * 有效记录超过文件一半时丢弃最早写入的记录（FIFO），保证压缩后至少有一半的空间可以继续追加。
+ * 过期语义与{@link LoadingCacheBuilder#expireAfterWrite}相同：写入（创建或覆盖）后经过指定时间过期，以墙上时间计，重启不会重置。
+ * <p>
+ * 通常作为堆内缓存的二级缓存使用，见{@link LoadingCacheBuilder#secondLevel(CacheTier)}：
+ *
+ * <pre>
+ * PersistentCache&lt;Long, Student&gt; l2 = new PersistentCache&lt;&gt;(Paths.get("/data/cache/student.log"),
+ *     256L * 1024 * 1024, 1, TimeUnit.HOURS, CacheCodec.gson(Long.class), CacheCodec.gson(Student.class));
+ * LoadingCache&lt;Long, Student&gt; cache = CacheUtils.&lt;Long, Student&gt;newBuilder()
+ *     .maximumSize(10_000)
+ *     .expireAfterWrite(1, TimeUnit.HOURS)
+ *     .secondLevel(l2)
+ *     .build(CacheUtils.from(dao::findById));
+ * </pre>
+ * <p>
+ * 同一个文件同时只能由一个实例打开：打开时对文件加排他锁，已被本进程或其它进程打开时抛出{@link IllegalStateException}，关闭时释放。写入只保证进程崩溃后不丢失，不保证掉电后不丢失，需要时调用{@link #force()}。
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class PersistentCache<K, V> implements CacheTier<K, V>, Closeable {
+
+    private static final int MAGIC = 0x50434C47;
+    private static final int VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 8;
+    private static final int RECORD_HEADER_SIZE = 16;
+    /**
+     * 本JVM已打开的文件。关闭同一文件上的任意channel都会释放JVM在该文件上的全部锁，
+     * 因此不能对这些文件再打开、关闭新的channel，只能在打开之前拒绝
+     */
+    private static final Set<Path> OPEN_FILES = ConcurrentHashMap.newKeySet();
+
+    private final Path file;
+    private final int capacity;
+    private final long expireAfterWriteMillis;
+    private final CacheCodec<K> keyCodec;
+    private final CacheCodec<V> valueCodec;
+    private final Map<K, Entry> index = new ConcurrentHashMap<>();
+    /**
+     * 读取时持有读锁，压缩替换文件时持有写锁；追加写入由this的锁互斥
+     */
+    private final ReadWriteLock compactLock = new ReentrantReadWriteLock();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    private FileChannel channel;
+    private FileLock lock;
+    private MappedByteBuffer buffer;
+    /**
+     * 下一条记录的位置
+     */
+    private int tail;
+    private boolean closed;
+
+    /**
+     * 打开或创建
+     *
+     * @param file             文件，不存在时创建
+     * @param maximumBytes     文件大小，不超过2GB
+     * @param expireAfterWrite 写入后的过期时间，小于等于0表示不过期
+     * @param unit             时间单位
+     * @param keyCodec         key的序列化方式
+     * @param valueCodec       value的序列化方式
+     */
+    public PersistentCache(Path file, long maximumBytes, long expireAfterWrite, TimeUnit unit,
+        CacheCodec<K> keyCodec, CacheCodec<V> valueCodec) {
+        if (maximumBytes <= FILE_HEADER_SIZE + RECORD_HEADER_SIZE || maximumBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(StringUtils.format("maximum bytes must be between %s and %s, but was %s",
+                FILE_HEADER_SIZE + RECORD_HEADER_SIZE + 1, Integer.MAX_VALUE, maximumBytes));
+        }
+        this.file = file.toAbsolutePath().normalize();
+        this.capacity = (int) maximumBytes;
+        this.expireAfterWriteMillis = expireAfterWrite <= 0 ? Long.MAX_VALUE : unit.toMillis(expireAfterWrite);
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        try {
+            open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public V getIfPresent(K key) {
+        return getIfPresent(key, Long.MAX_VALUE);
+    }
+
+    /**
+     * 获取，写入后超过maxAgeNanos或本实例过期时间的条目视为未命中
+     *
+     * @param key         key
+     * @param maxAgeNanos 写入后的最大时长，纳秒
+     * @return value，不存在或已过期时为null
+     */
+    @Override
+    public V getIfPresent(K key, long maxAgeNanos) {
+        final byte[] bytes;
+        compactLock.readLock().lock();
+        try {
+            checkOpen();
+            final Entry entry = index.get(key);
+            if (null == entry) {
+                missCount.increment();
+                return null;
+            }
+            final long now = System.currentTimeMillis();
+            if (isExpired(entry.writeTime, now)) {
+                index.remove(key, entry);
+                missCount.increment();
+                return null;
+            }
+            if (now - entry.writeTime >= TimeUnit.NANOSECONDS.toMillis(maxAgeNanos)) {
+                missCount.increment();
+                return null;
+            }
+            final int size = buffer.getInt(entry.offset);
+            final int valueOffset = entry.offset + RECORD_HEADER_SIZE + buffer.getInt(entry.offset + 4);
+            bytes = new byte[entry.offset + size - valueOffset];
+            final ByteBuffer reader = buffer.duplicate();
+            reader.position(valueOffset);
+            reader.get(bytes);
+        } finally {
+            compactLock.readLock().unlock();
+        }
+        hitCount.increment();
+        return valueCodec.decode(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 放入，记录超过文件一半大小的value不会被缓存
+     *
+     * @param key   key
+     * @param value value
+     */
+    @Override
+    public void put(K key, V value) {
+        append(key, valueCodec.encode(value));
+    }
+
+    /**
+     * 删除，追加一条删除记录，重启后仍然生效
+     *
+     * @param key key
+     */
+    @Override
+    public void invalidate(K key) {
+        if (index.containsKey(key)) {
+            append(key, null);
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        synchronized (this) {
+            compactLock.writeLock().lock();
+            try {
+                checkOpen();
+                index.clear();
+                tail = FILE_HEADER_SIZE;
+                buffer.putInt(tail, 0);
+            } finally {
+                compactLock.writeLock().unlock();
+            }
+        }
+    }
+
+    @Override
+    public long size() {
+        return index.size();
+    }
+
+    /**
+     * 手动压缩，丢弃过期、被覆盖与被删除的记录
+     */
+    public void compact() {
+        synchronized (this) {
+            checkOpen();
+            compact(0);
+        }
+    }
+
+    /**
+     * 将映射的内容刷到磁盘
+     */
+    public void force() {
+        synchronized (this) {
+            checkOpen();
+            buffer.force();
+        }
+    }
+
+    /**
+     * 统计，只有命中、未命中与淘汰数有意义
+     *
+     * @return 统计
+     */
+    public CacheStats stats() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), 0, 0, 0, evictionCount.sum());
+    }
+
+    /**
+     * 刷盘并关闭文件，关闭后不能再使用
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            compactLock.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.force();
+                try {
+                    lock.release();
+                } finally {
+                    try {
+                        channel.close();
+                    } finally {
+                        OPEN_FILES.remove(file);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                compactLock.writeLock().unlock();
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private void open() throws IOException {
+        final Path parent = file.getParent();
+        if (null != parent) {
+            Files.createDirectories(parent);
+        }
+        if (!OPEN_FILES.add(file)) {
+            throw new IllegalStateException(StringUtils.format("%s is already opened in this JVM", file));
+        }
+        boolean opened = false;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+            lock = tryLock(channel);
+            if (null == lock) {
+                throw new IllegalStateException(StringUtils.format("%s is already opened by another process", file));
+            }
+            final boolean created = channel.size() == 0;
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(FILE_HEADER_SIZE, 0);
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IllegalStateException(StringUtils.format("%s is not a persistent cache file", file));
+            }
+            opened = true;
+        } finally {
+            if (!opened) {
+                // 关闭channel会同时释放其上的锁
+                if (null != channel) {
+                    channel.close();
+                }
+                OPEN_FILES.remove(file);
+            }
+        }
+        // 顺序扫描日志重建索引，后面的记录覆盖前面的记录
+        final long now = System.currentTimeMillis();
+        int offset = FILE_HEADER_SIZE;
+        while (offset <= capacity - RECORD_HEADER_SIZE) {
+            final int size = buffer.getInt(offset);
+            if (size < RECORD_HEADER_SIZE || size > capacity - offset) {
+                break;
+            }
+            final int keyLength = buffer.getInt(offset + 4);
+            if (length(keyLength) > size - RECORD_HEADER_SIZE) {
+                // 掉电等原因留下的不完整记录，视为日志末尾，之后从这里继续追加
+                break;
+            }
+            final long writeTime = buffer.getLong(offset + 8);
+            final ByteBuffer keyBuffer = buffer.duplicate();
+            keyBuffer.position(offset + RECORD_HEADER_SIZE).limit(offset + RECORD_HEADER_SIZE + length(keyLength));
+            final K key;
+            try {
+                key = keyCodec.decode(keyBuffer);
+            } catch (RuntimeException e) {
+                break;
+            }
+            if (keyLength < 0 || isExpired(writeTime, now)) {
+                index.remove(key);
+            } else {
+                index.put(key, new Entry(offset, writeTime));
+            }
+            offset += size;
+        }
+        tail = offset;
+    }
+
+    private void append(K key, byte[] value) {
+        final byte[] keyBytes = keyCodec.encode(key);
+        final int size = RECORD_HEADER_SIZE + keyBytes.length + (null == value ? 0 : value.length);
+        synchronized (this) {
+            checkOpen();
+            if (size > (capacity - FILE_HEADER_SIZE) / 2) {
+                // 过大的value不缓存，同时删除旧值
+                if (null != index.remove(key)) {
+                    append(key, null);
+                }
+                return;
+            }
+            if (tail + size > capacity) {
+                compact(size);
+            }
+            final long writeTime = System.currentTimeMillis();
+            final ByteBuffer writer = buffer.duplicate();
+            writer.position(tail + 4);
+            writer.putInt(null == value ? ~keyBytes.length : keyBytes.length);
+            writer.putLong(writeTime);
+            writer.put(keyBytes);
+            if (null != value) {
+                writer.put(value);
+            }
+            if (tail + size <= capacity - 4) {
+                buffer.putInt(tail + size, 0);
+            }
+            // 最后写入记录长度，进程在写入过程中崩溃时重启后会忽略这条不完整的记录
+            buffer.putInt(tail, size);
+            if (null == value) {
+                index.remove(key);
+            } else {
+                index.put(key, new Entry(tail, writeTime));
+            }
+            tail += size;
+        }
+    }
+
+    /**
+     * 压缩，需持有this的锁
+     *
+     * @param required 压缩后至少需要的空闲空间
+     */
+    private void compact(int required) {
+        compactLock.writeLock().lock();
+        try {
+            final long now = System.currentTimeMillis();
+            final List<Map.Entry<K, Entry>> live = new ArrayList<>(index.size());
+            long liveBytes = 0;
+            for (Map.Entry<K, Entry> entry : index.entrySet()) {
+                if (isExpired(entry.getValue().writeTime, now)) {
+                    continue;
+                }
+                live.add(entry);
+                liveBytes += buffer.getInt(entry.getValue().offset);
+            }
+            live.sort((a, b) -> Integer.compare(a.getValue().offset, b.getValue().offset));
+            // 保留一半空间用于后续追加，超出的部分按写入顺序淘汰最早的记录
+            final long budget = Math.min(capacity - FILE_HEADER_SIZE - required, (capacity - FILE_HEADER_SIZE) / 2);
+            int first = 0;
+            while (liveBytes > budget && first < live.size()) {
+                liveBytes -= buffer.getInt(live.get(first++).getValue().offset);
+                evictionCount.increment();
+            }
+
+            final Path compacting = file.resolveSibling(file.getFileName() + ".compact");
+            final FileChannel newChannel = FileChannel.open(compacting, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            final FileLock newLock;
+            final MappedByteBuffer newBuffer;
+            final Map<K, Entry> newIndex = new ConcurrentHashMap<>();
+            final int newTail;
+            try {
+                // 替换后锁随新文件生效，其它进程在替换前后都无法打开
+                newLock = tryLock(newChannel);
+                if (null == newLock) {
+                    throw new IllegalStateException(StringUtils.format("%s is locked by another process", compacting));
+                }
+                newBuffer = newChannel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+                newBuffer.putInt(0, MAGIC);
+                newBuffer.putInt(4, VERSION);
+                newBuffer.position(FILE_HEADER_SIZE);
+                for (int i = first; i < live.size(); i++) {
+                    final Entry entry = live.get(i).getValue();
+                    final int size = buffer.getInt(entry.offset);
+                    final ByteBuffer record = buffer.duplicate();
+                    record.position(entry.offset).limit(entry.offset + size);
+                    newIndex.put(live.get(i).getKey(), new Entry(newBuffer.position(), entry.writeTime));
+                    newBuffer.put(record);
+                }
+                newTail = newBuffer.position();
+                if (newTail <= capacity - 4) {
+                    newBuffer.putInt(newTail, 0);
+                }
+                newBuffer.force();
+                Files.move(compacting, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                // 旧文件保持不变，丢弃写了一半的新文件
+                try {
+                    newChannel.close();
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                try {
+                    Files.deleteIfExists(compacting);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+                throw e;
+            }
+
+            channel.close();
+            channel = newChannel;
+            lock = newLock;
+            buffer = newBuffer;
+            tail = newTail;
+            index.clear();
+            index.putAll(newIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            compactLock.writeLock().unlock();
+        }
+    }
+
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // 被本JVM内其它代码锁住
+            return null;
+        }
+    }
+
+    private boolean isExpired(long writeTime, long now) {
+        return now - writeTime >= expireAfterWriteMillis;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException(StringUtils.format("%s is closed", file));
+        }
+    }
+
+    private static int length(int keyLength) {
+        return keyLength < 0 ? ~keyLength : keyLength;
+    }
+
+    /**
+     * 索引项
+     */
+    private static final class Entry {
+
+        private final int offset;
+        private final long writeTime;
+
+        private Entry(int offset, long writeTime) {
+            this.offset = offset;
+            this.writeTime = writeTime;
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.github.oopstool.cache;
+
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 请求合并（single flight）：同一个key同时只有一次计算在执行，期间到达的调用者共享这次计算的结果或异常，
+ * 计算完成后立即移除，不保留结果，之后的调用重新计算。适合防止不可缓存的昂贵调用被并发击穿
+ *
+ * <pre>
+ * SingleFlight&lt;Long, Order&gt; flight = new SingleFlight&lt;&gt;();
+ * Order order = flight.execute(orderId, () -&gt; remote.queryOrder(orderId));
+ * CompletableFuture&lt;Order&gt; future = flight.executeAsync(orderId, () -&gt; remote.queryOrderAsync(orderId));
+ * </pre>
+ * <p>
+ * 计算内不能再以相同的key调用同一个SingleFlight，否则同步方式会死锁
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+    private final LongAdder executionCount = new LongAdder();
+    private final LongAdder sharedCount = new LongAdder();
+
+    /**
+     * 同步执行，异常的包装与{@link com.google.common.cache.Cache#get(Object, Callable)}一致
+     *
+     * @param key      key
+     * @param callable 计算
+     * @return 结果
+     * @throws ExecutionException 计算抛出受检异常
+     * @throws UncheckedExecutionException 计算抛出运行时异常
+     * @throws ExecutionError 计算抛出Error
+     */
+    public V execute(K key, Callable<? extends V> callable) throws ExecutionException {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (null != existing) {
+            sharedCount.increment();
+            return await(existing);
+        }
+        executionCount.increment();
+        try {
+            final V value = callable.call();
+            flights.remove(key, flight);
+            flight.complete(value);
+        } catch (Throwable e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return await(flight);
+    }
+
+    /**
+     * 在executor上异步执行，返回的future被取消不影响其它调用者
+     *
+     * @param key      key
+     * @param callable 计算
+     * @param executor 执行计算的线程池
+     * @return 完成时为结果
+     */
+    public CompletableFuture<V> executeAsync(K key, Callable<? extends V> callable, Executor executor) {
+        return executeAsync(key, () -> {
+            final CompletableFuture<V> future = new CompletableFuture<>();
+            executor.execute(() -> {
+                try {
+                    future.complete(callable.call());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+            return future;
+        });
+    }
+
+    /**
+     * 合并本身已是异步的调用，只有第一个调用者会调用supplier，返回的future被取消不影响其它调用者
+     *
+     * @param key      key
+     * @param supplier 发起异步计算
+     * @return 完成时为结果
+     */
+    public CompletableFuture<V> executeAsync(K key, Supplier<? extends CompletionStage<? extends V>> supplier) {
+        final CompletableFuture<V> flight = new CompletableFuture<>();
+        final CompletableFuture<V> existing = flights.putIfAbsent(key, flight);
+        if (null != existing) {
+            sharedCount.increment();
+            return existing.thenApply(Function.identity());
+        }
+        executionCount.increment();
+        try {
+            supplier.get().whenComplete((value, e) -> {
+                flights.remove(key, flight);
+                if (null == e) {
+                    flight.complete(value);
+                } else {
+                    flight.completeExceptionally(e);
+                }
+            });
+        } catch (Throwable e) {
+            flights.remove(key, flight);
+            flight.completeExceptionally(e);
+        }
+        return flight.thenApply(Function.identity());
+    }
+
+    /**
+     * 实际执行计算的次数
+     *
+     * @return 次数
+     */
+    public long executionCount() {
+        return executionCount.sum();
+    }
+
+    /**
+     * 加入了他人正在进行的计算、没有自己执行的调用次数，越高说明合并越有效
+     *
+     * @return 次数
+     */
+    public long sharedCount() {
+        return sharedCount.sum();
+    }
+
+    /**
+     * 正在进行的计算数
+     *
+     * @return 计算数
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private static <V> V await(CompletableFuture<V> flight) throws ExecutionException {
+        try {
+            return Uninterruptibles.getUninterruptibly(flight);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw new UncheckedExecutionException(cause);
+            }
+            if (cause instanceof Error) {
+                throw new ExecutionError((Error) cause);
+            }
+            throw e;
+        }
+    }
+}
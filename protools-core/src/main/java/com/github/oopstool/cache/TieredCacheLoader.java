@@ -0,0 +1,83 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一级缓存未命中时先查询二级缓存，仍未命中再调用实际的CacheLoader，并将结果写入二级缓存
+ * <p>
+ * 刷新（reload）总是调用实际的CacheLoader，新值同样写入二级缓存。
+ * 一级缓存设置了expireAfterWrite时，二级缓存中写入后超过相同时长的条目视为未命中。
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author HouGY
+ * @since 1.0.4
+ */
+class TieredCacheLoader<K, V> extends CacheLoader<K, V> {
+
+    private final CacheTier<K, V> tier;
+    private final CacheLoader<? super K, V> delegate;
+    private final long maxAgeNanos;
+
+    TieredCacheLoader(CacheTier<K, V> tier, CacheLoader<? super K, V> delegate, long maxAgeNanos) {
+        this.tier = tier;
+        this.delegate = delegate;
+        this.maxAgeNanos = maxAgeNanos;
+    }
+
+    @Override
+    public V load(K key) throws Exception {
+        final V cached = tier.getIfPresent(key, maxAgeNanos);
+        if (null != cached) {
+            return cached;
+        }
+        final V value = delegate.load(key);
+        if (null != value) {
+            tier.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public ListenableFuture<V> reload(K key, V oldValue) throws Exception {
+        return Futures.transform(delegate.reload(key, oldValue), value -> {
+            if (null != value) {
+                tier.put(key, value);
+            }
+            return value;
+        }, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+        final Map<K, V> result = new LinkedHashMap<>();
+        final List<K> missing = new ArrayList<>();
+        for (K key : keys) {
+            final V cached = tier.getIfPresent(key, maxAgeNanos);
+            if (null != cached) {
+                result.put(key, cached);
+            } else {
+                missing.add(key);
+            }
+        }
+        if (!missing.isEmpty()) {
+            // 实际的CacheLoader不支持批量加载时抛出UnsupportedLoadingOperationException，guava会退化为逐个load
+            @SuppressWarnings("unchecked")
+            final Map<K, V> loaded = (Map<K, V>) delegate.loadAll(missing);
+            loaded.forEach((key, value) -> {
+                if (null != value) {
+                    tier.put(key, value);
+                }
+            });
+            result.putAll(loaded);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.ForwardingLoadingCache.SimpleForwardingLoadingCache;
+import com.google.common.cache.LoadingCache;
+import java.util.Map;
+
+/**
+ * 带二级缓存的LoadingCache，写入与删除同时作用于两级缓存，读取由{@link TieredCacheLoader}穿透到二级缓存
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author HouGY
+ * @since 1.0.4
+ */
+class TieredLoadingCache<K, V> extends SimpleForwardingLoadingCache<K, V> {
+
+    private final CacheTier<K, V> tier;
+
+    TieredLoadingCache(LoadingCache<K, V> delegate, CacheTier<K, V> tier) {
+        super(delegate);
+        this.tier = tier;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        tier.put(key, value);
+        super.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> m) {
+        m.forEach(tier::put);
+        super.putAll(m);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void invalidate(Object key) {
+        // 先删除二级缓存，避免一级缓存删除后立即被二级缓存中的旧值重新加载
+        tier.invalidate((K) key);
+        super.invalidate(key);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void invalidateAll(Iterable<?> keys) {
+        for (Object key : keys) {
+            tier.invalidate((K) key);
+        }
+        super.invalidateAll(keys);
+    }
+
+    @Override
+    public void invalidateAll() {
+        tier.invalidateAll();
+        super.invalidateAll();
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.CacheLoader;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.Map;
+
+/**
+ * 将每次加载的耗时记入直方图，成功与失败都会记录。刷新按返回的future完成时计时，批量加载整批记录一次
+ *
+ * @param <K> key
+ * @param <V> value
+ * @author HouGY
+ * @since 1.0.4
+ */
+class TimedCacheLoader<K, V> extends CacheLoader<K, V> {
+
+    private final CacheLoader<? super K, V> delegate;
+    private final LatencyHistogram histogram;
+
+    TimedCacheLoader(CacheLoader<? super K, V> delegate, LatencyHistogram histogram) {
+        this.delegate = delegate;
+        this.histogram = histogram;
+    }
+
+    @Override
+    public V load(K key) throws Exception {
+        final long start = System.nanoTime();
+        try {
+            return delegate.load(key);
+        } finally {
+            histogram.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public ListenableFuture<V> reload(K key, V oldValue) throws Exception {
+        final long start = System.nanoTime();
+        final ListenableFuture<V> future;
+        try {
+            future = delegate.reload(key, oldValue);
+        } catch (Exception e) {
+            histogram.record(System.nanoTime() - start);
+            throw e;
+        }
+        future.addListener(() -> histogram.record(System.nanoTime() - start), MoreExecutors.directExecutor());
+        return future;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<K, V> loadAll(Iterable<? extends K> keys) throws Exception {
+        final long start = System.nanoTime();
+        try {
+            final Map<K, V> result = (Map<K, V>) delegate.loadAll(keys);
+            histogram.record(System.nanoTime() - start);
+            return result;
+        } catch (UnsupportedLoadingOperationException e) {
+            // 不支持批量加载，guava会退化为逐个load，不计入耗时
+            throw e;
+        } catch (Exception e) {
+            histogram.record(System.nanoTime() - start);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.github.oopstool.json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 为标记了{@link GenerateAdapter}的DTO生成TypeAdapter，读写字段通过LambdaMetafactory在运行时生成的
+ * getter/setter/构造方法的函数接口完成，调用开销与直接调用方法相同，不需要注解处理器，也不生成字节码文件
+ * <p>
+ * 输出与Gson默认的反射实现一致：字段顺序（子类在前）、{@link SerializedName}、FieldNamingStrategy、serializeNulls都与所在的Gson相同，
+ * 跳过static、transient字段。不支持{@code excludeFieldsWithoutExposeAnnotation}、版本号等额外的排除规则，{@link GsonProfile}不使用这些配置。
+ * 字段值按声明类型的adapter序列化，声明为Object的字段由Gson按运行时类型序列化；声明类型为具体类、值为其子类时不输出子类新增的字段。
+ * 不满足条件（非public、缺少无参构造方法或getter/setter、对本类的ClassLoader不可见等）的类返回Gson的反射实现。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class AccessorTypeAdapterFactory implements TypeAdapterFactory {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    @Override
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        final Class<? super T> raw = type.getRawType();
+        if (!raw.isAnnotationPresent(GenerateAdapter.class) || raw != type.getType()) {
+            // 带泛型参数的DTO交给反射实现解析类型变量
+            return null;
+        }
+        if (!isVisible(raw)) {
+            // 生成的函数接口定义在本类的ClassLoader中，DTO由子ClassLoader加载时无法链接，交给反射实现
+            return gson.getDelegateAdapter(this, type);
+        }
+        try {
+            return new Adapter<>(gson, raw);
+        } catch (Exception | LinkageError e) {
+            return gson.getDelegateAdapter(this, type);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    /**
+     * 调用metafactory返回的工厂方法，得到函数接口的实例
+     */
+    private static Object instantiate(CallSite site) throws Exception {
+        try {
+            return site.getTarget().invoke();
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean isVisible(Class<?> cls) {
+        try {
+            return Class.forName(cls.getName(), false, AccessorTypeAdapterFactory.class.getClassLoader()) == cls;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> constructor(Class<?> cls) throws Exception {
+        final Constructor<?> constructor = cls.getConstructor();
+        final MethodHandle handle = LOOKUP.unreflectConstructor(constructor);
+        final CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get", MethodType.methodType(Supplier.class),
+            MethodType.methodType(Object.class), handle, MethodType.methodType(cls));
+        return (Supplier<Object>) instantiate(site);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Method method) throws Exception {
+        final MethodHandle handle = LOOKUP.unreflect(method);
+        final CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+            MethodType.methodType(Object.class, Object.class), handle,
+            MethodType.methodType(MethodType.methodType(method.getReturnType()).wrap().returnType(),
+                method.getDeclaringClass()));
+        return (Function<Object, Object>) instantiate(site);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Method method) throws Exception {
+        final MethodHandle handle = LOOKUP.unreflect(method);
+        final Class<?> parameter = MethodType.methodType(method.getParameterTypes()[0]).wrap().returnType();
+        final CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+            MethodType.methodType(void.class, Object.class, Object.class), handle,
+            MethodType.methodType(void.class, method.getDeclaringClass(), parameter));
+        return (BiConsumer<Object, Object>) instantiate(site);
+    }
+
+    private static Method accessor(Class<?> cls, String name, Class<?>... parameterTypes) {
+        try {
+            return cls.getMethod(name, parameterTypes);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static final class Property {
+
+        private final String name;
+        private final boolean primitive;
+        private final TypeAdapter<Object> adapter;
+        private final Function<Object, Object> getter;
+        private final BiConsumer<Object, Object> setter;
+
+        Property(String name, Field field, TypeAdapter<Object> adapter, Function<Object, Object> getter,
+            BiConsumer<Object, Object> setter) {
+            this.name = name;
+            this.primitive = field.getType().isPrimitive();
+            this.adapter = adapter;
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    private static final class Adapter<T> extends TypeAdapter<T> {
+
+        private final Supplier<Object> constructor;
+        private final Property[] properties;
+        private final Map<String, Property> byName = new HashMap<>();
+
+        @SuppressWarnings("unchecked")
+        Adapter(Gson gson, Class<? super T> cls) throws Exception {
+            this.constructor = constructor(cls);
+            final List<Property> list = new ArrayList<>();
+            for (Class<?> c = cls; c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    // 与Gson默认的排除规则一致
+                    if ((field.getModifiers() & (Modifier.STATIC | Modifier.TRANSIENT)) != 0 || field.isSynthetic()) {
+                        continue;
+                    }
+                    final String suffix = capitalize(field.getName());
+                    Method getter = accessor(c, "get" + suffix);
+                    if (null == getter && field.getType() == boolean.class) {
+                        getter = accessor(c, "is" + suffix);
+                    }
+                    final Method setter = accessor(c, "set" + suffix, field.getType());
+                    if (null == getter || null == setter || getter.getReturnType() != field.getType()
+                        || Modifier.isStatic(getter.getModifiers()) || Modifier.isStatic(setter.getModifiers())) {
+                        throw new IllegalArgumentException(field.toString());
+                    }
+                    final SerializedName serializedName = field.getAnnotation(SerializedName.class);
+                    final String name = null == serializedName
+                        ? gson.fieldNamingStrategy().translateName(field) : serializedName.value();
+                    final TypeAdapter<Object> adapter =
+                        (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(field.getGenericType()));
+                    final Property p = new Property(name, field, adapter, getter(getter), setter(setter));
+                    list.add(p);
+                    if (null != byName.put(name, p)) {
+                        throw new IllegalArgumentException(
+                            cls + " declares multiple JSON fields named " + name);
+                    }
+                    if (null != serializedName) {
+                        for (String alternate : serializedName.alternate()) {
+                            byName.putIfAbsent(alternate, p);
+                        }
+                    }
+                }
+            }
+            this.properties = list.toArray(new Property[0]);
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            if (null == value) {
+                out.nullValue();
+                return;
+            }
+            out.beginObject();
+            for (Property p : properties) {
+                final Object fieldValue = p.getter.apply(value);
+                // 与反射实现一致，跳过指向自身的字段，避免无限递归
+                if (fieldValue != value) {
+                    out.name(p.name);
+                    p.adapter.write(out, fieldValue);
+                }
+            }
+            out.endObject();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            final Object instance = constructor.get();
+            try {
+                in.beginObject();
+                while (in.hasNext()) {
+                    final Property p = byName.get(in.nextName());
+                    if (null == p) {
+                        in.skipValue();
+                        continue;
+                    }
+                    final Object value = p.adapter.read(in);
+                    // 与反射实现一致，null不覆盖基本类型字段的默认值
+                    if (null != value || !p.primitive) {
+                        p.setter.accept(instance, value);
+                    }
+                }
+            } catch (IllegalStateException e) {
+                throw new JsonSyntaxException(e);
+            }
+            in.endObject();
+            return (T) instance;
+        }
+    }
+}
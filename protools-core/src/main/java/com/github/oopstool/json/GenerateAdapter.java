@@ -0,0 +1,23 @@
+package com.github.oopstool.json;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标记热点DTO，{@link GsonUtils}为其生成基于getter/setter的TypeAdapter，不再通过反射读写字段，
+ * 详见{@link AccessorTypeAdapterFactory}
+ * <p>
+ * DTO需要是public类，有public的无参构造方法，每个参与序列化的字段都有public的getter与setter，否则仍使用Gson的反射实现。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface GenerateAdapter {
+
+}
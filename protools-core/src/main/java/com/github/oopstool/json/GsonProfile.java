@@ -0,0 +1,89 @@
+package com.github.oopstool.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+/**
+ * {@link GsonUtils}使用的Gson配置，每种配置的Gson在首次使用时创建一次，之后复用，Gson本身不可变且线程安全
+ * <p>
+ * 所有配置都注册了{@link AccessorTypeAdapterFactory}。输出最小、最快的是{@link #COMPACT}，适合高吞吐的接口与导出。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public enum GsonProfile {
+
+    /**
+     * 输出null字段，转义html字符，{@link GsonUtils}不指定配置时的默认行为
+     */
+    DEFAULT {
+        @Override
+        GsonBuilder configure(GsonBuilder builder) {
+            return builder.serializeNulls();
+        }
+    },
+
+    /**
+     * 省略null字段，不转义html字符（&lt;、&gt;、&amp;、=、'原样输出），输出最小，只适合不会嵌入html的场景
+     */
+    COMPACT {
+        @Override
+        GsonBuilder configure(GsonBuilder builder) {
+            return builder.disableHtmlEscaping();
+        }
+    },
+
+    /**
+     * 省略null字段，转义html字符
+     */
+    NO_NULLS {
+        @Override
+        GsonBuilder configure(GsonBuilder builder) {
+            return builder;
+        }
+    },
+
+    /**
+     * 在{@link #DEFAULT}的基础上允许NaN、Infinity等不符合json规范的数值，读写都使用宽松模式
+     */
+    LENIENT {
+        @Override
+        GsonBuilder configure(GsonBuilder builder) {
+            return builder.serializeNulls().serializeSpecialFloatingPointValues().setLenient();
+        }
+    },
+
+    /**
+     * 在{@link #DEFAULT}的基础上缩进换行，便于阅读，适合日志与调试
+     */
+    PRETTY {
+        @Override
+        GsonBuilder configure(GsonBuilder builder) {
+            return builder.serializeNulls().setPrettyPrinting();
+        }
+    };
+
+    private volatile Gson gson;
+
+    /**
+     * 该配置的Gson
+     *
+     * @return Gson
+     */
+    public Gson gson() {
+        Gson result = gson;
+        if (null == result) {
+            synchronized (this) {
+                result = gson;
+                if (null == result) {
+                    result = configure(new GsonBuilder().registerTypeAdapterFactory(new AccessorTypeAdapterFactory()))
+                        .create();
+                    gson = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    abstract GsonBuilder configure(GsonBuilder builder);
+}
@@ -1,14 +1,35 @@
 package com.github.oopstool.json;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 基于Gson的json处理工具
+ * <p>
+ * 标记了{@link GenerateAdapter}的DTO使用{@link AccessorTypeAdapterFactory}生成的TypeAdapter，其它类型使用Gson的默认实现。
+ * 不指定{@link GsonProfile}的方法使用{@link GsonProfile#DEFAULT}
  *
  * @author : HouGY
  * @since : 1.0.0
@@ -17,8 +38,28 @@ public class GsonUtils {
 
     private static final Gson gson;
 
+    /**
+     * 未指定元素类型时使用的类型，泛型擦除后与每次新建TypeToken&lt;List&lt;T&gt;&gt;等价
+     */
+    private static final Type LIST_TYPE = new TypeToken<List<Object>>() {
+    }.getType();
+    private static final Type LIST_MAP_TYPE = new TypeToken<List<Map<String, Object>>>() {
+    }.getType();
+    private static final Type MAP_TYPE = new TypeToken<Map<String, Object>>() {
+    }.getType();
+
+    /**
+     * 元素类型到List&lt;E&gt;的缓存
+     */
+    private static final ConcurrentMap<Class<?>, Type> LIST_TYPES = new ConcurrentHashMap<>();
+
+    /**
+     * key类型到value类型到Map&lt;K, V&gt;的缓存
+     */
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Type>> MAP_TYPES = new ConcurrentHashMap<>();
+
     static {
-        gson = new GsonBuilder().serializeNulls().create();
+        gson = GsonProfile.DEFAULT.gson();
     }
 
 
@@ -35,6 +76,220 @@ public class GsonUtils {
         return gson.toJson(object);
     }
 
+    /**
+     * 按指定的配置将对象序列化为json，例如高吞吐的接口使用{@link GsonProfile#COMPACT}省略null字段
+     *
+     * @param object  需要转换的对象
+     * @param profile 配置
+     * @return 返回json形式字符串
+     * @since 1.0.4
+     */
+    public static String toJson(Object object, GsonProfile profile) {
+        return profile.gson().toJson(object);
+    }
+
+    /**
+     * 将指定的对象序列化后直接写出，不生成完整的json字符串，适合较大的对象
+     *
+     * @param object 需要转换的对象
+     * @param out    写出的目标，例如Writer、StringBuilder，写出后不关闭
+     * @since 1.0.4
+     */
+    public static void toJson(Object object, Appendable out) {
+        gson.toJson(object, out);
+    }
+
+    /**
+     * 按指定的配置将对象序列化后直接写出，详见{@link #toJson(Object, Appendable)}
+     *
+     * @param object  需要转换的对象
+     * @param out     写出的目标，写出后不关闭
+     * @param profile 配置
+     * @since 1.0.4
+     */
+    public static void toJson(Object object, Appendable out, GsonProfile profile) {
+        profile.gson().toJson(object, out);
+    }
+
+    /**
+     * 将指定的对象序列化后以UTF-8编码直接写出，不生成完整的json字符串，写出后刷新但不关闭输出流
+     *
+     * @param object 需要转换的对象
+     * @param out    输出流
+     * @since 1.0.4
+     */
+    public static void toJson(Object object, OutputStream out) {
+        toJson(object, out, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置将对象序列化后以UTF-8编码直接写出，写出后刷新但不关闭输出流
+     *
+     * @param object  需要转换的对象
+     * @param out     输出流
+     * @param profile 配置
+     * @since 1.0.4
+     */
+    public static void toJson(Object object, OutputStream out, GsonProfile profile) {
+        final Writer writer = newWriter(out);
+        profile.gson().toJson(object, writer);
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    /**
+     * 创建逐个写出元素的json数组写入器，适合分页导出等元素总量无法放入内存的场景，详见{@link JsonArrayWriter}
+     *
+     * @param out 写出的目标，带缓冲写出，写入器关闭时关闭
+     * @return 写入器
+     * @since 1.0.4
+     */
+    public static JsonArrayWriter newArrayWriter(Writer out) {
+        return newArrayWriter(out, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置创建json数组写入器，详见{@link #newArrayWriter(Writer)}
+     *
+     * @param out     写出的目标，带缓冲写出，写入器关闭时关闭
+     * @param profile 配置
+     * @return 写入器
+     * @since 1.0.4
+     */
+    public static JsonArrayWriter newArrayWriter(Writer out, GsonProfile profile) {
+        return new JsonArrayWriter(profile.gson(), out instanceof BufferedWriter ? out : new BufferedWriter(out));
+    }
+
+    /**
+     * 创建逐个写出元素的json数组写入器，以UTF-8编码写出，详见{@link JsonArrayWriter}
+     *
+     * @param out 输出流，带缓冲写出，写入器关闭时关闭
+     * @return 写入器
+     * @since 1.0.4
+     */
+    public static JsonArrayWriter newArrayWriter(OutputStream out) {
+        return newArrayWriter(out, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置创建json数组写入器，以UTF-8编码写出，详见{@link JsonArrayWriter}
+     *
+     * @param out     输出流，带缓冲写出，写入器关闭时关闭
+     * @param profile 配置
+     * @return 写入器
+     * @since 1.0.4
+     */
+    public static JsonArrayWriter newArrayWriter(OutputStream out, GsonProfile profile) {
+        return new JsonArrayWriter(profile.gson(), newWriter(out));
+    }
+
+    /**
+     * 将迭代器中的元素逐个序列化为json数组写出，写出后刷新但不关闭writer
+     *
+     * @param elements 元素
+     * @param out      写出的目标
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static long toJsonArray(Iterator<?> elements, Writer out) {
+        return toJsonArray(elements, out, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置将迭代器中的元素逐个序列化为json数组写出，写出后刷新但不关闭writer
+     *
+     * @param elements 元素
+     * @param out      写出的目标
+     * @param profile  配置
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static long toJsonArray(Iterator<?> elements, Writer out, GsonProfile profile) {
+        final JsonArrayWriter writer = newArrayWriter(out, profile);
+        writer.writeAll(elements).finish();
+        return writer.count();
+    }
+
+    /**
+     * 将迭代器中的元素逐个序列化为json数组，以UTF-8编码写出，写出后刷新但不关闭输出流
+     *
+     * @param elements 元素
+     * @param out      输出流
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static long toJsonArray(Iterator<?> elements, OutputStream out) {
+        return toJsonArray(elements, out, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置将迭代器中的元素逐个序列化为json数组，以UTF-8编码写出，写出后刷新但不关闭输出流
+     *
+     * @param elements 元素
+     * @param out      输出流
+     * @param profile  配置
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static long toJsonArray(Iterator<?> elements, OutputStream out, GsonProfile profile) {
+        final JsonArrayWriter writer = newArrayWriter(out, profile);
+        writer.writeAll(elements).finish();
+        return writer.count();
+    }
+
+    /**
+     * 将流中的元素逐个序列化为json数组写出，写出后刷新但不关闭writer，也不关闭流
+     *
+     * @param elements 元素
+     * @param out      写出的目标
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static long toJsonArray(Stream<?> elements, Writer out) {
+        return toJsonArray(elements, out, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置将流中的元素逐个序列化为json数组写出，写出后刷新但不关闭writer，也不关闭流
+     *
+     * @param elements 元素
+     * @param out      写出的目标
+     * @param profile  配置
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static long toJsonArray(Stream<?> elements, Writer out, GsonProfile profile) {
+        return toJsonArray(elements.iterator(), out, profile);
+    }
+
+    /**
+     * 将流中的元素逐个序列化为json数组，以UTF-8编码写出，写出后刷新但不关闭输出流，也不关闭流
+     *
+     * @param elements 元素
+     * @param out      输出流
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static long toJsonArray(Stream<?> elements, OutputStream out) {
+        return toJsonArray(elements, out, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置将流中的元素逐个序列化为json数组，以UTF-8编码写出，写出后刷新但不关闭输出流，也不关闭流
+     *
+     * @param elements 元素
+     * @param out      输出流
+     * @param profile  配置
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static long toJsonArray(Stream<?> elements, OutputStream out, GsonProfile profile) {
+        return toJsonArray(elements.iterator(), out, profile);
+    }
+
 
     /**
      * 指定的Json反序列化为指定类的对象
@@ -47,6 +302,19 @@ public class GsonUtils {
         return gson.fromJson(jsonString, cls);
     }
 
+    /**
+     * 按指定的配置将Json反序列化为指定类的对象
+     *
+     * @param jsonString json字符串
+     * @param cls        转换的类class
+     * @param profile    配置
+     * @return 返回指定类的对象
+     * @since 1.0.4
+     */
+    public static <T> T jsonToBean(String jsonString, Class<T> cls, GsonProfile profile) {
+        return profile.gson().fromJson(jsonString, cls);
+    }
+
     /**
      * 指定的Json反序列化为指定类的对象
      *
@@ -58,17 +326,59 @@ public class GsonUtils {
         return gson.fromJson(jsonString, type);
     }
 
+    /**
+     * 按指定的配置将Json反序列化为指定类型的对象
+     *
+     * @param jsonString json字符串
+     * @param type       转换的类型
+     * @param profile    配置
+     * @return 返回指定类型的对象
+     * @since 1.0.4
+     */
+    public static <T> T jsonToBean(String jsonString, Type type, GsonProfile profile) {
+        return profile.gson().fromJson(jsonString, type);
+    }
+
     /**
      * 指定的Json反序列化为指定类对象的list集合<br>
-     * 此方法适用于非通用对象，如果反序列化通用对象请使用{@link #jsonToList(String, Type)}
+     * 此方法适用于非通用对象，如果反序列化通用对象请使用{@link #jsonToList(String, Type)}<br>
+     * 注意：由于泛型擦除，元素实际为LinkedTreeMap、Double等，需要具体类型时请使用{@link #jsonToList(String, Class)}
      *
      * @param jsonString json字符串
      * @param <T>        泛型对象
      * @return 返回指定类对象的集合
      */
     public static <T> List<T> jsonToList(String jsonString) {
-        return gson.fromJson(jsonString, new TypeToken<List<T>>() {
-        }.getType());
+        return gson.fromJson(jsonString, LIST_TYPE);
+    }
+
+    /**
+     * 指定的Json反序列化为指定类对象的list集合，元素直接反序列化为elementType，不会先转为LinkedTreeMap、Double
+     * <p>
+     * List&lt;E&gt;的Type按元素类型缓存，不必每次新建TypeToken
+     *
+     * @param jsonString  json字符串
+     * @param elementType 元素的类型
+     * @param <E>         元素类型
+     * @return 返回指定类对象的集合
+     * @since 1.0.4
+     */
+    public static <E> List<E> jsonToList(String jsonString, Class<E> elementType) {
+        return gson.fromJson(jsonString, listType(elementType));
+    }
+
+    /**
+     * 按指定的配置将Json反序列化为指定类对象的list集合，详见{@link #jsonToList(String, Class)}
+     *
+     * @param jsonString  json字符串
+     * @param elementType 元素的类型
+     * @param profile     配置
+     * @param <E>         元素类型
+     * @return 返回指定类对象的集合
+     * @since 1.0.4
+     */
+    public static <E> List<E> jsonToList(String jsonString, Class<E> elementType, GsonProfile profile) {
+        return profile.gson().fromJson(jsonString, listType(elementType));
     }
 
     /**
@@ -97,8 +407,7 @@ public class GsonUtils {
      */
     public static <T> List<Map<String, T>> jsonToListMap(String jsonString) {
         List<Map<String, T>> list;
-        list = gson.fromJson(jsonString, new TypeToken<List<Map<String, T>>>() {
-        }.getType());
+        list = gson.fromJson(jsonString, LIST_MAP_TYPE);
         return list;
     }
 
@@ -111,10 +420,325 @@ public class GsonUtils {
      */
     public static <T> Map<String, T> jsonToMap(String jsonString) {
         Map<String, T> map;
-        map = gson.fromJson(jsonString, new TypeToken<Map<String, T>>() {
-        }.getType());
+        map = gson.fromJson(jsonString, MAP_TYPE);
         return map;
     }
 
+    /**
+     * 指定的Json反序列化为指定key、value类型的map，数值不会先转为Double
+     * <p>
+     * Map&lt;K, V&gt;的Type按key、value类型缓存，不必每次新建TypeToken
+     *
+     * @param jsonString json字符串
+     * @param keyType    key的类型，json对象的属性名按此类型转换
+     * @param valueType  value的类型
+     * @param <K>        key类型
+     * @param <V>        value类型
+     * @return 返回map
+     * @since 1.0.4
+     */
+    public static <K, V> Map<K, V> jsonToMap(String jsonString, Class<K> keyType, Class<V> valueType) {
+        return gson.fromJson(jsonString, mapType(keyType, valueType));
+    }
 
+    /**
+     * 按指定的配置将Json反序列化为指定key、value类型的map，详见{@link #jsonToMap(String, Class, Class)}
+     *
+     * @param jsonString json字符串
+     * @param keyType    key的类型
+     * @param valueType  value的类型
+     * @param profile    配置
+     * @param <K>        key类型
+     * @param <V>        value类型
+     * @return 返回map
+     * @since 1.0.4
+     */
+    public static <K, V> Map<K, V> jsonToMap(String jsonString, Class<K> keyType, Class<V> valueType,
+        GsonProfile profile) {
+        return profile.gson().fromJson(jsonString, mapType(keyType, valueType));
+    }
+
+    /**
+     * 逐个读取json数组的元素，适合无法整体读入内存的大数组，内存占用与数组长度无关
+     * <p>
+     * 例如
+     * <code>
+     * try (JsonArrayIterator<Student> students = GsonUtils.readArray(reader, Student.class)) {
+     * while (students.hasNext()) { handle(students.next()); }
+     * }
+     * </code>
+     *
+     * @param reader      json数组，迭代器关闭时关闭
+     * @param elementType 元素的类型
+     * @param <T>         元素类型
+     * @return 迭代器
+     * @since 1.0.4
+     */
+    public static <T> JsonArrayIterator<T> readArray(Reader reader, Class<T> elementType) {
+        return readArray(reader, elementType, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置逐个读取json数组的元素，详见{@link #readArray(Reader, Class)}
+     *
+     * @param reader      json数组，迭代器关闭时关闭
+     * @param elementType 元素的类型
+     * @param profile     配置
+     * @param <T>         元素类型
+     * @return 迭代器
+     * @since 1.0.4
+     */
+    public static <T> JsonArrayIterator<T> readArray(Reader reader, Class<T> elementType, GsonProfile profile) {
+        return readArray(reader, (Type) elementType, profile);
+    }
+
+    /**
+     * 逐个读取json数组的元素，元素为泛型对象时使用，详见{@link #readArray(Reader, Class)}
+     *
+     * @param reader      json数组，迭代器关闭时关闭
+     * @param elementType 元素的类型，例如new TypeToken&lt;Map&lt;String, Integer&gt;&gt;(){}.getType()
+     * @param <T>         元素类型
+     * @return 迭代器
+     * @since 1.0.4
+     */
+    public static <T> JsonArrayIterator<T> readArray(Reader reader, Type elementType) {
+        return readArray(reader, elementType, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置逐个读取json数组的元素，详见{@link #readArray(Reader, Class)}
+     *
+     * @param reader      json数组，迭代器关闭时关闭
+     * @param elementType 元素的类型
+     * @param profile     配置
+     * @param <T>         元素类型
+     * @return 迭代器
+     * @since 1.0.4
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> JsonArrayIterator<T> readArray(Reader reader, Type elementType, GsonProfile profile) {
+        final Gson gson = profile.gson();
+        final JsonReader jsonReader = gson.newJsonReader(reader);
+        // 与fromJson一致，按宽松模式解析
+        jsonReader.setLenient(true);
+        return new JsonArrayIterator<>(jsonReader, (TypeAdapter<T>) gson.getAdapter(TypeToken.get(elementType)));
+    }
+
+    /**
+     * 以流的形式逐个读取json数组的元素，流关闭时关闭reader，详见{@link #readArray(Reader, Class)}
+     *
+     * @param reader      json数组
+     * @param elementType 元素的类型
+     * @param <T>         元素类型
+     * @return 顺序流
+     * @since 1.0.4
+     */
+    public static <T> Stream<T> streamArray(Reader reader, Class<T> elementType) {
+        return streamArray(reader, elementType, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置以流的形式逐个读取json数组的元素，流关闭时关闭reader
+     *
+     * @param reader      json数组
+     * @param elementType 元素的类型
+     * @param profile     配置
+     * @param <T>         元素类型
+     * @return 顺序流
+     * @since 1.0.4
+     */
+    public static <T> Stream<T> streamArray(Reader reader, Class<T> elementType, GsonProfile profile) {
+        return readArray(reader, elementType, profile).stream();
+    }
+
+    /**
+     * 以流的形式逐个读取UTF-8编码的json数组的元素，流关闭时关闭输入流
+     *
+     * @param in          json数组
+     * @param elementType 元素的类型
+     * @param <T>         元素类型
+     * @return 顺序流
+     * @since 1.0.4
+     */
+    public static <T> Stream<T> streamArray(InputStream in, Class<T> elementType) {
+        return streamArray(in, elementType, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置以流的形式逐个读取UTF-8编码的json数组的元素，流关闭时关闭输入流
+     *
+     * @param in          json数组
+     * @param elementType 元素的类型
+     * @param profile     配置
+     * @param <T>         元素类型
+     * @return 顺序流
+     * @since 1.0.4
+     */
+    public static <T> Stream<T> streamArray(InputStream in, Class<T> elementType, GsonProfile profile) {
+        return streamArray(new InputStreamReader(in, StandardCharsets.UTF_8), elementType, profile);
+    }
+
+    /**
+     * 以流的形式逐个读取UTF-8编码的json数组文件的元素，需要关闭流以关闭文件，建议使用try-with-resources
+     *
+     * @param file        json数组文件
+     * @param elementType 元素的类型
+     * @param <T>         元素类型
+     * @return 顺序流
+     * @since 1.0.4
+     */
+    public static <T> Stream<T> streamArray(Path file, Class<T> elementType) {
+        return streamArray(file, elementType, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置以流的形式逐个读取UTF-8编码的json数组文件的元素，需要关闭流以关闭文件
+     *
+     * @param file        json数组文件
+     * @param elementType 元素的类型
+     * @param profile     配置
+     * @param <T>         元素类型
+     * @return 顺序流
+     * @since 1.0.4
+     */
+    public static <T> Stream<T> streamArray(Path file, Class<T> elementType, GsonProfile profile) {
+        return streamArray(newReader(file), elementType, profile);
+    }
+
+    /**
+     * 对json数组的每个元素执行回调，读取完成后不关闭reader
+     *
+     * @param reader      json数组
+     * @param elementType 元素的类型
+     * @param action      回调
+     * @param <T>         元素类型
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static <T> long forEachInArray(Reader reader, Class<T> elementType, Consumer<? super T> action) {
+        return forEachInArray(reader, elementType, action, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置对json数组的每个元素执行回调，读取完成后不关闭reader
+     *
+     * @param reader      json数组
+     * @param elementType 元素的类型
+     * @param action      回调
+     * @param profile     配置
+     * @param <T>         元素类型
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static <T> long forEachInArray(Reader reader, Class<T> elementType, Consumer<? super T> action,
+        GsonProfile profile) {
+        final JsonArrayIterator<T> iterator = readArray(reader, elementType, profile);
+        long count = 0;
+        while (iterator.hasNext()) {
+            action.accept(iterator.next());
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * 对UTF-8编码的json数组的每个元素执行回调，读取完成后不关闭输入流
+     *
+     * @param in          json数组
+     * @param elementType 元素的类型
+     * @param action      回调
+     * @param <T>         元素类型
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static <T> long forEachInArray(InputStream in, Class<T> elementType, Consumer<? super T> action) {
+        return forEachInArray(in, elementType, action, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置对UTF-8编码的json数组的每个元素执行回调，读取完成后不关闭输入流
+     *
+     * @param in          json数组
+     * @param elementType 元素的类型
+     * @param action      回调
+     * @param profile     配置
+     * @param <T>         元素类型
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static <T> long forEachInArray(InputStream in, Class<T> elementType, Consumer<? super T> action,
+        GsonProfile profile) {
+        return forEachInArray(new InputStreamReader(in, StandardCharsets.UTF_8), elementType, action, profile);
+    }
+
+    /**
+     * 对UTF-8编码的json数组文件的每个元素执行回调
+     *
+     * @param file        json数组文件
+     * @param elementType 元素的类型
+     * @param action      回调
+     * @param <T>         元素类型
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static <T> long forEachInArray(Path file, Class<T> elementType, Consumer<? super T> action) {
+        return forEachInArray(file, elementType, action, GsonProfile.DEFAULT);
+    }
+
+    /**
+     * 按指定的配置对UTF-8编码的json数组文件的每个元素执行回调
+     *
+     * @param file        json数组文件
+     * @param elementType 元素的类型
+     * @param action      回调
+     * @param profile     配置
+     * @param <T>         元素类型
+     * @return 元素个数
+     * @since 1.0.4
+     */
+    public static <T> long forEachInArray(Path file, Class<T> elementType, Consumer<? super T> action,
+        GsonProfile profile) {
+        try (Reader reader = newReader(file)) {
+            return forEachInArray(reader, elementType, action, profile);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private static Type listType(Class<?> elementType) {
+        // 先get再computeIfAbsent，命中时避免computeIfAbsent在JDK8上的加锁
+        final Type type = LIST_TYPES.get(elementType);
+        if (null != type) {
+            return type;
+        }
+        return LIST_TYPES.computeIfAbsent(elementType,
+            cls -> TypeToken.getParameterized(List.class, cls).getType());
+    }
+
+    private static Type mapType(Class<?> keyType, Class<?> valueType) {
+        ConcurrentMap<Class<?>, Type> types = MAP_TYPES.get(keyType);
+        if (null == types) {
+            types = MAP_TYPES.computeIfAbsent(keyType, cls -> new ConcurrentHashMap<>());
+        }
+        final Type type = types.get(valueType);
+        if (null != type) {
+            return type;
+        }
+        return types.computeIfAbsent(valueType,
+            cls -> TypeToken.getParameterized(Map.class, keyType, cls).getType());
+    }
+
+    private static Writer newWriter(OutputStream out) {
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    private static Reader newReader(Path file) {
+        try {
+            return Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
 }
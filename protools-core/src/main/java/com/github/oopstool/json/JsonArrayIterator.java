@@ -0,0 +1,117 @@
+package com.github.oopstool.json;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 逐个读取json数组元素的迭代器，任意时刻内存中只有当前元素，通过{@link GsonUtils#readArray}获取
+ * <p>
+ * 读取完最后一个元素后不会自动关闭，需要调用{@link #close()}关闭底层的Reader，建议使用try-with-resources。
+ * 异常与{@link com.google.gson.Gson#fromJson}一致：读取失败抛出{@link JsonIOException}，格式错误抛出{@link JsonSyntaxException}。
+ *
+ * @param <T> 元素类型
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+    private final JsonReader reader;
+    private final TypeAdapter<T> adapter;
+    private boolean started;
+    private boolean finished;
+
+    JsonArrayIterator(JsonReader reader, TypeAdapter<T> adapter) {
+        this.reader = reader;
+        this.adapter = adapter;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (finished) {
+            return false;
+        }
+        try {
+            if (!started) {
+                started = true;
+                // 与fromJson一致，整个文档为null时视为空数组
+                if (reader.peek() == JsonToken.NULL) {
+                    reader.nextNull();
+                    finished = true;
+                    return false;
+                }
+                reader.beginArray();
+            }
+            if (reader.hasNext()) {
+                return true;
+            }
+            reader.endArray();
+            finished = true;
+            return false;
+        } catch (IOException e) {
+            throw wrap(e);
+        } catch (IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            return adapter.read(reader);
+        } catch (IOException e) {
+            throw wrap(e);
+        } catch (IllegalStateException e) {
+            throw new JsonSyntaxException(e);
+        }
+    }
+
+    /**
+     * 转为顺序流，流关闭时关闭底层的Reader
+     *
+     * @return 流
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+            .onClose(this::closeUnchecked);
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        reader.close();
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private void closeUnchecked() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    private static RuntimeException wrap(IOException e) {
+        // 与fromJson一致，格式错误与意外结束都是语法错误
+        if (e instanceof MalformedJsonException || e instanceof EOFException) {
+            return new JsonSyntaxException(e);
+        }
+        return new JsonIOException(e);
+    }
+}
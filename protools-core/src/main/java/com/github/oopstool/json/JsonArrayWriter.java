@@ -0,0 +1,151 @@
+package com.github.oopstool.json;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonWriter;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+/**
+ * 逐个写出json数组元素的写入器，任意时刻内存中只有当前元素的序列化结果，通过{@link GsonUtils#newArrayWriter}获取
+ * <p>
+ * 写入第一个元素前写出"["，{@link #finish()}或{@link #close()}时写出"]"，两者的区别是close同时关闭底层的Writer。
+ * 写出失败抛出{@link JsonIOException}。
+ *
+ * <pre>
+ * try (JsonArrayWriter writer = GsonUtils.newArrayWriter(response.getOutputStream())) {
+ *     for (int page = 0; ; page++) {
+ *         List&lt;Row&gt; rows = dao.findPage(page, 1000);
+ *         if (rows.isEmpty()) {
+ *             break;
+ *         }
+ *         rows.forEach(writer::write);
+ *     }
+ * }
+ * </pre>
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public final class JsonArrayWriter implements Closeable, Flushable {
+
+    private final Gson gson;
+    private final Writer out;
+    private final JsonWriter writer;
+    private boolean started;
+    private boolean finished;
+    private long count;
+
+    JsonArrayWriter(Gson gson, Writer out) {
+        this.gson = gson;
+        this.out = out;
+        try {
+            this.writer = gson.newJsonWriter(out);
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    /**
+     * 写出一个元素
+     *
+     * @param element 元素，可以为null
+     * @return this
+     */
+    public JsonArrayWriter write(Object element) {
+        if (finished) {
+            throw new IllegalStateException("array already finished");
+        }
+        try {
+            start();
+            if (null == element) {
+                writer.nullValue();
+            } else {
+                gson.toJson(element, element.getClass(), writer);
+            }
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        count++;
+        return this;
+    }
+
+    /**
+     * 写出迭代器中剩余的所有元素
+     *
+     * @param elements 元素
+     * @return this
+     */
+    public JsonArrayWriter writeAll(Iterator<?> elements) {
+        while (elements.hasNext()) {
+            write(elements.next());
+        }
+        return this;
+    }
+
+    /**
+     * 已写出的元素个数
+     *
+     * @return 元素个数
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * 写出"]"并刷新，不关闭底层的Writer，重复调用无效
+     */
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        try {
+            start();
+            writer.endArray();
+            writer.flush();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+        finished = true;
+    }
+
+    /**
+     * 把已写出的元素刷新到底层的Writer
+     */
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new JsonIOException(e);
+        }
+    }
+
+    /**
+     * 写出"]"并关闭底层的Writer
+     */
+    @Override
+    public void close() {
+        try {
+            finish();
+        } finally {
+            try {
+                out.close();
+            } catch (IOException e) {
+                throw new JsonIOException(e);
+            }
+        }
+    }
+
+    // ------------------------------------------------------------------------------------------------------------------------------------ Private method start
+
+    private void start() throws IOException {
+        if (!started) {
+            writer.beginArray();
+            started = true;
+        }
+    }
+}
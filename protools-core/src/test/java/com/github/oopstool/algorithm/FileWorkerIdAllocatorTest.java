@@ -0,0 +1,177 @@
+package com.github.oopstool.algorithm;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileWorkerIdAllocatorTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void leaseTest() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        try (FileWorkerIdAllocator first = new FileWorkerIdAllocator(directory, 10000L);
+            FileWorkerIdAllocator second = new FileWorkerIdAllocator(directory, 10000L)) {
+            WorkerIdLease a = first.lease();
+            WorkerIdLease b = second.lease();
+            WorkerIdLease c = first.lease();
+            Assert.assertNotEquals(a.getWorkerId(), b.getWorkerId());
+            Assert.assertNotEquals(b.getWorkerId(), c.getWorkerId());
+            Assert.assertNotEquals(a.getWorkerId(), c.getWorkerId());
+
+            // 释放后等待宽限期才能被重新申请
+            first.release(a);
+            Assert.assertFalse(a.isValid(System.currentTimeMillis()));
+            WorkerIdLease d = second.lease();
+            Assert.assertNotEquals(a.getWorkerId(), d.getWorkerId());
+            Thread.sleep(FileWorkerIdAllocator.GRACE_MILLIS + 50);
+            WorkerIdLease e = second.lease();
+            Assert.assertEquals(a.getWorkerId(), e.getWorkerId());
+
+            long expireAt = c.getExpireAt();
+            Thread.sleep(5);
+            first.renew(c);
+            Assert.assertTrue(c.getExpireAt() > expireAt);
+        }
+    }
+
+    @Test
+    public void exhaustedTest() throws Exception {
+        SnowflakeLayout layout = SnowflakeLayout.builder().workerIdBits(1).build();
+        try (FileWorkerIdAllocator allocator = new FileWorkerIdAllocator(folder.getRoot().toPath(), 10000L, layout,
+            3L)) {
+            Assert.assertEquals(3L, allocator.lease().getDataCenterId());
+            allocator.lease();
+            try {
+                allocator.lease();
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                // 只有两个workerId
+            }
+        }
+    }
+
+    @Test
+    public void leasedIdGeneratorTest() throws Exception {
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        FileWorkerIdAllocator allocator = new FileWorkerIdAllocator(folder.getRoot().toPath(), 60000L);
+        try (LeasedIdGenerator generator = new LeasedIdGenerator(allocator, Snowflake::new, clock::get)) {
+            Snowflake snowflake = (Snowflake) generator.getDelegate();
+            long id = generator.nextId();
+            Assert.assertEquals(generator.getLease().getWorkerId(), snowflake.getWorkerId(id));
+            Assert.assertEquals(generator.getLease().getDataCenterId(), snowflake.getDataCenterId(id));
+
+            // 租约过期后拒绝生成
+            clock.set(generator.getLease().getExpireAt());
+            try {
+                generator.nextId();
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                Assert.assertTrue(e.getMessage().contains("lease expired"));
+            }
+        }
+    }
+
+    @Test
+    public void sameJvmProbeTest() throws Exception {
+        SnowflakeLayout layout = SnowflakeLayout.builder().workerIdBits(1).build();
+        Path directory = folder.getRoot().toPath();
+        try (FileWorkerIdAllocator first = new FileWorkerIdAllocator(directory, 10000L, layout, 0L);
+            FileWorkerIdAllocator second = new FileWorkerIdAllocator(directory, 10000L, layout, 0L)) {
+            Assert.assertEquals(0L, first.lease().getWorkerId());
+            Assert.assertEquals(1L, second.lease().getWorkerId());
+            // 第二次申请跳过了本JVM已加锁的文件，没有因关闭channel而释放其上的锁
+            Assert.assertEquals(1, tryLockInOtherProcess(directory.resolve("node-0-0.lease")));
+        }
+        Assert.assertEquals(0, tryLockInOtherProcess(directory.resolve("node-0-0.lease")));
+    }
+
+    @Test
+    public void renewFailureTest() throws Exception {
+        IllegalStateException failure = new IllegalStateException("renew failed");
+        WorkerIdAllocator allocator = new WorkerIdAllocator() {
+            @Override
+            public WorkerIdLease lease() {
+                return new WorkerIdLease(1L, 1L, System.currentTimeMillis() + 60L);
+            }
+
+            @Override
+            public void renew(WorkerIdLease lease) {
+                throw failure;
+            }
+
+            @Override
+            public void release(WorkerIdLease lease) {
+            }
+        };
+        try (LeasedIdGenerator generator = new LeasedIdGenerator(allocator, Snowflake::new)) {
+            generator.nextId();
+            Thread.sleep(200);
+            try {
+                generator.nextId();
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                Assert.assertSame(failure, e.getCause());
+            }
+        }
+    }
+
+    @Test
+    public void factoryFailureTest() {
+        AtomicLong released = new AtomicLong();
+        WorkerIdAllocator allocator = new WorkerIdAllocator() {
+            @Override
+            public WorkerIdLease lease() {
+                return new WorkerIdLease(1L, 1L, System.currentTimeMillis() + 60000L);
+            }
+
+            @Override
+            public void renew(WorkerIdLease lease) {
+            }
+
+            @Override
+            public void release(WorkerIdLease lease) {
+                released.incrementAndGet();
+            }
+        };
+        try {
+            new LeasedIdGenerator(allocator, (workerId, dataCenterId) -> {
+                throw new IllegalArgumentException("bad worker id");
+            });
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 生成器创建失败时归还租约
+            Assert.assertEquals(1L, released.get());
+        }
+    }
+
+    private static int tryLockInOtherProcess(Path file) throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+            FileWorkerIdAllocatorTest.class.getName(), file.toString())
+            .redirectOutput(new File("/dev/null")).redirectErrorStream(true).start();
+        Assert.assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+        return process.exitValue();
+    }
+
+    /**
+     * 在独立进程中尝试加锁，加锁成功时退出码为0
+     */
+    public static void main(String[] args) throws Exception {
+        try (FileChannel channel = FileChannel.open(Paths.get(args[0]), StandardOpenOption.WRITE)) {
+            FileLock lock = channel.tryLock();
+            System.exit(null == lock ? 1 : 0);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.github.oopstool.algorithm;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link IdCodec} 写入复用缓冲区与 {@link Long#toString(long)} 的对比，可加上 {@code -prof gc} 观察分配
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IdCodecBenchmark {
+
+    private final long id = new Snowflake(1, 1).nextId();
+
+    private final char[] chars = new char[IdCodec.DECIMAL.maxLength()];
+
+    private final byte[] bytes = new byte[IdCodec.DECIMAL.maxLength()];
+
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(IdCodec.DECIMAL.maxLength());
+
+    private final StringBuilder builder = new StringBuilder(64);
+
+    private final String decimal = Long.toString(id);
+
+    @Benchmark
+    public String longToString() {
+        return Long.toString(id);
+    }
+
+    @Benchmark
+    public int decimalChars() {
+        return IdCodec.DECIMAL.write(id, chars, 0);
+    }
+
+    @Benchmark
+    public int decimalBytes() {
+        return IdCodec.DECIMAL.write(id, bytes, 0);
+    }
+
+    @Benchmark
+    public int decimalByteBuffer() {
+        buffer.clear();
+        IdCodec.DECIMAL.write(id, buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public int decimalStringBuilder() {
+        builder.setLength(0);
+        return IdCodec.DECIMAL.append(id, builder).length();
+    }
+
+    @Benchmark
+    public int base62Chars() {
+        return IdCodec.BASE62.write(id, chars, 0);
+    }
+
+    @Benchmark
+    public int crockfordBase32Chars() {
+        return IdCodec.CROCKFORD_BASE32.write(id, chars, 0);
+    }
+
+    @Benchmark
+    public long longParseLong() {
+        return Long.parseLong(decimal);
+    }
+
+    @Benchmark
+    public long decimalParse() {
+        return IdCodec.DECIMAL.parse(decimal);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(IdCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+}
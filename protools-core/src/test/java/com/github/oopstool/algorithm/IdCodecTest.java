@@ -0,0 +1,94 @@
+package com.github.oopstool.algorithm;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IdCodecTest {
+
+    @Test
+    public void decimalTest() {
+        Assert.assertEquals(19, IdCodec.DECIMAL.maxLength());
+        char[] chars = new char[32];
+        byte[] bytes = new byte[32];
+        long[] samples = {0, 9, 10, 99, 100, 1234567890123L, Long.MAX_VALUE};
+        for (long id : samples) {
+            String expected = Long.toString(id);
+            Assert.assertEquals(expected, IdCodec.DECIMAL.encode(id));
+            int end = IdCodec.DECIMAL.write(id, chars, 3);
+            Assert.assertEquals(expected, new String(chars, 3, end - 3));
+            Assert.assertEquals(id, IdCodec.DECIMAL.parse(chars, 3, end - 3));
+            end = IdCodec.DECIMAL.write(id, bytes, 0);
+            Assert.assertEquals(id, IdCodec.DECIMAL.parse(bytes, 0, end));
+            Assert.assertEquals(expected, IdCodec.DECIMAL.append(id, new StringBuilder("id=")).substring(3));
+        }
+    }
+
+    @Test
+    public void roundTripTest() {
+        Random random = new Random(42);
+        Snowflake snowflake = new Snowflake(1, 1);
+        StringBuilder builder = new StringBuilder();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(64);
+        for (IdCodec codec : IdCodec.values()) {
+            for (int i = 0; i < 10000; i++) {
+                long id = i % 2 == 0 ? snowflake.nextId() : random.nextLong() & Long.MAX_VALUE;
+                Assert.assertEquals(expectedLength(id, codec.radix()), codec.length(id));
+
+                builder.setLength(0);
+                codec.append(id, builder);
+                Assert.assertEquals(id, codec.parse(builder));
+
+                buffer.clear();
+                codec.write(id, buffer);
+                int length = buffer.position();
+                buffer.flip();
+                Assert.assertEquals(id, codec.parse(buffer, length));
+                Assert.assertEquals(length, buffer.position());
+            }
+        }
+    }
+
+    @Test
+    public void orderTest() {
+        // 等长时字典序与数值顺序一致
+        Snowflake snowflake = new Snowflake(1, 1);
+        long first = snowflake.nextId();
+        long second = snowflake.nextId();
+        Assert.assertTrue(IdCodec.BASE62.encode(first).compareTo(IdCodec.BASE62.encode(second)) < 0);
+        Assert.assertTrue(
+            IdCodec.CROCKFORD_BASE32.encode(first).compareTo(IdCodec.CROCKFORD_BASE32.encode(second)) < 0);
+    }
+
+    @Test
+    public void crockfordAliasTest() {
+        Assert.assertEquals("Z", IdCodec.CROCKFORD_BASE32.encode(31));
+        Assert.assertEquals(IdCodec.CROCKFORD_BASE32.parse("10"), IdCodec.CROCKFORD_BASE32.parse("lo"));
+        Assert.assertEquals(IdCodec.CROCKFORD_BASE32.parse("1Z"), IdCodec.CROCKFORD_BASE32.parse("iz"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void illegalCharacterTest() {
+        IdCodec.CROCKFORD_BASE32.parse("1U");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void overflowTest() {
+        IdCodec.DECIMAL.parse("9223372036854775808");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeTest() {
+        IdCodec.DECIMAL.encode(-1);
+    }
+
+    private static int expectedLength(long id, int radix) {
+        int length = 1;
+        while (id >= radix) {
+            id /= radix;
+            length++;
+        }
+        return length;
+    }
+}
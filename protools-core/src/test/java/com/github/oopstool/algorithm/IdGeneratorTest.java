@@ -0,0 +1,60 @@
+package com.github.oopstool.algorithm;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IdGeneratorTest {
+
+    private static List<IdGenerator> generators() {
+        return Arrays.asList(new Snowflake(1, 1), new LockFreeSnowflake(1, 1), new StripedSnowflake(0, 1, 2),
+            new BatchingIdGenerator(new LockFreeSnowflake(1, 1), 256));
+    }
+
+    @Test
+    public void nextIdsTest() {
+        for (IdGenerator generator : generators()) {
+            long last = generator.nextId();
+            // 超过单毫秒4096的序列号空间
+            long[] ids = generator.nextIds(10000);
+            Assert.assertEquals(10000, ids.length);
+            for (long id : ids) {
+                Assert.assertTrue(generator.getClass().getSimpleName(), id > last);
+                last = id;
+            }
+            Assert.assertTrue(Long.parseLong(generator.nextIdStr()) > last);
+        }
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        for (final IdGenerator generator : generators()) {
+            final Set<Long> ids = ConcurrentHashMap.newKeySet();
+            final int threads = 4;
+            final int perThread = 20000;
+            final CountDownLatch latch = new CountDownLatch(threads);
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            for (int i = 0; i < threads; i++) {
+                executor.execute(() -> {
+                    for (int j = 0; j < perThread / 100; j++) {
+                        ids.add(generator.nextId());
+                        for (long id : generator.nextIds(99)) {
+                            ids.add(id);
+                        }
+                    }
+                    latch.countDown();
+                });
+            }
+            Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+            executor.shutdown();
+            Assert.assertEquals(generator.getClass().getSimpleName(), threads * perThread, ids.size());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.oopstool.algorithm;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LockFreeSnowflakeTest {
+
+    @Test
+    public void nextIdTest() {
+        LockFreeSnowflake idWorker = new LockFreeSnowflake(0, 0);
+        long last = idWorker.nextId();
+        Assert.assertTrue(last > 0);
+        for (int i = 0; i < 100000; i++) {
+            long id = idWorker.nextId();
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        final LockFreeSnowflake idWorker = new LockFreeSnowflake(3, 4);
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final int threads = 8;
+        final int perThread = 20000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    ids.add(idWorker.nextId());
+                }
+                latch.countDown();
+            });
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertEquals(threads * perThread, ids.size());
+    }
+
+    @Test
+    public void decodeTest() {
+        LockFreeSnowflake idWorker = new LockFreeSnowflake(1, 2);
+        Snowflake snowflake = new Snowflake(1, 2);
+        long nextId = idWorker.nextId();
+
+        Assert.assertEquals(1, idWorker.getWorkerId(nextId));
+        Assert.assertEquals(2, idWorker.getDataCenterId(nextId));
+        Assert.assertTrue(Math.abs(idWorker.getGenerateDateTime(nextId) - System.currentTimeMillis()) < 10);
+        // 位布局与Snowflake一致
+        Assert.assertEquals(snowflake.getGenerateDateTime(nextId), idWorker.getGenerateDateTime(nextId));
+        Assert.assertEquals(snowflake.getWorkerId(nextId), idWorker.getWorkerId(nextId));
+    }
+}
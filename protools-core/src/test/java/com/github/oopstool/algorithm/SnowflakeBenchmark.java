@@ -0,0 +1,77 @@
+package com.github.oopstool.algorithm;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link Snowflake} 与 {@link LockFreeSnowflake} 在1、8、64线程下的吞吐对比
+ * <p>
+ * 注意：单节点每毫秒最多4096个ID，线程数较多时两者都会受限于序列号空间，此时比较的主要是等待下一毫秒时的开销。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnowflakeBenchmark {
+
+    private final Snowflake snowflake = new Snowflake(1, 1);
+
+    private final LockFreeSnowflake lockFreeSnowflake = new LockFreeSnowflake(1, 1);
+
+    @Benchmark
+    @Threads(1)
+    public long synchronized01() {
+        return snowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long synchronized08() {
+        return snowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long synchronized64() {
+        return snowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long lockFree01() {
+        return lockFreeSnowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long lockFree08() {
+        return lockFreeSnowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long lockFree64() {
+        return lockFreeSnowflake.nextId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SnowflakeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
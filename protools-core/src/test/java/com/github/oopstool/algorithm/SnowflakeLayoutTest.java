@@ -0,0 +1,107 @@
+package com.github.oopstool.algorithm;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SnowflakeLayoutTest {
+
+    @Test
+    public void defaultLayoutTest() {
+        SnowflakeLayout layout = SnowflakeLayout.DEFAULT;
+        Assert.assertEquals(41, layout.getTimestampBits());
+        Assert.assertEquals(5, layout.getDataCenterIdBits());
+        Assert.assertEquals(5, layout.getWorkerIdBits());
+        Assert.assertEquals(12, layout.getSequenceBits());
+        Assert.assertEquals(22, layout.getTimestampShift());
+        Assert.assertEquals(4095, layout.getSequenceMask());
+
+        long id = layout.encode(123456789L, 7, 9, 100);
+        Assert.assertEquals(123456789L, layout.getTimestamp(id));
+        Assert.assertEquals(7, layout.getDataCenterId(id));
+        Assert.assertEquals(9, layout.getWorkerId(id));
+        Assert.assertEquals(100, layout.getSequence(id));
+    }
+
+    @Test
+    public void customLayoutTest() {
+        // 10位机器节点 + 10位序列号，时间戳占用剩余位
+        SnowflakeLayout layout = SnowflakeLayout.builder().dataCenterIdBits(0).workerIdBits(10).sequenceBits(10)
+            .build();
+        Assert.assertEquals(43, layout.getTimestampBits());
+        Assert.assertEquals(1023, layout.getMaxWorkerId());
+
+        Snowflake snowflake = new Snowflake(null, 1000, 0, layout);
+        HashSet<Long> ids = new HashSet<>();
+        long last = 0;
+        for (long id : snowflake.nextIds(5000)) {
+            Assert.assertTrue(id > last);
+            Assert.assertEquals(1000, snowflake.getWorkerId(id));
+            ids.add(id);
+            last = id;
+        }
+        Assert.assertEquals(5000, ids.size());
+        Assert.assertTrue(Math.abs(snowflake.getGenerateDateTime(last) - System.currentTimeMillis()) < 100);
+    }
+
+    @Test
+    public void coarseTimeUnitTest() {
+        // 10毫秒的时间单位，换取16位序列号
+        SnowflakeLayout layout = SnowflakeLayout.builder().timestampBits(37).sequenceBits(16)
+            .timeUnit(10, TimeUnit.MILLISECONDS).build();
+        LockFreeSnowflake snowflake = new LockFreeSnowflake(null, 3, 4, layout);
+        long id = snowflake.nextId();
+        Assert.assertEquals(3, snowflake.getWorkerId(id));
+        Assert.assertEquals(4, snowflake.getDataCenterId(id));
+        long time = snowflake.getGenerateDateTime(id);
+        Assert.assertEquals(0, (time - 1288834974657L) % 10);
+        Assert.assertTrue(Math.abs(time - System.currentTimeMillis()) < 20);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void overflowTest() {
+        SnowflakeLayout.builder().timestampBits(41).workerIdBits(10).sequenceBits(10).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void workerIdOutOfLayoutTest() {
+        SnowflakeLayout layout = SnowflakeLayout.builder().workerIdBits(3).build();
+        new Snowflake(null, 8, 0, layout);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stripeBitsOutOfLayoutTest() {
+        SnowflakeLayout layout = SnowflakeLayout.builder().workerIdBits(2).build();
+        new StripedSnowflake(null, 0, 0, 3, layout);
+    }
+
+    @Test
+    public void timestampRangeTest() {
+        // 10位毫秒时间戳只能使用约1秒
+        SnowflakeLayout layout = SnowflakeLayout.builder().timestampBits(10).build();
+        Date now = new Date();
+        Assert.assertTrue(new Snowflake(now, 1, 1, layout).nextId() > 0);
+
+        Date expired = new Date(now.getTime() - 5000);
+        List<IdGenerator> generators = Arrays.asList(new Snowflake(expired, 1, 1, layout),
+            new LockFreeSnowflake(expired, 1, 1, layout), new StripedSnowflake(expired, 1, 1, 2, layout));
+        for (IdGenerator generator : generators) {
+            try {
+                generator.nextId();
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                Assert.assertTrue(e.getMessage().contains("time range"));
+            }
+            try {
+                generator.nextIds(new long[16]);
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                Assert.assertTrue(e.getMessage().contains("time range"));
+            }
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.github.oopstool.algorithm;
 
 import com.google.common.hash.BloomFilter;
 import com.google.common.hash.Funnels;
+import java.io.ByteArrayInputStream;
+import java.io.ObjectInputStream;
 import java.nio.charset.Charset;
+import java.util.Base64;
 import java.util.HashSet;
 import org.junit.Assert;
 import org.junit.Test;
@@ -41,4 +44,43 @@ public class SnowflakeTest {
         Assert.assertEquals(2, idWorker.getDataCenterId(nextId));
         Assert.assertTrue(idWorker.getGenerateDateTime(nextId) - System.currentTimeMillis() < 10);
     }
+
+    @Test
+    public void nextIdsTest() {
+        Snowflake idWorker = new Snowflake(1, 2);
+        long first = idWorker.nextId();
+        // 超过单毫秒4096的序列号空间，需要跨越多个毫秒
+        long[] ids = idWorker.nextIds(10000);
+        Assert.assertEquals(10000, ids.length);
+        long last = first;
+        for (long id : ids) {
+            Assert.assertTrue(id > last);
+            Assert.assertEquals(1, idWorker.getWorkerId(id));
+            Assert.assertEquals(2, idWorker.getDataCenterId(id));
+            last = id;
+        }
+        Assert.assertTrue(idWorker.nextId() > last);
+        Assert.assertTrue(Math.abs(idWorker.getGenerateDateTime(last) - System.currentTimeMillis()) < 100);
+        Assert.assertEquals(0, idWorker.nextIds(0).length);
+    }
+
+    @Test
+    public void legacySerializationTest() throws Exception {
+        // 1.0.3序列化的Snowflake(3, 4)，生成过ID 2111782954799214592
+        String legacy = "rO0ABXNyACdjb20uZ2l0aHViLm9vcHN0b29sLmFsZ29yaXRobS5Tbm93Zmxha2UAAAAAAAAAAQIADkoADGRhdGFDZW50ZXJJZEoA"
+            + "EGRhdGFDZW50ZXJJZEJpdHNKABFkYXRhQ2VudGVySWRTaGlmdEoADWxhc3RUaW1lc3RhbXBKAA9tYXhEYXRhQ2VudGVySWRKAAtt"
+            + "YXhXb3JrZXJJZEoACHNlcXVlbmNlSgAMc2VxdWVuY2VCaXRzSgAMc2VxdWVuY2VNYXNrSgASdGltZXN0YW1wTGVmdFNoaWZ0SgAH"
+            + "dHdlcG9jaEoACHdvcmtlcklkSgAMd29ya2VySWRCaXRzSgANd29ya2VySWRTaGlmdHhwAAAAAAAAAAQAAAAAAAAABQAAAAAAAAAR"
+            + "AAABoU7Kpj8AAAAAAAAAHwAAAAAAAAAfAAAAAAAAAAAAAAAAAAAADAAAAAAAAA//AAAAAAAAABYAAAEsFI0DwQAAAAAAAAADAAAA"
+            + "AAAAAAUAAAAAAAAADA==";
+        Snowflake idWorker = (Snowflake) new ObjectInputStream(
+            new ByteArrayInputStream(Base64.getDecoder().decode(legacy))).readObject();
+        Assert.assertSame(SnowflakeLayout.DEFAULT, idWorker.getLayout());
+        Assert.assertNotNull(idWorker.getWaitStrategy());
+        Assert.assertNotNull(idWorker.getTimeSource());
+        long id = idWorker.nextId();
+        Assert.assertTrue(id > 2111782954799214592L);
+        Assert.assertEquals(3L, idWorker.getWorkerId(id));
+        Assert.assertEquals(4L, idWorker.getDataCenterId(id));
+    }
 }
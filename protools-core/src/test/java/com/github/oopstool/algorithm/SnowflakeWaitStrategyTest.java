@@ -0,0 +1,72 @@
+package com.github.oopstool.algorithm;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SnowflakeWaitStrategyTest {
+
+    @Test
+    public void busySpinTest() {
+        SnowflakeWaitStrategy strategy = SnowflakeWaitStrategy.busySpin();
+        AtomicLong clock = new AtomicLong(10);
+        // 时钟每读取一次前进一格，第3次读取时越过lastTimestamp
+        long next = strategy.awaitNextTick(11, () -> clock.getAndIncrement());
+        Assert.assertEquals(12, next);
+        Assert.assertEquals(1, strategy.getWaitCount());
+        Assert.assertEquals(2, strategy.getSpinCount());
+    }
+
+    @Test
+    public void parkTest() {
+        SnowflakeWaitStrategy strategy = SnowflakeWaitStrategy.park(1000);
+        AtomicLong clock = new AtomicLong(10);
+        long next = strategy.awaitNextTick(10, () -> clock.getAndIncrement());
+        Assert.assertEquals(11, next);
+        Assert.assertEquals(1, strategy.getParkCount());
+    }
+
+    @Test
+    public void borrowFutureTest() {
+        SnowflakeWaitStrategy strategy = SnowflakeWaitStrategy.borrowFuture(2, SnowflakeWaitStrategy.spinWait());
+        AtomicLong clock = new AtomicLong(10);
+        // 领先1格、2格时借用
+        Assert.assertEquals(11, strategy.awaitNextTick(10, clock::get));
+        Assert.assertEquals(12, strategy.awaitNextTick(11, clock::get));
+        Assert.assertEquals(2, strategy.getBorrowCount());
+        // 领先3格时超过上限，交给fallback等待时钟
+        clock.set(8);
+        Assert.assertEquals(14, strategy.awaitNextTick(12, () -> clock.addAndGet(2)));
+        Assert.assertEquals(2, strategy.getBorrowCount());
+        Assert.assertEquals(3, strategy.getWaitCount());
+        Assert.assertTrue(strategy.getSpinCount() > 0);
+    }
+
+    @Test
+    public void snowflakeBorrowTest() {
+        // 4位序列号，每毫秒只有16个，频繁用尽
+        SnowflakeLayout layout = SnowflakeLayout.builder().sequenceBits(4).build();
+        SnowflakeWaitStrategy strategy = SnowflakeWaitStrategy.borrowFuture(5, SnowflakeWaitStrategy.park(10000));
+        Snowflake snowflake = new Snowflake(null, 1, 1, layout, strategy);
+        long last = 0;
+        for (int i = 0; i < 2000; i++) {
+            long id = snowflake.nextId();
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+        Assert.assertTrue(strategy.getWaitCount() > 0);
+        Assert.assertTrue(strategy.getBorrowCount() > 0);
+        // 借用的时间不会超过时钟5毫秒
+        Assert.assertTrue(snowflake.getGenerateDateTime(last) - System.currentTimeMillis() <= 5);
+
+        LockFreeSnowflake lockFreeSnowflake = new LockFreeSnowflake(null, 1, 1, layout,
+            SnowflakeWaitStrategy.spinWait());
+        last = 0;
+        for (int i = 0; i < 2000; i++) {
+            long id = lockFreeSnowflake.nextId();
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+        Assert.assertTrue(lockFreeSnowflake.getWaitStrategy().getWaitCount() > 0);
+    }
+}
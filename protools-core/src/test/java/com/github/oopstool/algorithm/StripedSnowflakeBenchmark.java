@@ -0,0 +1,89 @@
+package com.github.oopstool.algorithm;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link StripedSnowflake} 的扩展性测试，与单个 {@link LockFreeSnowflake} 在1、2、4、8线程下对比
+ * <p>
+ * 单个生成器受限于每毫秒4096个ID，条带版本每个条带各有4096个，吞吐应随线程数近似线性增长（直到核数或条带数上限）。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StripedSnowflakeBenchmark {
+
+    private final LockFreeSnowflake lockFreeSnowflake = new LockFreeSnowflake(1, 1);
+
+    private final StripedSnowflake stripedSnowflake = new StripedSnowflake(0, 1, 3);
+
+    @Benchmark
+    @Threads(1)
+    public long lockFree1() {
+        return lockFreeSnowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public long lockFree2() {
+        return lockFreeSnowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long lockFree4() {
+        return lockFreeSnowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long lockFree8() {
+        return lockFreeSnowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long striped1() {
+        return stripedSnowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public long striped2() {
+        return stripedSnowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long striped4() {
+        return stripedSnowflake.nextId();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long striped8() {
+        return stripedSnowflake.nextId();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(StripedSnowflakeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
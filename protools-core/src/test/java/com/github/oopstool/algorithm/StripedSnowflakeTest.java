@@ -0,0 +1,60 @@
+package com.github.oopstool.algorithm;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StripedSnowflakeTest {
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        final StripedSnowflake idWorker = new StripedSnowflake(1, 5, 2);
+        Assert.assertEquals(4, idWorker.getStripeCount());
+        final Set<Long> ids = ConcurrentHashMap.newKeySet();
+        final Set<Integer> stripes = ConcurrentHashMap.newKeySet();
+        final int threads = 8;
+        final int perThread = 20000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                long last = 0;
+                for (int j = 0; j < perThread; j++) {
+                    long id = idWorker.nextId();
+                    // 同一线程内严格递增
+                    Assert.assertTrue(id > last);
+                    last = id;
+                    ids.add(id);
+                    stripes.add(idWorker.getStripe(id));
+                }
+                latch.countDown();
+            });
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assert.assertEquals(threads * perThread, ids.size());
+        Assert.assertEquals(4, stripes.size());
+    }
+
+    @Test
+    public void decodeTest() {
+        StripedSnowflake idWorker = new StripedSnowflake(3, 2, 2);
+        long nextId = idWorker.nextId();
+
+        Assert.assertEquals(3, idWorker.getWorkerId(nextId));
+        Assert.assertEquals(2, idWorker.getDataCenterId(nextId));
+        Assert.assertEquals(new Snowflake(0, 0).getWorkerId(nextId), (3 << 2) | idWorker.getStripe(nextId));
+        Assert.assertTrue(Math.abs(idWorker.getGenerateDateTime(nextId) - System.currentTimeMillis()) < 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void workerIdOverflowTest() {
+        // 划出3位条带后，workerId只剩2位
+        new StripedSnowflake(4, 0, 3);
+    }
+}
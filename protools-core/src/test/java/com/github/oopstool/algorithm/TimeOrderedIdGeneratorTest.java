@@ -0,0 +1,111 @@
+package com.github.oopstool.algorithm;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeOrderedIdGeneratorTest {
+
+    @Test
+    public void uuidTest() {
+        long now = System.currentTimeMillis();
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(TimeSource.system());
+        UUID last = generator.nextUuid();
+        Assert.assertEquals(7, last.version());
+        Assert.assertEquals(2, last.variant());
+        Assert.assertTrue(TimeOrderedIdGenerator.getGenerateDateTime(last) >= now);
+        String lastText = last.toString();
+        for (int i = 0; i < 100000; i++) {
+            UUID uuid = generator.nextUuid();
+            Assert.assertTrue(Long.compareUnsigned(uuid.getMostSignificantBits(), last.getMostSignificantBits()) > 0);
+            String text = generator.nextUuidStr();
+            Assert.assertEquals(UUID.fromString(text).toString(), text);
+            Assert.assertTrue(text.compareTo(lastText) > 0);
+            last = uuid;
+            lastText = text;
+        }
+    }
+
+    @Test
+    public void writeUuidTest() {
+        UUID uuid = UUID.randomUUID();
+        char[] buf = new char[TimeOrderedIdGenerator.UUID_LENGTH + 2];
+        int end = TimeOrderedIdGenerator
+            .writeUuid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), buf, 1);
+        Assert.assertEquals(buf.length - 1, end);
+        Assert.assertEquals(uuid.toString(), new String(buf, 1, TimeOrderedIdGenerator.UUID_LENGTH));
+    }
+
+    @Test
+    public void ulidTest() {
+        char[] buf = new char[TimeOrderedIdGenerator.ULID_LENGTH];
+        TimeOrderedIdGenerator.writeUlid(-1L, -1L, buf, 0);
+        Assert.assertEquals("7ZZZZZZZZZZZZZZZZZZZZZZZZZ", new String(buf));
+        TimeOrderedIdGenerator.writeUlid(0L, 1L, buf, 0);
+        Assert.assertEquals("00000000000000000000000001", new String(buf));
+
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        String last = generator.nextUlidStr();
+        for (int i = 0; i < 100000; i++) {
+            String text = generator.nextUlidStr();
+            Assert.assertTrue(text.compareTo(last) > 0);
+            UUID uuid = TimeOrderedIdGenerator.parseUlid(text.toLowerCase());
+            TimeOrderedIdGenerator.writeUlid(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits(), buf, 0);
+            Assert.assertEquals(text, new String(buf));
+            last = text;
+        }
+        try {
+            TimeOrderedIdGenerator.parseUlid("8ZZZZZZZZZZZZZZZZZZZZZZZZZ");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // 超出128位
+        }
+    }
+
+    @Test
+    public void nextIdsTest() {
+        AtomicLong clock = new AtomicLong(1000L);
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator(clock::get,
+            SnowflakeWaitStrategy.borrowFuture(10, SnowflakeWaitStrategy.busySpin()));
+        long[] ids = new long[2 * 5000];
+        generator.nextIds(ids);
+        for (int i = 2; i < ids.length; i += 2) {
+            Assert.assertTrue(ids[i] > ids[i - 2]);
+            Assert.assertEquals(2, new UUID(ids[i], ids[i + 1]).variant());
+        }
+        // 第4097个ID借用了下一毫秒
+        Assert.assertEquals(1001L, TimeOrderedIdGenerator.getGenerateDateTime(new UUID(ids[2 * 4096], 0L)));
+        Assert.assertEquals(1L, generator.getWaitStrategy().getBorrowCount());
+        // 时钟回拨时继续递增
+        clock.set(500L);
+        Assert.assertTrue(generator.nextUuid().getMostSignificantBits() > ids[ids.length - 2]);
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        TimeOrderedIdGenerator generator = new TimeOrderedIdGenerator();
+        // 同一生成器的高64位即唯一
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        int threads = 8;
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                long[] batch = new long[200];
+                for (int i = 0; i < 1000; i++) {
+                    ids.add(generator.nextUuid().getMostSignificantBits());
+                }
+                generator.nextIds(batch);
+                for (int i = 0; i < batch.length; i += 2) {
+                    ids.add(batch[i]);
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        Assert.assertEquals(threads * 1100, ids.size());
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.oopstool.algorithm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TimeSourceTest {
+
+    @Test
+    public void monotonicTest() {
+        TimeSource timeSource = TimeSource.monotonic();
+        Assert.assertTrue(Math.abs(timeSource.currentTimeMillis() - System.currentTimeMillis()) < 100);
+        long last = timeSource.currentTimeMillis();
+        for (int i = 0; i < 100000; i++) {
+            long now = timeSource.currentTimeMillis();
+            Assert.assertTrue(now >= last);
+            last = now;
+        }
+    }
+
+    @Test
+    public void cachedTest() throws InterruptedException {
+        TimeSource timeSource = TimeSource.cached();
+        long first = timeSource.currentTimeMillis();
+        Assert.assertTrue(Math.abs(first - System.currentTimeMillis()) < 100);
+        Thread.sleep(20);
+        // 后台线程持续刷新
+        Assert.assertTrue(timeSource.currentTimeMillis() > first);
+    }
+
+    @Test
+    public void snowflakeTest() throws Exception {
+        Snowflake snowflake = new Snowflake(null, 1, 2, SnowflakeLayout.DEFAULT, SnowflakeWaitStrategy.busySpin(),
+            TimeSource.cached());
+        long last = 0;
+        for (long id : snowflake.nextIds(10000)) {
+            Assert.assertTrue(id > last);
+            last = id;
+        }
+        Assert.assertTrue(Math.abs(snowflake.getGenerateDateTime(last) - System.currentTimeMillis()) < 100);
+
+        // 反序列化后仍是同一个时间源单例
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ObjectOutputStream(out).writeObject(snowflake);
+        Snowflake copy = (Snowflake) new ObjectInputStream(new ByteArrayInputStream(out.toByteArray())).readObject();
+        Assert.assertSame(TimeSource.cached(), copy.getTimeSource());
+    }
+
+    @Test
+    public void customSerializationTest() throws Exception {
+        AtomicLong clock = new AtomicLong(System.currentTimeMillis());
+        Snowflake plain = new Snowflake(null, 1, 2, SnowflakeLayout.DEFAULT, SnowflakeWaitStrategy.busySpin(),
+            clock::get);
+        try {
+            new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(plain);
+            Assert.fail();
+        } catch (NotSerializableException e) {
+            // 自定义时间源未实现Serializable
+        }
+        Snowflake serializable = new Snowflake(null, 1, 2, SnowflakeLayout.DEFAULT, SnowflakeWaitStrategy.busySpin(),
+            (TimeSource & Serializable) clock::get);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ObjectOutputStream(out).writeObject(serializable);
+        Snowflake copy = (Snowflake) new ObjectInputStream(new ByteArrayInputStream(out.toByteArray())).readObject();
+        Assert.assertEquals(clock.get(), copy.getTimeSource().currentTimeMillis());
+    }
+}
@@ -0,0 +1,117 @@
+package com.github.oopstool.cache;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BulkCacheLoaderTest {
+
+    private final List<Set<Integer>> calls = new CopyOnWriteArrayList<>();
+
+    private Map<Integer, String> loadAll(Set<Integer> keys) {
+        calls.add(keys);
+        Map<Integer, String> values = new HashMap<>();
+        for (Integer key : keys) {
+            // 负数模拟后端不存在的数据
+            if (key >= 0) {
+                values.put(key, "v" + key);
+            }
+        }
+        return values;
+    }
+
+    @Test
+    public void getAllTest() throws Exception {
+        LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+            .build(CacheUtils.fromBulk(this::loadAll));
+        cache.get(1);
+        Map<Integer, String> all = cache.getAll(Arrays.asList(1, 2, 3, 4));
+        Assert.assertEquals("v4", all.get(4));
+        Assert.assertEquals(2, calls.size());
+        // 已缓存的key不再加载
+        Assert.assertEquals(3, calls.get(1).size());
+    }
+
+    @Test
+    public void coalesceTest() throws Exception {
+        LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+            .build(CacheUtils.fromBulk(this::loadAll, 200, TimeUnit.MILLISECONDS, 1000));
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            int key = i;
+            new Thread(() -> {
+                try {
+                    start.await();
+                    Assert.assertEquals("v" + key, cache.get(key));
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                done.countDown();
+            }).start();
+        }
+        start.countDown();
+        Assert.assertTrue(done.await(5, TimeUnit.SECONDS));
+        Assert.assertEquals(threads, cache.size());
+        // 16个并发的未命中在窗口内合并为一次加载
+        Assert.assertEquals(1, calls.size());
+        Assert.assertEquals(threads, calls.get(0).size());
+    }
+
+    @Test
+    public void maxBatchSizeTest() throws Exception {
+        LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+            .build(CacheUtils.fromBulk(this::loadAll, 10, TimeUnit.SECONDS, 1));
+        long start = System.nanoTime();
+        Assert.assertEquals("v1", cache.get(1));
+        // 凑满后立即加载，不等待窗口结束
+        Assert.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void missingTest() {
+        LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+            .build(CacheUtils.fromBulk(this::loadAll, 1, TimeUnit.MILLISECONDS, 10));
+        try {
+            cache.getUnchecked(-1);
+            Assert.fail();
+        } catch (UncheckedExecutionException e) {
+            // 批量函数没有返回该key
+            Assert.assertTrue(e.getCause() instanceof InvalidCacheLoadException);
+        }
+        Assert.assertEquals("v2", cache.getUnchecked(2));
+    }
+
+    @Test
+    public void throwableTest() {
+        Throwable failure = new Throwable("neither exception nor error");
+        LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+            .build(CacheUtils.fromBulk(keys -> {
+                BulkCacheLoaderTest.<RuntimeException>sneakyThrow(failure);
+                return null;
+            }, 1, TimeUnit.MILLISECONDS, 10));
+        try {
+            cache.getUnchecked(1);
+            Assert.fail();
+        } catch (UncheckedExecutionException e) {
+            Assert.assertTrue(Throwables.getCausalChain(e).contains(failure));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T extends Throwable> void sneakyThrow(Throwable e) throws T {
+        throw (T) e;
+    }
+}
@@ -0,0 +1,85 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.LoadingCache;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * {@link CacheEngine#GUAVA} 与 {@link CacheEngine#CAFFEINE} 在Zipfian与Zipfian + scan访问序列下1、8线程的吞吐对比
+ * <p>
+ * 每个线程从序列中不同的位置开始回放，未命中时由loader直接返回key，因此比较的是缓存自身读、写与淘汰的开销。
+ * 命中率的对比见{@link CacheHitRateBenchmark}。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheEngineBenchmark {
+
+    private static final int MASK = (1 << 20) - 1;
+
+    @Param({"GUAVA", "CAFFEINE"})
+    public CacheEngine engine;
+
+    @Param({"zipfian", "scan"})
+    public String trace;
+
+    private long[] keys;
+
+    private LoadingCache<Long, Long> cache;
+
+    @Setup
+    public void setup() {
+        final long[] zipfian = CacheTraces.zipfian(100_000, 0.99, MASK + 1, 42L);
+        keys = "scan".equals(trace) ? CacheTraces.withScans(zipfian, 10_000, 5_000) : zipfian;
+        cache = CacheUtils.<Long, Long>newBuilder()
+            .engine(engine)
+            .maximumSize(1_000)
+            .build(CacheUtils.from(key -> key));
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int index = (int) (Thread.currentThread().getId() * 0x9E3779B9L) & MASK;
+
+        int next() {
+            return index++ & MASK;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long get01(Cursor cursor) {
+        return cache.getUnchecked(keys[cursor.next()]);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long get08(Cursor cursor) {
+        return cache.getUnchecked(keys[cursor.next()]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CacheEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+
+/**
+ * 回放访问序列，对比{@link CacheEngine#GUAVA}与{@link CacheEngine#CAFFEINE}的命中率
+ * <p>
+ * 命中率与机器无关，因此不使用JMH，直接运行main方法即可，单线程回放保证结果可复现：
+ * <ul>
+ *     <li>zipfian：100万次访问，10万个key，缓存1000条</li>
+ *     <li>zipfian + scan：在上面的序列中每1万次访问插入一次5000个冷key的顺序扫描</li>
+ * </ul>
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+public class CacheHitRateBenchmark {
+
+    private static final int ITEMS = 100_000;
+    private static final int LENGTH = 1_000_000;
+    private static final int MAXIMUM_SIZE = 1_000;
+
+    public static void main(String[] args) {
+        final long[] zipfian = CacheTraces.zipfian(ITEMS, 0.99, LENGTH, 42L);
+        final long[] scan = CacheTraces.withScans(zipfian, 10_000, 5_000);
+        System.out.printf("%-16s %-10s %10s%n", "trace", "engine", "hit rate");
+        for (CacheEngine engine : CacheEngine.values()) {
+            System.out.printf("%-16s %-10s %9.2f%%%n", "zipfian", engine, hitRate(engine, zipfian) * 100);
+        }
+        for (CacheEngine engine : CacheEngine.values()) {
+            System.out.printf("%-16s %-10s %9.2f%%%n", "zipfian + scan", engine, hitRate(engine, scan) * 100);
+        }
+    }
+
+    static double hitRate(CacheEngine engine, long[] trace) {
+        final LoadingCache<Long, Long> cache = CacheUtils.<Long, Long>newBuilder()
+            .engine(engine)
+            .maximumSize(MAXIMUM_SIZE)
+            .recordStats()
+            .build(CacheUtils.from(key -> key));
+        for (long key : trace) {
+            cache.getUnchecked(key);
+            // caffeine的淘汰在维护时批量进行，回放时及时执行以免超出容量
+            cache.cleanUp();
+        }
+        final CacheStats stats = cache.stats();
+        return stats.hitRate();
+    }
+}
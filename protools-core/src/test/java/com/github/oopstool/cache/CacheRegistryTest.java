@@ -0,0 +1,95 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.LoadingCache;
+import java.lang.management.ManagementFactory;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CacheRegistryTest {
+
+    @Test
+    public void snapshotTest() throws Exception {
+        LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+            .maximumSize(1)
+            .name("registry-snapshot")
+            .build(CacheUtils.from(key -> {
+                if (key < 0) {
+                    throw new IllegalArgumentException();
+                }
+                return "v" + key;
+            }));
+        try {
+            cache.get(1);
+            cache.get(1);
+            cache.get(2);
+            try {
+                cache.getUnchecked(-1);
+                Assert.fail();
+            } catch (RuntimeException expected) {
+            }
+
+            CacheSnapshot snapshot = CacheRegistry.snapshot("registry-snapshot");
+            Assert.assertEquals(1, snapshot.getSize());
+            Assert.assertEquals(1, snapshot.getStats().hitCount());
+            Assert.assertEquals(3, snapshot.getStats().missCount());
+            Assert.assertEquals(2, snapshot.getStats().loadSuccessCount());
+            Assert.assertEquals(1, snapshot.getStats().loadExceptionCount());
+            Assert.assertEquals(1, snapshot.getStats().evictionCount());
+            Assert.assertTrue(snapshot.getLoadLatencyMax() > 0);
+            Assert.assertTrue(snapshot.getLoadLatencyP50() <= snapshot.getLoadLatencyP99());
+            Assert.assertTrue(CacheRegistry.snapshots().containsKey("registry-snapshot"));
+        } finally {
+            CacheRegistry.unregister("registry-snapshot");
+        }
+        Assert.assertNull(CacheRegistry.snapshot("registry-snapshot"));
+    }
+
+    @Test
+    public void jmxTest() throws Exception {
+        Cache<String, String> cache = CacheUtils.<String, String>newBuilder().recordStats().build();
+        CacheRegistry.register("registry:jmx", cache);
+        try {
+            cache.put("a", "1");
+            cache.getIfPresent("a");
+            cache.getIfPresent("b");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("com.github.oopstool.cache:type=Cache,name=\"registry:jmx\"");
+            Assert.assertEquals(1L, server.getAttribute(name, "HitCount"));
+            Assert.assertEquals(1L, server.getAttribute(name, "MissCount"));
+            Assert.assertEquals(0.5, (Double) server.getAttribute(name, "HitRate"), 0.0001);
+            Assert.assertEquals(1L, server.getAttribute(name, "Size"));
+
+            try {
+                CacheRegistry.register("registry:jmx", cache);
+                Assert.fail();
+            } catch (IllegalArgumentException expected) {
+            }
+        } finally {
+            CacheRegistry.unregister("registry:jmx");
+        }
+        Assert.assertFalse(ManagementFactory.getPlatformMBeanServer()
+            .isRegistered(new ObjectName("com.github.oopstool.cache:type=Cache,name=\"registry:jmx\"")));
+    }
+
+    @Test
+    public void histogramTest() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Assert.assertEquals(1000, histogram.count());
+        Assert.assertEquals(1000000, histogram.max());
+        // 桶的相对误差不超过12.5%
+        Assert.assertEquals(500000, histogram.percentile(0.5), 500000 * 0.125);
+        Assert.assertEquals(990000, histogram.percentile(0.99), 990000 * 0.125);
+        for (long value = 0; value < 1 << 20; value += 7) {
+            int index = LatencyHistogram.index(value);
+            Assert.assertTrue(value <= LatencyHistogram.upperBound(index));
+            Assert.assertTrue(index == 0 || value > LatencyHistogram.upperBound(index - 1));
+        }
+        Assert.assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBound(LatencyHistogram.index(Long.MAX_VALUE)));
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.oopstool.cache;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 基准测试使用的访问序列
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+final class CacheTraces {
+
+    private CacheTraces() {
+    }
+
+    /**
+     * Zipfian分布的访问序列，key为0 ~ items - 1，越小的key越热
+     *
+     * @param items    key的个数
+     * @param exponent 倾斜程度，越大越集中
+     * @param length   序列长度
+     * @param seed     随机种子
+     * @return 访问序列
+     */
+    static long[] zipfian(int items, double exponent, int length, long seed) {
+        final double[] cdf = new double[items];
+        double sum = 0;
+        for (int i = 0; i < items; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cdf[i] = sum;
+        }
+        final Random random = new Random(seed);
+        final long[] trace = new long[length];
+        for (int i = 0; i < length; i++) {
+            final int index = Arrays.binarySearch(cdf, random.nextDouble() * sum);
+            trace[i] = index >= 0 ? index : Math.min(-index - 1, items - 1);
+        }
+        return trace;
+    }
+
+    /**
+     * 在Zipfian序列中周期性地插入顺序扫描，扫描的key只出现一次，模拟报表、全量同步等对缓存的污染
+     *
+     * @param zipfian    Zipfian序列
+     * @param period     每隔多少次访问插入一次扫描
+     * @param scanLength 每次扫描的长度
+     * @return 访问序列
+     */
+    static long[] withScans(long[] zipfian, int period, int scanLength) {
+        final long[] trace = new long[zipfian.length + zipfian.length / period * scanLength];
+        long scanKey = Long.MAX_VALUE / 2;
+        int index = 0;
+        for (int i = 0; i < zipfian.length; i++) {
+            trace[index++] = zipfian[i];
+            if ((i + 1) % period == 0) {
+                for (int j = 0; j < scanLength; j++) {
+                    trace[index++] = scanKey++;
+                }
+            }
+        }
+        return trace;
+    }
+}
@@ -6,10 +6,20 @@ import com.google.common.base.Supplier;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Assert;
 import org.junit.Test;
 
 
@@ -111,4 +121,66 @@ public class CacheUtilsTest {
 
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void fromAsync() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicInteger version = new AtomicInteger();
+        CountDownLatch reloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LoadingCache<String, String> cache = CacheUtils.<String, String>newBuilder()
+            .refreshAfterWrite(100, TimeUnit.MILLISECONDS)
+            .build(CacheUtils.fromAsync(key -> {
+                if (version.get() > 0) {
+                    reloading.countDown();
+                    Uninterruptibles.awaitUninterruptibly(release);
+                }
+                return key + version.getAndIncrement();
+            }, executor));
+        Assert.assertEquals("a0", cache.get("a"));
+        Thread.sleep(150);
+        // 刷新在executor上执行，调用线程直接返回旧值
+        Assert.assertEquals("a0", cache.get("a"));
+        Assert.assertTrue(reloading.await(1, TimeUnit.SECONDS));
+        Assert.assertEquals("a0", cache.get("a"));
+        release.countDown();
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        Assert.assertEquals("a1", cache.get("a"));
+    }
+
+    @Test
+    public void getAsync() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCache<String, String> cache = CacheUtils.<String, String>newBuilder()
+            .recordStats()
+            .build(CacheUtils.from(key -> {
+                loads.incrementAndGet();
+                if ("error".equals(key)) {
+                    throw new IllegalArgumentException(key);
+                }
+                return key + "A";
+            }));
+        CompletableFuture<String> first = CacheUtils.getAsync(cache, "1", executor);
+        Assert.assertEquals("1A", first.get(1, TimeUnit.SECONDS));
+        CompletableFuture<String> hit = CacheUtils.getAsync(cache, "1", executor);
+        Assert.assertTrue(hit.isDone());
+        Assert.assertEquals("1A", hit.get());
+        Assert.assertEquals(1, loads.get());
+        Assert.assertEquals(1, cache.stats().hitCount());
+
+        Map<String, String> all = CacheUtils.getAllAsync(cache, Arrays.asList("1", "2"), executor)
+            .get(1, TimeUnit.SECONDS);
+        Assert.assertEquals("2A", all.get("2"));
+        Assert.assertEquals(2, loads.get());
+
+        try {
+            CacheUtils.getAsync(cache, "error", executor).get(1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        executor.shutdown();
+    }
+}
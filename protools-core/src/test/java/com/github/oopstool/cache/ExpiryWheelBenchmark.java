@@ -0,0 +1,79 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.Cache;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 会话类缓存（大量key、短过期时间、读写混合）下底层过期队列与{@link LoadingCacheBuilder#expiryWheel}的吞吐对比
+ * <p>
+ * 每次操作写入一个新key并读取一个较早写入的key，过期时间1秒，稳定后缓存中约有每秒写入数个条目。
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpiryWheelBenchmark {
+
+    @Param({"queue", "wheel"})
+    public String expiry;
+
+    private Cache<Long, Long> cache;
+
+    @Setup
+    public void setup() {
+        final LoadingCacheBuilder<Long, Long> builder = CacheUtils.<Long, Long>newBuilder()
+            .expireAfterWrite(1, TimeUnit.SECONDS);
+        if ("wheel".equals(expiry)) {
+            builder.expiryWheel(10, TimeUnit.MILLISECONDS);
+        }
+        cache = builder.build();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private long next = Thread.currentThread().getId() << 40;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Long putGet01(Cursor cursor) {
+        return putGet(cursor);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Long putGet08(Cursor cursor) {
+        return putGet(cursor);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExpiryWheelBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private Long putGet(Cursor cursor) {
+        final long key = cursor.next++;
+        cache.put(key, key);
+        return cache.getIfPresent(key - 1024);
+    }
+}
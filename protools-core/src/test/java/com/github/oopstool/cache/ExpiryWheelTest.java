@@ -0,0 +1,141 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.ForwardingCache;
+import com.google.common.cache.LoadingCache;
+import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ExpiryWheelTest {
+
+    @Test
+    public void advanceTest() {
+        // ttl为0、tick为1纳秒，过期时间即写入时传入的时间
+        ExpiryWheel<Integer> wheel = new ExpiryWheel<>(0, 1);
+        long base = System.nanoTime();
+        Assert.assertTrue(wheel.advance(base).isEmpty());
+        // 覆盖各层及层与层的边界
+        long[] delays = {1, 63, 64, 65, 4095, 4096, 4097, 300000, (1L << 24) + 5};
+        for (int i = 0; i < delays.length; i++) {
+            wheel.written(i, base + delays[i]);
+        }
+        wheel.written(-1, base + 10);
+        wheel.invalidated(-1);
+        Assert.assertTrue(wheel.advance(base).isEmpty());
+        Assert.assertEquals(delays.length, wheel.size());
+        for (int i = 0; i < delays.length; i++) {
+            Assert.assertTrue(wheel.advance(base + delays[i] - 1).isEmpty());
+            Assert.assertEquals(Collections.singletonList(i), wheel.advance(base + delays[i]));
+        }
+        Assert.assertEquals(0, wheel.size());
+
+        // 重新写入推迟过期时间
+        wheel.written(1, base + delays[delays.length - 1] + 100);
+        wheel.written(1, base + delays[delays.length - 1] + 200);
+        Assert.assertTrue(wheel.advance(base + delays[delays.length - 1] + 199).isEmpty());
+        Assert.assertEquals(Collections.singletonList(1), wheel.advance(base + delays[delays.length - 1] + 200));
+    }
+
+    @Test
+    public void cacheTest() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+            .expireAfterWrite(100, TimeUnit.MILLISECONDS)
+            .expiryWheel(10, TimeUnit.MILLISECONDS)
+            .build(CacheUtils.from(key -> {
+                loads.incrementAndGet();
+                return "v" + key;
+            }));
+        Assert.assertEquals("v1", cache.get(1));
+        cache.put(2, "x");
+        Assert.assertEquals("v1", cache.get(1));
+        Assert.assertEquals(1, loads.get());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        // 到期后由后台线程删除
+        Assert.assertNull(cache.getIfPresent(1));
+        Assert.assertNull(cache.getIfPresent(2));
+        Assert.assertEquals("v1", cache.get(1));
+        Assert.assertEquals(2, loads.get());
+
+        Cache<Integer, String> manual = CacheUtils.<Integer, String>newBuilder()
+            .expireAfterWrite(100, TimeUnit.MILLISECONDS)
+            .expiryWheel(10, TimeUnit.MILLISECONDS)
+            .build();
+        manual.put(1, "a");
+        Assert.assertEquals("a", manual.getIfPresent(1));
+        deadline = System.currentTimeMillis() + 5000;
+        while (manual.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertNull(manual.getIfPresent(1));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void requiresExpireAfterWriteTest() {
+        CacheUtils.<Integer, String>newBuilder().expiryWheel(1, TimeUnit.SECONDS).build();
+    }
+
+    @Test
+    public void failureTest() throws Exception {
+        Cache<Integer, String> cache = new ForwardingCache.SimpleForwardingCache<Integer, String>(
+            CacheBuilder.newBuilder().build()) {
+            @Override
+            public void invalidateAll(Iterable<?> keys) {
+                throw new IllegalStateException("invalidate failed");
+            }
+        };
+        ExpiryWheel<Integer> wheel = new ExpiryWheel<>(0, TimeUnit.MILLISECONDS.toNanos(1));
+        wheel.start(cache);
+        wheel.written(1, System.nanoTime());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (wheel.failureCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        // 失败只计数，不中断后台线程
+        Assert.assertEquals(1, wheel.failureCount());
+        wheel.written(2, System.nanoTime());
+        deadline = System.currentTimeMillis() + 5000;
+        while (wheel.failureCount() == 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        Assert.assertEquals(2, wheel.failureCount());
+    }
+
+    @Test
+    public void failedReloadTest() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        AtomicInteger loads = new AtomicInteger();
+        try {
+            LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+                .expireAfterWrite(300, TimeUnit.MILLISECONDS)
+                .refreshAfterWrite(50, TimeUnit.MILLISECONDS)
+                .expiryWheel(10, TimeUnit.MILLISECONDS)
+                .build(CacheUtils.fromAsync(key -> {
+                    if (loads.incrementAndGet() > 1) {
+                        throw new IllegalStateException("reload failed");
+                    }
+                    return "v" + key;
+                }, executor));
+            long start = System.currentTimeMillis();
+            Assert.assertEquals("v1", cache.get(1));
+            // 刷新一直失败时旧值不会被续期，仍在写入后约300毫秒过期
+            while (null != cache.getIfPresent(1) && System.currentTimeMillis() - start < 1500) {
+                Thread.sleep(10);
+            }
+            Assert.assertNull(cache.getIfPresent(1));
+            Assert.assertTrue(System.currentTimeMillis() - start < 1000);
+            Assert.assertTrue(loads.get() > 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.LoadingCache;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class InvalidationBusTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static LoadingCache<Integer, String> newCache() {
+        return CacheUtils.<Integer, String>newBuilder().build(CacheUtils.from(key -> "v" + key));
+    }
+
+    private static void await(Cache<Integer, ?> cache, Integer key) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (null != cache.getIfPresent(key) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void inProcessTest() throws Exception {
+        InProcessInvalidationTransport transport = new InProcessInvalidationTransport();
+        LoadingCache<Integer, String> cache1 = newCache();
+        LoadingCache<Integer, String> cache2 = newCache();
+        try (InvalidationBus bus1 = new InvalidationBus(transport, 1, TimeUnit.HOURS, 2);
+            InvalidationBus bus2 = new InvalidationBus(transport)) {
+            bus1.bind("student", cache1, CacheCodec.gson(Integer.class));
+            bus2.bind("student", cache2, CacheCodec.gson(Integer.class));
+            for (int i = 0; i < 5; i++) {
+                cache1.get(i);
+                cache2.get(i);
+            }
+            bus1.invalidate("student", 1);
+            bus1.invalidate("student", 1);
+            bus1.invalidate("student", 2);
+            bus1.invalidate("student", 3);
+            // 本地立即失效，其它实例等批量发布
+            Assert.assertNull(cache1.getIfPresent(1));
+            Assert.assertEquals("v1", cache2.getIfPresent(1));
+            bus1.flush();
+            Assert.assertNull(cache2.getIfPresent(1));
+            Assert.assertNull(cache2.getIfPresent(2));
+            Assert.assertNull(cache2.getIfPresent(3));
+            Assert.assertEquals("v4", cache2.getIfPresent(4));
+            // 每批最多2条，同一批内重复的失效合并
+            Assert.assertEquals(3, bus1.publishedCount());
+            Assert.assertEquals(3, bus2.receivedCount());
+            Assert.assertEquals(0, bus1.receivedCount());
+
+            bus2.invalidateAll("student");
+            bus2.flush();
+            Assert.assertEquals(0, cache1.size());
+            Assert.assertEquals(0, cache2.size());
+        }
+    }
+
+    @Test
+    public void fileTest() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("student.inv");
+        LoadingCache<Integer, String> cache1 = newCache();
+        LoadingCache<Integer, String> cache2 = newCache();
+        try (InvalidationBus bus1 = new InvalidationBus(
+            new FileInvalidationTransport(file, 1024, 1, TimeUnit.MILLISECONDS));
+            InvalidationBus bus2 = new InvalidationBus(
+                new FileInvalidationTransport(file, 1024, 1, TimeUnit.MILLISECONDS))) {
+            bus1.bind("student", cache1, CacheCodec.gson(Integer.class));
+            bus2.bind("student", cache2, CacheCodec.gson(Integer.class));
+            // 反复绕过环形缓冲区的末尾
+            for (int i = 0; i < 300; i += 10) {
+                for (int j = i; j < i + 10; j++) {
+                    cache2.get(j);
+                    bus1.invalidate("student", j);
+                }
+                bus1.flush();
+                long deadline = System.currentTimeMillis() + 5000;
+                while (bus2.receivedCount() < i + 10 && System.currentTimeMillis() < deadline) {
+                    Thread.sleep(1);
+                }
+            }
+            Assert.assertEquals(300, bus2.receivedCount());
+            for (int i = 0; i < 300; i++) {
+                Assert.assertNull(cache2.getIfPresent(i));
+            }
+        }
+    }
+
+    @Test
+    public void lostTest() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("lost.inv");
+        LoadingCache<Integer, String> cache = newCache();
+        try (FileInvalidationTransport writer = new FileInvalidationTransport(file, 1024, 1, TimeUnit.HOURS);
+            InvalidationBus bus = new InvalidationBus(
+                new FileInvalidationTransport(file, 1024, 200, TimeUnit.MILLISECONDS))) {
+            bus.bind("student", cache, CacheCodec.gson(Integer.class));
+            cache.get(1);
+            // 在读者轮询之前写满不止一圈
+            for (int i = 0; i < 100; i++) {
+                writer.publish(1L, Collections.singletonList(new Invalidation("other", new byte[16])));
+            }
+            await(cache, 1);
+            Assert.assertNull(cache.getIfPresent(1));
+            Assert.assertEquals(0, bus.receivedCount());
+        }
+    }
+
+    @Test
+    public void publishFailureTest() throws Exception {
+        InProcessInvalidationTransport delegate = new InProcessInvalidationTransport();
+        AtomicBoolean failing = new AtomicBoolean(true);
+        InvalidationTransport transport = new InvalidationTransport() {
+            @Override
+            public void publish(long origin, List<Invalidation> batch) {
+                if (failing.get()) {
+                    throw new IllegalStateException("transport down");
+                }
+                delegate.publish(origin, batch);
+            }
+
+            @Override
+            public void subscribe(Listener listener) {
+                delegate.subscribe(listener);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        LoadingCache<Integer, String> cache = newCache();
+        try (InvalidationBus bus1 = new InvalidationBus(transport, 1, TimeUnit.HOURS, 10);
+            InvalidationBus bus2 = new InvalidationBus(delegate)) {
+            bus1.bind("student", newCache(), CacheCodec.gson(Integer.class));
+            bus2.bind("student", cache, CacheCodec.gson(Integer.class));
+            cache.get(1);
+            cache.get(2);
+            bus1.invalidate("student", 1);
+            try {
+                bus1.flush();
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                Assert.assertEquals(1, bus1.publishFailureCount());
+            }
+            // 发布失败的消息保留，恢复后与新消息一起发布
+            failing.set(false);
+            bus1.invalidate("student", 2);
+            bus1.flush();
+            Assert.assertNull(cache.getIfPresent(1));
+            Assert.assertNull(cache.getIfPresent(2));
+            Assert.assertEquals(2, bus1.publishedCount());
+        }
+    }
+
+    @Test
+    public void closeWhilePollingTest() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("close.inv");
+        try (FileInvalidationTransport writer = new FileInvalidationTransport(file, 1024, 1, TimeUnit.HOURS)) {
+            for (int i = 0; i < 20; i++) {
+                FileInvalidationTransport transport = new FileInvalidationTransport(file, 1024, 1,
+                    TimeUnit.MILLISECONDS);
+                writer.publish(1L, Collections.singletonList(new Invalidation("student", new byte[16])));
+                Thread.sleep(2);
+                transport.close();
+                // 关闭时进行中的轮询不计为失败
+                Assert.assertEquals(0, transport.pollFailureCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.github.oopstool.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.LoadingCache;
+import com.google.common.cache.RemovalCause;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoadingCacheBuilderTest {
+
+    @Test
+    public void maximumWeightTest() throws Exception {
+        List<RemovalCause> causes = new ArrayList<>();
+        LoadingCache<String, String> cache = CacheUtils.<String, String>newBuilder()
+            .maximumWeight(10)
+            .weigher((key, value) -> value.length())
+            // 单个分段，淘汰顺序可预期
+            .concurrencyLevel(1)
+            .removalListener(notification -> causes.add(notification.getCause()))
+            .build(CacheUtils.from(key -> key + key));
+        cache.get("aa");
+        cache.get("bb");
+        Assert.assertEquals(2, cache.size());
+        cache.get("ccc");
+        Assert.assertEquals(2, cache.size());
+        Assert.assertNull(cache.getIfPresent("aa"));
+        Assert.assertEquals(1, causes.size());
+        Assert.assertEquals(RemovalCause.SIZE, causes.get(0));
+    }
+
+    @Test
+    public void expireAfterAccessTest() throws Exception {
+        LoadingCache<String, String> cache = CacheUtils.<String, String>newBuilder()
+            .expireAfterAccess(300, TimeUnit.MILLISECONDS)
+            .build(CacheUtils.from(key -> key + "A"));
+        cache.get("1");
+        for (int i = 0; i < 5; i++) {
+            Thread.sleep(100);
+            // 持续访问不会过期
+            Assert.assertEquals("1A", cache.getIfPresent("1"));
+        }
+        Thread.sleep(400);
+        Assert.assertNull(cache.getIfPresent("1"));
+    }
+
+    @Test
+    public void recordStatsTest() throws Exception {
+        Cache<String, String> noStats = CacheUtils.<String, String>newBuilder().softValues().build();
+        noStats.put("1", "A");
+        noStats.getIfPresent("1");
+        noStats.getIfPresent("2");
+        Assert.assertEquals(0, noStats.stats().requestCount());
+
+        LoadingCache<String, String> stats = CacheUtils.<String, String>newBuilder()
+            .weakValues()
+            .recordStats()
+            .build(CacheUtils.from(key -> key + "A"));
+        stats.get("1");
+        stats.get("1");
+        Assert.assertEquals(2, stats.stats().requestCount());
+        Assert.assertEquals(1, stats.stats().hitCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void weigherRequiredTest() {
+        CacheUtils.<String, String>newBuilder().maximumWeight(10).build();
+    }
+
+    @Test
+    public void caffeineTest() throws Exception {
+        CountDownLatch removed = new CountDownLatch(1);
+        LoadingCache<String, String> cache = CacheUtils.<String, String>newBuilder()
+            .engine(CacheEngine.CAFFEINE)
+            .maximumWeight(10)
+            .weigher((key, value) -> value.length())
+            .removalListener(notification -> {
+                if (notification.getCause() == RemovalCause.SIZE) {
+                    removed.countDown();
+                }
+            })
+            .recordStats()
+            .build(CacheUtils.from(key -> key + key));
+        Assert.assertEquals("aaaa", cache.get("aa"));
+        Assert.assertEquals("aaaa", cache.get("aa"));
+        cache.get("bbb");
+        cache.get("ccc");
+        cache.cleanUp();
+        Assert.assertTrue(removed.await(5, TimeUnit.SECONDS));
+        Assert.assertTrue(cache.size() <= 2);
+        Assert.assertEquals(4, cache.stats().requestCount());
+        Assert.assertEquals(1, cache.stats().hitCount());
+    }
+
+    @Test
+    public void caffeineExpireTest() throws Exception {
+        Cache<String, String> cache = CacheUtils.<String, String>newBuilder()
+            .engine(CacheEngine.CAFFEINE)
+            .expireAfterWrite(200, TimeUnit.MILLISECONDS)
+            .build();
+        cache.put("1", "A");
+        Assert.assertEquals("A", cache.getIfPresent("1"));
+        Thread.sleep(300);
+        Assert.assertNull(cache.getIfPresent("1"));
+        Assert.assertEquals(0, cache.stats().requestCount());
+    }
+}
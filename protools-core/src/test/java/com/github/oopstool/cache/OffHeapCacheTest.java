@@ -0,0 +1,137 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.json.Student;
+import com.google.common.cache.LoadingCache;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapCacheTest {
+
+    @Test
+    public void putTest() {
+        OffHeapCache<Integer, Student> cache = new OffHeapCache<>(1024 * 1024, CacheCodec.gson(Student.class));
+        Student student = new Student();
+        student.setId(1);
+        student.setName("张三");
+        cache.put(1, student);
+        Student cached = cache.getIfPresent(1);
+        Assert.assertNotSame(student, cached);
+        Assert.assertEquals("张三", cached.getName());
+        Assert.assertNull(cache.getIfPresent(2));
+
+        student.setName("李四");
+        cache.put(1, student);
+        Assert.assertEquals("李四", cache.getIfPresent(1).getName());
+        Assert.assertEquals(1, cache.size());
+
+        cache.invalidate(1);
+        Assert.assertNull(cache.getIfPresent(1));
+        Assert.assertEquals(2, cache.stats().missCount());
+    }
+
+    @Test
+    public void evictionTest() {
+        // 4个slab，每个可以放10个条目
+        OffHeapCache<Integer, String> cache = new OffHeapCache<>(4 * 220, 220, CacheCodec.string());
+        String value = "0123456789";
+        for (int i = 0; i < 40; i++) {
+            cache.put(i, value);
+        }
+        Assert.assertEquals(40, cache.size());
+        Assert.assertEquals(0, cache.stats().evictionCount());
+        // 第41个条目覆盖最早的slab，淘汰其中的10个条目
+        cache.put(40, value);
+        Assert.assertEquals(31, cache.size());
+        Assert.assertEquals(10, cache.stats().evictionCount());
+        Assert.assertNull(cache.getIfPresent(0));
+        Assert.assertNull(cache.getIfPresent(9));
+        Assert.assertEquals(value, cache.getIfPresent(10));
+        Assert.assertEquals(value, cache.getIfPresent(40));
+
+        // 超过slab大小的value不缓存
+        cache.put(10, new String(new char[300]));
+        Assert.assertNull(cache.getIfPresent(10));
+
+        cache.invalidateAll();
+        Assert.assertEquals(0, cache.size());
+        cache.put(1, value);
+        Assert.assertEquals(value, cache.getIfPresent(1));
+    }
+
+    @Test
+    public void concurrentTest() throws InterruptedException {
+        OffHeapCache<Integer, String> cache = new OffHeapCache<>(8 * 1024, 1024, CacheCodec.string());
+        AtomicInteger errors = new AtomicInteger();
+        int threads = 4;
+        CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            new Thread(() -> {
+                for (int i = 0; i < 20000; i++) {
+                    int key = (i * 31 + seed) % 500;
+                    if (i % 3 == 0) {
+                        cache.put(key, "value-" + key);
+                    } else {
+                        String value = cache.getIfPresent(key);
+                        if (null != value && !value.equals("value-" + key)) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }
+                latch.countDown();
+            }).start();
+        }
+        Assert.assertTrue(latch.await(30, TimeUnit.SECONDS));
+        Assert.assertEquals(0, errors.get());
+        Assert.assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    @Test
+    public void secondLevelTest() throws Exception {
+        OffHeapCache<Integer, String> l2 = new OffHeapCache<>(1024 * 1024, CacheCodec.string());
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+            .maximumSize(1)
+            .secondLevel(l2)
+            .build(CacheUtils.from(key -> {
+                loads.incrementAndGet();
+                return "v" + key;
+            }));
+        Assert.assertEquals("v1", cache.get(1));
+        Assert.assertEquals("v2", cache.get(2));
+        Assert.assertEquals(2, l2.size());
+        // 1已被一级缓存淘汰，从二级缓存取回
+        Assert.assertEquals("v1", cache.get(1));
+        Assert.assertEquals(2, loads.get());
+
+        cache.put(3, "x");
+        Assert.assertEquals("x", l2.getIfPresent(3));
+        cache.invalidate(1);
+        Assert.assertNull(l2.getIfPresent(1));
+        Assert.assertEquals("v1", cache.get(1));
+        Assert.assertEquals(3, loads.get());
+        cache.invalidateAll();
+        Assert.assertEquals(0, l2.size());
+    }
+
+    @Test
+    public void secondLevelExpireTest() throws Exception {
+        OffHeapCache<Integer, String> l2 = new OffHeapCache<>(1024 * 1024, CacheCodec.string());
+        AtomicInteger loads = new AtomicInteger();
+        LoadingCache<Integer, String> cache = CacheUtils.<Integer, String>newBuilder()
+            .expireAfterWrite(100, TimeUnit.MILLISECONDS)
+            .secondLevel(l2)
+            .build(CacheUtils.from(key -> "v" + key + "-" + loads.incrementAndGet()));
+        Assert.assertEquals("v1-1", cache.get(1));
+        Assert.assertEquals("v1-1", l2.getIfPresent(1, TimeUnit.MILLISECONDS.toNanos(100)));
+        Thread.sleep(150);
+        // 一级缓存已过期，二级缓存中的旧值同样过期，需要重新加载
+        Assert.assertNull(l2.getIfPresent(1, TimeUnit.MILLISECONDS.toNanos(100)));
+        Assert.assertEquals("v1-2", cache.get(1));
+        Assert.assertEquals(2, loads.get());
+        Assert.assertEquals("v1-2", l2.getIfPresent(1));
+    }
+}
@@ -0,0 +1,194 @@
+package com.github.oopstool.cache;
+
+import com.github.oopstool.json.Student;
+import com.google.common.cache.LoadingCache;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class PersistentCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PersistentCache<String, String> open(Path file, long maximumBytes, long expireAfterWriteMillis) {
+        return new PersistentCache<>(file, maximumBytes, expireAfterWriteMillis, TimeUnit.MILLISECONDS,
+            CacheCodec.string(), CacheCodec.string());
+    }
+
+    @Test
+    public void reopenTest() {
+        Path file = folder.getRoot().toPath().resolve("cache.log");
+        try (PersistentCache<String, String> cache = open(file, 4096, 0)) {
+            cache.put("a", "1");
+            cache.put("b", "2");
+            cache.put("a", "3");
+            cache.put("c", "4");
+            cache.invalidate("c");
+            Assert.assertEquals("3", cache.getIfPresent("a"));
+            Assert.assertEquals(2, cache.size());
+        }
+        try (PersistentCache<String, String> cache = open(file, 4096, 0)) {
+            // 重启后从日志重建索引，覆盖与删除同样生效
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals("3", cache.getIfPresent("a"));
+            Assert.assertEquals("2", cache.getIfPresent("b"));
+            Assert.assertNull(cache.getIfPresent("c"));
+            cache.invalidateAll();
+            cache.put("d", "5");
+        }
+        try (PersistentCache<String, String> cache = open(file, 4096, 0)) {
+            Assert.assertEquals(1, cache.size());
+            Assert.assertEquals("5", cache.getIfPresent("d"));
+        }
+    }
+
+    @Test
+    public void expireAfterWriteTest() throws InterruptedException {
+        Path file = folder.getRoot().toPath().resolve("cache.log");
+        try (PersistentCache<String, String> cache = open(file, 4096, 200)) {
+            cache.put("a", "1");
+            Assert.assertEquals("1", cache.getIfPresent("a"));
+        }
+        Thread.sleep(300);
+        try (PersistentCache<String, String> cache = open(file, 4096, 200)) {
+            // 过期时间以写入时间计，重启不会重置
+            Assert.assertNull(cache.getIfPresent("a"));
+            cache.put("b", "2");
+            Thread.sleep(100);
+            // 调用方要求的时长短于本实例的过期时间
+            Assert.assertNull(cache.getIfPresent("b", TimeUnit.MILLISECONDS.toNanos(50)));
+            Assert.assertEquals("2", cache.getIfPresent("b", TimeUnit.MILLISECONDS.toNanos(150)));
+            Thread.sleep(200);
+            Assert.assertNull(cache.getIfPresent("b"));
+        }
+    }
+
+    @Test
+    public void compactTest() {
+        Path file = folder.getRoot().toPath().resolve("cache.log");
+        // 每条记录16 + 3 + 10 = 29字节
+        try (PersistentCache<String, String> cache = open(file, 8 + 29 * 20, 0)) {
+            for (int i = 0; i < 20; i++) {
+                cache.put("k" + (i % 5 + 10), "0123456789");
+            }
+            Assert.assertEquals(5, cache.size());
+            // 日志已满，覆盖写入的旧记录被压缩掉
+            cache.put("k10", "0123456789");
+            Assert.assertEquals(5, cache.size());
+            Assert.assertEquals(0, cache.stats().evictionCount());
+            for (int i = 0; i < 40; i++) {
+                cache.put("k" + (i + 20), "0123456789");
+            }
+            // 有效记录超过一半时按写入顺序淘汰
+            Assert.assertTrue(cache.stats().evictionCount() > 0);
+            Assert.assertEquals("0123456789", cache.getIfPresent("k59"));
+            Assert.assertNull(cache.getIfPresent("k10"));
+        }
+        try (PersistentCache<String, String> cache = open(file, 8 + 29 * 20, 0)) {
+            Assert.assertEquals("0123456789", cache.getIfPresent("k59"));
+        }
+    }
+
+    @Test
+    public void secondLevelTest() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("student.log");
+        AtomicInteger loads = new AtomicInteger();
+        for (int restart = 0; restart < 2; restart++) {
+            try (PersistentCache<Integer, Student> l2 = new PersistentCache<>(file, 1024 * 1024, 1, TimeUnit.HOURS,
+                CacheCodec.gson(Integer.class), CacheCodec.gson(Student.class))) {
+                LoadingCache<Integer, Student> cache = CacheUtils.<Integer, Student>newBuilder()
+                    .expireAfterWrite(1, TimeUnit.HOURS)
+                    .secondLevel(l2)
+                    .build(CacheUtils.from(id -> {
+                        loads.incrementAndGet();
+                        Student student = new Student();
+                        student.setId(id);
+                        student.setName("张三");
+                        return student;
+                    }));
+                Assert.assertEquals("张三", cache.get(1).getName());
+            }
+        }
+        // 重启后从文件取回，不再调用loader
+        Assert.assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void tornRecordTest() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("torn.log");
+        try (PersistentCache<String, String> cache = open(file, 4096, 0)) {
+            cache.put("a", "1");
+            cache.put("b", "2");
+            cache.put("c", "3");
+        }
+        // 文件头8字节，每条记录16 + 1 + 1 = 18字节；第二条记录的key长度损坏
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 1 << 20), 8 + 18 + 4);
+        }
+        try (PersistentCache<String, String> cache = open(file, 4096, 0)) {
+            // 损坏处视为日志末尾，之后的记录被丢弃
+            Assert.assertEquals(1, cache.size());
+            Assert.assertEquals("1", cache.getIfPresent("a"));
+            Assert.assertNull(cache.getIfPresent("b"));
+            cache.put("d", "4");
+        }
+        try (PersistentCache<String, String> cache = open(file, 4096, 0)) {
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals("4", cache.getIfPresent("d"));
+        }
+    }
+
+    @Test
+    public void undecodableKeyTest() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("key.log");
+        try (PersistentCache<Integer, String> cache = new PersistentCache<>(file, 4096, 0, TimeUnit.MILLISECONDS,
+            CacheCodec.gson(Integer.class), CacheCodec.string())) {
+            cache.put(1, "1");
+            cache.put(2, "2");
+        }
+        // 第二条记录的key改为无法解码的内容
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'x'}), 8 + 18 + 16);
+        }
+        try (PersistentCache<Integer, String> cache = new PersistentCache<>(file, 4096, 0, TimeUnit.MILLISECONDS,
+            CacheCodec.gson(Integer.class), CacheCodec.string())) {
+            Assert.assertEquals(1, cache.size());
+            Assert.assertEquals("1", cache.getIfPresent(1));
+        }
+    }
+
+    @Test
+    public void exclusiveTest() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("exclusive.log");
+        try (PersistentCache<String, String> cache = open(file, 4096, 0)) {
+            cache.put("a", "1");
+            try {
+                open(file.getParent().resolve(".").resolve("exclusive.log"), 4096, 0);
+                Assert.fail();
+            } catch (IllegalStateException e) {
+                // 同一个文件只能由一个实例打开
+            }
+            Assert.assertEquals("1", cache.getIfPresent("a"));
+            // 压缩替换文件后仍然持有新文件的锁
+            cache.compact();
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                channel.tryLock();
+                Assert.fail();
+            } catch (OverlappingFileLockException e) {
+                // 本JVM已持有
+            }
+        }
+        try (PersistentCache<String, String> cache = open(file, 4096, 0)) {
+            Assert.assertEquals("1", cache.getIfPresent("a"));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.oopstool.cache;
+
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SingleFlightTest {
+
+    @Test
+    public void executeTest() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> leader = executor.submit(() -> flight.execute("a", () -> {
+                started.countDown();
+                release.await();
+                return calls.incrementAndGet();
+            }));
+            Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Integer> follower1 = executor.submit(() -> flight.execute("a", calls::incrementAndGet));
+            Future<Integer> follower2 = executor.submit(() -> flight.execute("a", calls::incrementAndGet));
+            while (flight.sharedCount() < 2) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+            Assert.assertEquals(1, (int) leader.get());
+            Assert.assertEquals(1, (int) follower1.get());
+            Assert.assertEquals(1, (int) follower2.get());
+            Assert.assertEquals(1, flight.executionCount());
+            Assert.assertEquals(0, flight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+        // 完成后不保留结果
+        Assert.assertEquals(2, (int) flight.execute("a", calls::incrementAndGet));
+        Assert.assertEquals(2, flight.executionCount());
+    }
+
+    @Test
+    public void exceptionTest() {
+        SingleFlight<String, Integer> flight = new SingleFlight<>();
+        try {
+            flight.execute("a", () -> {
+                throw new IllegalStateException("boom");
+            });
+            Assert.fail();
+        } catch (UncheckedExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+        } catch (ExecutionException e) {
+            Assert.fail();
+        }
+        try {
+            flight.execute("a", () -> {
+                throw new Exception("checked");
+            });
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertEquals("checked", e.getCause().getMessage());
+        }
+        Assert.assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    public void executeAsyncTest() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>();
+        CompletableFuture<String> source = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> first = flight.executeAsync("a", () -> {
+            calls.incrementAndGet();
+            return source;
+        });
+        CompletableFuture<String> second = flight.executeAsync("a", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        // 取消一个调用者不影响其它调用者
+        first.cancel(false);
+        Assert.assertEquals(1, flight.inFlight());
+        source.complete("v");
+        Assert.assertEquals("v", second.get(5, TimeUnit.SECONDS));
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals(1, flight.sharedCount());
+        Assert.assertEquals(0, flight.inFlight());
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Assert.assertEquals("x", flight.executeAsync("b", () -> "x", executor).get(5, TimeUnit.SECONDS));
+            try {
+                flight.executeAsync("b", () -> {
+                    throw new IllegalArgumentException();
+                }, executor).get(5, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalArgumentException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.github.oopstool.json;
+
+import com.google.common.collect.Lists;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.annotations.SerializedName;
+import com.google.gson.TypeAdapter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AccessorTypeAdapterFactoryTest {
+
+    private final Gson reflective = new GsonBuilder().serializeNulls().create();
+    private final Gson generated = new GsonBuilder().serializeNulls()
+        .registerTypeAdapterFactory(new AccessorTypeAdapterFactory()).create();
+
+    @Test
+    public void studentTest() {
+        Assert.assertTrue(isGenerated(generated.getAdapter(Student.class)));
+        Student student = new Student(1, "张三", 23, null);
+        String json = generated.toJson(student);
+        Assert.assertEquals(reflective.toJson(student), json);
+        Student read = generated.fromJson("{\"id\":1,\"name\":\"张三\",\"unknown\":[1,{}],\"age\":null}", Student.class);
+        Assert.assertEquals(1, (int) read.getId());
+        Assert.assertEquals("张三", read.getName());
+        Assert.assertNull(read.getAge());
+        Assert.assertNull(generated.fromJson("null", Student.class));
+        Assert.assertEquals(reflective.toJson(Lists.newArrayList(student, null)),
+            generated.toJson(Lists.newArrayList(student, null)));
+        Assert.assertEquals("{\"id\":1,\"name\":\"张三\",\"age\":23}",
+            new GsonBuilder().registerTypeAdapterFactory(new AccessorTypeAdapterFactory()).create().toJson(student));
+    }
+
+    @Test
+    public void dtoTest() {
+        Dto dto = new Dto();
+        dto.setCount(3);
+        dto.setActive(true);
+        dto.setLabel("x");
+        dto.setSecret("s");
+        dto.setStudents(Lists.newArrayList(new Student(1, "张三", 23, "男")));
+        dto.setAny(new Student(2, "李四", 24, null));
+        dto.setBase(7L);
+        Assert.assertTrue(isGenerated(generated.getAdapter(Dto.class)));
+        String json = generated.toJson(dto);
+        Assert.assertEquals(reflective.toJson(dto), json);
+        Assert.assertFalse(json.contains("secret"));
+
+        Dto read = generated.fromJson(json, Dto.class);
+        Assert.assertEquals(3, read.getCount());
+        Assert.assertTrue(read.isActive());
+        Assert.assertEquals("x", read.getLabel());
+        Assert.assertNull(read.getSecret());
+        Assert.assertEquals("张三", read.getStudents().get(0).getName());
+        Assert.assertEquals(7L, (long) read.getBase());
+        // 备用名与null不覆盖基本类型
+        Dto alternate = generated.fromJson("{\"l\":\"y\",\"count\":null}", Dto.class);
+        Assert.assertEquals("y", alternate.getLabel());
+        Assert.assertEquals(0, alternate.getCount());
+    }
+
+    @Test
+    public void fallbackTest() {
+        Assert.assertFalse(isGenerated(generated.getAdapter(NoSetter.class)));
+        NoSetter noSetter = new NoSetter();
+        Assert.assertEquals(reflective.toJson(noSetter), generated.toJson(noSetter));
+    }
+
+    @Test
+    public void createTest() {
+        // 创建adapter时不调用构造方法与getter/setter
+        Assert.assertTrue(isGenerated(generated.getAdapter(Counted.class)));
+        Assert.assertEquals(0, Counted.instances);
+        Assert.assertEquals("{\"name\":\"c\"}", generated.toJson(generated.fromJson("{\"name\":\"c\"}", Counted.class)));
+        Assert.assertEquals(1, Counted.instances);
+    }
+
+    @Test
+    public void childClassLoaderTest() throws Exception {
+        // 由子ClassLoader重新定义的Student，对本工厂的ClassLoader不可见
+        Class<?> cls = new ChildFirstClassLoader(Student.class.getName()).loadClass(Student.class.getName());
+        Assert.assertNotSame(Student.class, cls);
+        Assert.assertFalse(isGenerated(generated.getAdapter(cls)));
+        Object student = cls.getConstructor(Integer.class, String.class, Integer.class, String.class)
+            .newInstance(1, "张三", 23, null);
+        Assert.assertEquals(reflective.toJson(student), generated.toJson(student));
+        Assert.assertSame(cls, generated.fromJson("{\"id\":1}", cls).getClass());
+    }
+
+    private static boolean isGenerated(TypeAdapter<?> adapter) {
+        return adapter.getClass().getEnclosingClass() == AccessorTypeAdapterFactory.class;
+    }
+
+    public static class Base {
+
+        private Long base;
+
+        public Long getBase() {
+            return base;
+        }
+
+        public void setBase(Long base) {
+            this.base = base;
+        }
+    }
+
+    @GenerateAdapter
+    public static class Dto extends Base {
+
+        private int count;
+        private boolean active;
+        @SerializedName(value = "labelText", alternate = "l")
+        private String label;
+        private transient String secret;
+        private List<Student> students;
+        private Object any;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public boolean isActive() {
+            return active;
+        }
+
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public List<Student> getStudents() {
+            return students;
+        }
+
+        public void setStudents(List<Student> students) {
+            this.students = students;
+        }
+
+        public Object getAny() {
+            return any;
+        }
+
+        public void setAny(Object any) {
+            this.any = any;
+        }
+    }
+
+    @GenerateAdapter
+    public static class NoSetter {
+
+        private String name = "n";
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @GenerateAdapter
+    public static class Counted {
+
+        private static int instances;
+
+        private String name;
+
+        public Counted() {
+            instances++;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    private static final class ChildFirstClassLoader extends ClassLoader {
+
+        private final String name;
+
+        ChildFirstClassLoader(String name) {
+            super(ChildFirstClassLoader.class.getClassLoader());
+            this.name = name;
+        }
+
+        @Override
+        protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+            if (!name.equals(className)) {
+                return super.loadClass(className, resolve);
+            }
+            synchronized (getClassLoadingLock(className)) {
+                Class<?> cls = findLoadedClass(className);
+                if (null == cls) {
+                    try (InputStream in = getParent().getResourceAsStream(className.replace('.', '/') + ".class")) {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        byte[] buffer = new byte[4096];
+                        for (int n; (n = in.read(buffer)) > 0; ) {
+                            bytes.write(buffer, 0, n);
+                        }
+                        cls = defineClass(className, bytes.toByteArray(), 0, bytes.size());
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(className, e);
+                    }
+                }
+                return cls;
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.oopstool.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Gson反射实现（reflective）与{@link AccessorTypeAdapterFactory}生成的TypeAdapter（generated）序列化、反序列化{@link Student}的吞吐对比
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonAdapterBenchmark {
+
+    @Param({"reflective", "generated"})
+    public String adapter;
+
+    private Gson gson;
+
+    private Student student;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        final GsonBuilder builder = new GsonBuilder().serializeNulls();
+        if ("generated".equals(adapter)) {
+            builder.registerTypeAdapterFactory(new AccessorTypeAdapterFactory());
+        }
+        gson = builder.create();
+        student = new Student(1, "张三", 23, "男");
+        json = gson.toJson(student);
+    }
+
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(student);
+    }
+
+    @Benchmark
+    public Student fromJson() {
+        return gson.fromJson(json, Student.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GsonAdapterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.github.oopstool.json;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 反序列化为List&lt;Student&gt;的几种方式的吞吐对比：
+ * <ul>
+ *     <li>erased：{@link GsonUtils#jsonToList(String)}得到LinkedTreeMap后再逐个转换为Student，调用方常见的写法</li>
+ *     <li>perCallToken：每次新建TypeToken后调用{@link GsonUtils#jsonToList(String, java.lang.reflect.Type)}</li>
+ *     <li>cachedType：{@link GsonUtils#jsonToList(String, Class)}，Type来自缓存</li>
+ * </ul>
+ *
+ * @author HouGY
+ * @since 1.0.4
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GsonTypeBenchmark {
+
+    private static final Gson GSON = new Gson();
+
+    @Param({"1", "100"})
+    public int size;
+
+    private String json;
+
+    @Setup
+    public void setup() {
+        json = GsonUtils.toJson(IntStream.range(0, size).mapToObj(i -> new Student(i, "name" + i, 20 + i % 10, "男"))
+            .collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public List<Student> erased() {
+        final List<Map<String, Object>> maps = GsonUtils.jsonToList(json);
+        final List<Student> students = new ArrayList<>(maps.size());
+        for (Map<String, Object> map : maps) {
+            students.add(GSON.fromJson(GSON.toJsonTree(map), Student.class));
+        }
+        return students;
+    }
+
+    @Benchmark
+    public List<Student> perCallToken() {
+        return GsonUtils.jsonToList(json, new TypeToken<List<Student>>() {
+        }.getType());
+    }
+
+    @Benchmark
+    public List<Student> cachedType() {
+        return GsonUtils.jsonToList(json, Student.class);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(GsonTypeBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -2,16 +2,35 @@ package com.github.oopstool.json;
 
 import com.github.oopstool.string.StringUtils;
 import com.google.common.collect.Lists;
+import com.google.gson.JsonSyntaxException;
 import com.google.gson.reflect.TypeToken;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class GsonUtilsTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private static Student student;
 
     private static Student student1;
@@ -89,4 +108,172 @@ public class GsonUtilsTest {
         ArrayList<HashMap<String, Integer>> hashMaps = Lists.newArrayList(map1, map2);
         System.out.println(GsonUtils.toJson(hashMaps));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void readArray() throws Exception {
+        String studentArray = "[{\"id\":1,\"name\":\"张三\",\"age\":23,\"sex\":null},null,{\"id\":12,\"name\":\"李四\"}]";
+        try (JsonArrayIterator<Student> students = GsonUtils.readArray(new StringReader(studentArray), Student.class)) {
+            Assert.assertEquals("张三", students.next().getName());
+            Assert.assertNull(students.next());
+            Assert.assertEquals(12, (int) students.next().getId());
+            Assert.assertFalse(students.hasNext());
+        }
+        try (JsonArrayIterator<Map<String, Integer>> maps = GsonUtils.readArray(
+            new StringReader("[{\"张三\":23},{\"李四\":24}]"), new TypeToken<Map<String, Integer>>() {
+            }.getType())) {
+            Assert.assertEquals(23, (int) maps.next().get("张三"));
+            Assert.assertEquals(24, (int) maps.next().get("李四"));
+        }
+        Assert.assertFalse(GsonUtils.readArray(new StringReader("null"), Student.class).hasNext());
+        Assert.assertFalse(GsonUtils.readArray(new StringReader("[]"), Student.class).hasNext());
+        try {
+            GsonUtils.readArray(new StringReader("[{\"id\":1}, {\"id\":"), Student.class).forEachRemaining(s -> {
+            });
+            Assert.fail();
+        } catch (JsonSyntaxException expected) {
+        }
+    }
+
+    @Test
+    public void streamArray() throws Exception {
+        // 逐个生成元素的Reader，整个数组从不出现在内存中
+        int count = 1_000_000;
+        Reader generated = new Reader() {
+            private int index = -1;
+            private String pending = "[";
+            private int offset;
+
+            @Override
+            public int read(char[] buf, int off, int len) {
+                if (offset == pending.length()) {
+                    if (index == count) {
+                        return -1;
+                    }
+                    index++;
+                    pending = index == count ? "]"
+                        : (index == 0 ? "" : ",") + "{\"id\":" + index + ",\"name\":\"n" + index + "\"}";
+                    offset = 0;
+                }
+                int n = Math.min(len, pending.length() - offset);
+                pending.getChars(offset, offset + n, buf, off);
+                offset += n;
+                return n;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        AtomicLong sum = new AtomicLong();
+        long read = GsonUtils.forEachInArray(generated, Student.class, s -> sum.addAndGet(s.getId()));
+        Assert.assertEquals(count, read);
+        Assert.assertEquals((long) count * (count - 1) / 2, sum.get());
+
+        String json = GsonUtils.toJson(Lists.newArrayList(student, student1));
+        try (Stream<Student> students = GsonUtils.streamArray(
+            new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), Student.class)) {
+            Assert.assertEquals("张三,李四", students.map(Student::getName).collect(Collectors.joining(",")));
+        }
+
+        Path file = folder.getRoot().toPath().resolve("students.json");
+        Files.write(file, json.getBytes(StandardCharsets.UTF_8));
+        try (Stream<Student> students = GsonUtils.streamArray(file, Student.class)) {
+            Assert.assertEquals(2, students.filter(s -> s.getAge() > 20).count());
+        }
+        List<String> names = new ArrayList<>();
+        Assert.assertEquals(2, GsonUtils.forEachInArray(file, Student.class, s -> names.add(s.getName())));
+        Assert.assertEquals(Lists.newArrayList("张三", "李四"), names);
+    }
+
+    @Test
+    public void toJsonStreaming() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        GsonUtils.toJson(student, builder);
+        Assert.assertEquals(GsonUtils.toJson(student), builder.toString());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GsonUtils.toJson(student1, bytes);
+        Assert.assertEquals(GsonUtils.toJson(student1), new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+
+        StringWriter writer = new StringWriter();
+        long count = GsonUtils.toJsonArray(Lists.newArrayList(student, null, student1).iterator(), writer);
+        Assert.assertEquals(3, count);
+        Assert.assertEquals(GsonUtils.toJson(Lists.newArrayList(student, null, student1)), writer.toString());
+
+        StringWriter empty = new StringWriter();
+        Assert.assertEquals(0, GsonUtils.toJsonArray(Stream.empty(), empty));
+        Assert.assertEquals("[]", empty.toString());
+
+        // 分页写出后再流式读回
+        Path file = folder.getRoot().toPath().resolve("export.json");
+        try (JsonArrayWriter arrayWriter = GsonUtils.newArrayWriter(Files.newOutputStream(file))) {
+            for (int page = 0; page < 10; page++) {
+                int from = page * 1000;
+                IntStream.range(from, from + 1000).mapToObj(i -> new Student(i, "n" + i, i % 100, null))
+                    .forEach(arrayWriter::write);
+            }
+            Assert.assertEquals(10000, arrayWriter.count());
+        }
+        AtomicLong sum = new AtomicLong();
+        Assert.assertEquals(10000, GsonUtils.forEachInArray(file, Student.class, s -> sum.addAndGet(s.getId())));
+        Assert.assertEquals(10000L * 9999 / 2, sum.get());
+    }
+
+    @Test
+    public void jsonToListWithClass() {
+        String studentArray = "[{\"id\":1,\"name\":\"张三\",\"age\":23,\"sex\":null},{\"id\":12,\"name\":\"李四\",\"age\":24,\"sex\":\"女\"}]";
+        List<Student> students = GsonUtils.jsonToList(studentArray, Student.class);
+        Assert.assertEquals(2, students.size());
+        Assert.assertEquals(Student.class, students.get(0).getClass());
+        Assert.assertEquals("李四", students.get(1).getName());
+        Assert.assertEquals(students.get(0).getName(), GsonUtils.jsonToList(studentArray, Student.class).get(0).getName());
+        // 擦除的版本元素为LinkedTreeMap，数值为Double
+        Object erased = GsonUtils.<Object>jsonToList(studentArray).get(0);
+        Assert.assertTrue(erased instanceof Map);
+        Assert.assertEquals(1.0, ((Map<?, ?>) erased).get("id"));
+
+        Map<String, Integer> ages = GsonUtils.jsonToMap("{\"张三\":23,\"李四\":24}", String.class, Integer.class);
+        Assert.assertEquals(Integer.valueOf(23), ages.get("张三"));
+        Map<Integer, Student> byId = GsonUtils.jsonToMap("{\"1\":{\"name\":\"张三\"}}", Integer.class, Student.class);
+        Assert.assertEquals("张三", byId.get(1).getName());
+        Map<Integer, String> names = GsonUtils.jsonToMap("{\"1\":\"张三\"}", Integer.class, String.class);
+        Assert.assertEquals("张三", names.get(1));
+    }
+
+    @Test
+    public void profile() throws Exception {
+        Student html = new Student(1, "<张三>", 23, null);
+        Assert.assertEquals("{\"id\":1,\"name\":\"\\u003c张三\\u003e\",\"age\":23,\"sex\":null}", GsonUtils.toJson(html));
+        Assert.assertEquals(GsonUtils.toJson(html), GsonUtils.toJson(html, GsonProfile.DEFAULT));
+        // 省略null字段，不转义html字符
+        Assert.assertEquals("{\"id\":1,\"name\":\"<张三>\",\"age\":23}", GsonUtils.toJson(html, GsonProfile.COMPACT));
+        Assert.assertEquals("{\"id\":1,\"name\":\"\\u003c张三\\u003e\",\"age\":23}",
+            GsonUtils.toJson(html, GsonProfile.NO_NULLS));
+        Assert.assertTrue(GsonUtils.toJson(html, GsonProfile.PRETTY).contains("\n  \"sex\": null"));
+        Assert.assertEquals("NaN", GsonUtils.toJson(Double.NaN, GsonProfile.LENIENT));
+        Assert.assertSame(GsonProfile.COMPACT.gson(), GsonProfile.COMPACT.gson());
+
+        StringWriter out = new StringWriter();
+        Assert.assertEquals(2, GsonUtils.toJsonArray(Lists.newArrayList(student, student1).iterator(), out,
+            GsonProfile.COMPACT));
+        Assert.assertEquals("[{\"id\":1,\"name\":\"张三\",\"age\":23},{\"id\":12,\"name\":\"李四\",\"age\":24,\"sex\":\"女\"}]",
+            out.toString());
+        List<Student> students = GsonUtils.jsonToList(out.toString(), Student.class, GsonProfile.COMPACT);
+        Assert.assertNull(students.get(0).getSex());
+        Assert.assertEquals("女", GsonUtils.jsonToBean(GsonUtils.toJson(student1, GsonProfile.PRETTY), Student.class,
+            GsonProfile.PRETTY).getSex());
+
+        // 流式读写同样可以指定配置
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Assert.assertEquals(2, GsonUtils.toJsonArray(Stream.of(student, student1), bytes, GsonProfile.COMPACT));
+        String compact = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        Assert.assertEquals(out.toString(), compact);
+        try (Stream<Student> stream = GsonUtils.streamArray(new ByteArrayInputStream(bytes.toByteArray()),
+            Student.class, GsonProfile.COMPACT)) {
+            Assert.assertEquals(Lists.newArrayList(1, 12), stream.map(Student::getId).collect(Collectors.toList()));
+        }
+        AtomicLong sum = new AtomicLong();
+        Assert.assertEquals(2, GsonUtils.forEachInArray(new StringReader(compact), Student.class,
+            s -> sum.addAndGet(s.getAge()), GsonProfile.LENIENT));
+        Assert.assertEquals(47, sum.get());
+    }
+}
@@ -6,6 +6,7 @@ package com.github.oopstool.json;
  * @author : HouGY
  * @since : 2021/3/17
  */
+@GenerateAdapter
 public class Student {
 
     private Integer id;
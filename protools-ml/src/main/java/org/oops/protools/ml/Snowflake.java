@@ -1,190 +0,0 @@
-package org.oops.protools.ml;
-
-import java.io.Serializable;
-import java.util.Date;
-
-/**
- * Twitter的Snowflake 算法<br>
- * 分布式系统中，有一些需要使用全局唯一ID的场景，有些时候我们希望能使用一种简单一些的ID，并且希望ID能够按照时间有序生成。
- *
- * <p>
- * snowflake的结构如下(每部分用-分开):<br>
- *
- * <pre>
- * 0 - 0000000000 0000000000 0000000000 0000000000 0 - 00000 - 00000 - 000000000000
- * </pre>
- * <p>
- * 第一位为未使用(符号位表示正数)，接下来的41位为毫秒级时间(41位的长度可以使用69年)<br>
- * 然后是5位datacenterId和5位workerId(10位的长度最多支持部署1024个节点）<br>
- * 最后12位是毫秒内的计数（12位的计数顺序号支持每个节点每毫秒产生4096个ID序号）
- * <p>
- * 并且可以通过生成的id反推出生成时间,datacenterId和workerId
- * <p>
- * 参考：http://www.cnblogs.com/relucent/p/4955340.html
- *
- * @author HouGY
- * @since 3.0.1
- */
-public class Snowflake implements Serializable {
-	private static final long serialVersionUID = 1L;
-
-	private final long twepoch;
-	private final long workerIdBits = 5L;
-	/**
-	 * 最大支持机器节点数0~31，一共32个
- 	 */
-	@SuppressWarnings({"PointlessBitwiseExpression", "FieldCanBeLocal"})
-	private final long maxWorkerId = -1L ^ (-1L << workerIdBits);
-	private final long dataCenterIdBits = 5L;
-
-	/**
-	 * 最大支持数据中心节点数0~31，一共32个
-	 */
-	@SuppressWarnings({"PointlessBitwiseExpression", "FieldCanBeLocal"})
-	private final long maxDataCenterId = -1L ^ (-1L << dataCenterIdBits);
-	// 序列号12位
-	private final long sequenceBits = 12L;
-	// 机器节点左移12位
-	private final long workerIdShift = sequenceBits;
-	/**
-	 * 数据中心节点左移17位
-	 */
-	private final long dataCenterIdShift = sequenceBits + workerIdBits;
-	/**
-	 * 时间毫秒数左移22位
- 	 */
-	private final long timestampLeftShift = sequenceBits + workerIdBits + dataCenterIdBits;
-	// 序列掩码，用于限定序列最大值不能超过4095
-	@SuppressWarnings("FieldCanBeLocal")
-	private final long sequenceMask = ~(-1L << sequenceBits);// 4095
-
-	private final long workerId;
-	private final long dataCenterId;
-	private long sequence = 0L;
-	private long lastTimestamp = -1L;
-
-	/**
-	 * @param epochDate        初始化时间起点（null表示默认起始日期）,后期修改会导致id重复,如果要修改连workerId dataCenterId，慎用
-	 * @param workerId         工作机器节点id
-	 * @param dataCenterId     数据中心id
-	 * @since 5.1.3
-	 */
-	public Snowflake(Date epochDate, long workerId, long dataCenterId) {
-		if (null != epochDate) {
-			this.twepoch = epochDate.getTime();
-		} else{
-			// Thu, 04 Nov 2010 01:42:54 GMT
-			this.twepoch = 1288834974657L;
-		}
-		if (workerId > maxWorkerId || workerId < 0) {
-			throw new IllegalArgumentException("worker Id can't be greater than {} or less than 0");
-		}
-		if (dataCenterId > maxDataCenterId || dataCenterId < 0) {
-			throw new IllegalArgumentException("datacenter Id can't be greater than {} or less than 0");
-		}
-		this.workerId = workerId;
-		this.dataCenterId = dataCenterId;
-	}
-
-	/**
-	 * 根据Snowflake的ID，获取机器id
-	 *
-	 * @param id snowflake算法生成的id
-	 * @return 所属机器的id
-	 */
-	public long getWorkerId(long id) {
-		return id >> workerIdShift & ~(-1L << workerIdBits);
-	}
-
-	/**
-	 * 根据Snowflake的ID，获取数据中心id
-	 *
-	 * @param id snowflake算法生成的id
-	 * @return 所属数据中心
-	 */
-	public long getDataCenterId(long id) {
-		return id >> dataCenterIdShift & ~(-1L << dataCenterIdBits);
-	}
-
-	/**
-	 * 根据Snowflake的ID，获取生成时间
-	 *
-	 * @param id snowflake算法生成的id
-	 * @return 生成的时间
-	 */
-	public long getGenerateDateTime(long id) {
-		return (id >> timestampLeftShift & ~(-1L << 41L)) + twepoch;
-	}
-
-	/**
-	 * 下一个ID
-	 *
-	 * @return ID
-	 */
-	public synchronized long nextId() {
-		long timestamp = genTime();
-		if (timestamp < this.lastTimestamp) {
-			if(this.lastTimestamp - timestamp < 2000){
-				// 容忍2秒内的回拨，避免NTP校时造成的异常
-				timestamp = lastTimestamp;
-			} else{
-				// 如果服务器时间有问题(时钟后退) 报错。
-				throw new IllegalStateException("Clock moved backwards. Refusing to generate id for {}ms");
-			}
-		}
-
-		if (timestamp == this.lastTimestamp) {
-			final long sequence = (this.sequence + 1) & sequenceMask;
-			if (sequence == 0) {
-				timestamp = tilNextMillis(lastTimestamp);
-			}
-			this.sequence = sequence;
-		} else {
-			sequence = 0L;
-		}
-
-		lastTimestamp = timestamp;
-
-		return ((timestamp - twepoch) << timestampLeftShift) | (dataCenterId << dataCenterIdShift) | (workerId << workerIdShift) | sequence;
-	}
-
-	/**
-	 * 下一个ID（字符串形式）
-	 *
-	 * @return ID 字符串形式
-	 */
-	public String nextIdStr() {
-		return Long.toString(nextId());
-	}
-
-	// ------------------------------------------------------------------------------------------------------------------------------------ Private method start
-
-	/**
-	 * 循环等待下一个时间
-	 *
-	 * @param lastTimestamp 上次记录的时间
-	 * @return 下一个时间
-	 */
-	private long tilNextMillis(long lastTimestamp) {
-		long timestamp = genTime();
-		// 循环直到操作系统时间戳变化
-		while (timestamp == lastTimestamp) {
-			timestamp = genTime();
-		}
-		if (timestamp < lastTimestamp) {
-			// 如果发现新的时间戳比上次记录的时间戳数值小，说明操作系统时间发生了倒退，报错
-			throw new IllegalStateException();
-		}
-		return timestamp;
-	}
-
-	/**
-	 * 生成时间戳
-	 *
-	 * @return 时间戳
-	 */
-	private long genTime() {
-		return  System.currentTimeMillis();
-	}
-	// ------------------------------------------------------------------------------------------------------------------------------------ Private method end
-}